@@ -0,0 +1,57 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entity.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Serialization cost of one GET /employees page (100 rows) for the three
+ * shapes the list endpoint can produce: "hash" is the old response that still
+ * carried the BCrypt hash, "default" is the projected document without it, and
+ * "username" is fields=username. The payload size of each shape is printed once
+ * in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeePayloadBenchmark {
+
+	@Param({ "hash", "default", "username" })
+	public String shape;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private Object page;
+
+	@Setup
+	public void setup() throws Exception {
+		String hash = new BCryptPasswordEncoder(4).encode("password");
+		List<Object> rows = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			String id = String.format("%024x", i);
+			switch (shape) {
+			case "hash" -> rows.add(new LegacyEmployee(id, "user" + i, hash, List.of("USER")));
+			case "default" -> rows.add(new Employee(id, "user" + i, null, List.of("USER")));
+			default -> rows.add(new Employee(id, "user" + i, null, null));
+			}
+		}
+		page = rows;
+		System.out.printf("%n[%s] page of 100 = %d bytes%n", shape, mapper.writeValueAsBytes(page).length);
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws Exception {
+		return mapper.writeValueAsBytes(page);
+	}
+
+	/** Shape of the pre-projection response, password hash included */
+	public record LegacyEmployee(String empId, String username, String password, List<String> userRoles) {
+	}
+}
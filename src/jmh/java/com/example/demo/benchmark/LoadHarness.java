@@ -0,0 +1,243 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.SpringSecurityJWT;
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * In-process load generator: starts the application with the inmemory profile
+ * on a random port, seeds users, then drives it over HTTP with "concurrency"
+ * virtual users for "duration" after a "warmup", and prints throughput and
+ * p50/p99/p999/max latency per endpoint plus the status codes seen. The login
+ * rate limit is switched off so the hashing pool and the filter chain are what
+ * is measured. Each virtual user sends its next request when the previous answer
+ * arrived (closed loop), so the latencies are those at the throughput the
+ * server sustains; they are not corrected for coordinated omission. Virtual
+ * users are asynchronous (HttpClient.sendAsync), so 10k of them need 10k
+ * connections but not 10k threads; they are started evenly over the first half
+ * of the warmup.
+ *
+ *   mvn -Pbenchmark test-compile exec:exec@load -Dload.args="scenario=login concurrency=32 duration=60s"
+ *   mvn -Pbenchmark test-compile exec:exec@load -Dload.args="mode=reactive concurrency=10000"
+ *
+ * Arguments (key=value): scenario login|employees|mixed (employees), concurrency (16), duration (30s),
+ * warmup (5s), users to seed (1000), limit page size for GET /employees (100), bcrypt-strength (10),
+ * mode servlet|reactive (servlet), url of an already running server (none: start one in-process).
+ * mixed sends one login per nine employee pages. In-process, every connection uses two file descriptors,
+ * so beyond ~ulimit -n / 2 connections start the server on its own (inmemory profile, login rate limit
+ * off, low bcrypt-strength) and pass its url; users are then seeded through POST /employees/bulk.
+ */
+public class LoadHarness {
+
+	private static final String PASSWORD = "load-test-password";
+
+	private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(30)).executor(Executors.newFixedThreadPool(4, r -> {
+				Thread t = new Thread(r, "load-client");
+				t.setDaemon(true);
+				return t;
+			})).build();
+	private final ObjectMapper json = new ObjectMapper();
+	private final Map<String, Recorder> latencies = new ConcurrentHashMap<>();
+	private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+	private final String baseUrl;
+	private final int users;
+	private final int limit;
+	private String adminToken;
+
+	LoadHarness(String baseUrl, int users, int limit) {
+		this.baseUrl = baseUrl;
+		this.users = users;
+		this.limit = limit;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> opts = new LinkedHashMap<>(Map.of("scenario", "employees", "concurrency", "16",
+				"duration", "30s", "warmup", "5s", "users", "1000", "limit", "100", "bcrypt-strength", "10",
+				"mode", "servlet", "url", ""));
+		for (String arg : args) {
+			String[] kv = arg.split("=", 2);
+			if (kv.length != 2 || !opts.containsKey(kv[0])) {
+				throw new IllegalArgumentException("expected key=value with key in " + opts.keySet() + ", got " + arg);
+			}
+			opts.put(kv[0], kv[1]);
+		}
+		int users = Integer.parseInt(opts.get("users"));
+		int limit = Integer.parseInt(opts.get("limit"));
+		if (!opts.get("url").isEmpty()) {
+			LoadHarness harness = new LoadHarness(opts.get("url"), users, limit);
+			harness.adminToken = harness.login("admin", "admin123");
+			harness.seedOverHttp();
+			harness.run(opts);
+			return;
+		}
+		// DevTools would re-run main on a restart thread without these arguments
+		System.setProperty("spring.devtools.restart.enabled", "false");
+
+		// command-line properties, so they win over application.properties
+		boolean reactive = "reactive".equals(opts.get("mode"));
+		ConfigurableApplicationContext app = new SpringApplicationBuilder(SpringSecurityJWT.class)
+				.profiles(reactive ? new String[] { "inmemory", "reactive" } : new String[] { "inmemory" })
+				.run("--server.port=0", "--logging.level.root=WARN", "--app.security.login-rate.ip.capacity=0",
+						"--app.security.login-rate.username.capacity=0",
+						"--app.security.password.bcrypt-strength=" + opts.get("bcrypt-strength"));
+		try {
+			seed(app, users);
+			String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+			LoadHarness harness = new LoadHarness(baseUrl, users, limit);
+			harness.adminToken = harness.login("admin", "admin123");
+			harness.run(opts);
+		} finally {
+			app.close();
+		}
+	}
+
+	private void run(Map<String, String> opts) throws InterruptedException {
+		System.out.println("Load test " + opts);
+		run(opts.get("scenario"), Integer.parseInt(opts.get("concurrency")),
+				DurationStyle.detectAndParse(opts.get("warmup")), DurationStyle.detectAndParse(opts.get("duration")));
+	}
+
+	/* one hash shared by all seeded users, so seeding does not take users x BCrypt */
+	private static void seed(ConfigurableApplicationContext app, int users) {
+		String hash = app.getBean(PasswordEncoder.class).encode(PASSWORD);
+		List<Employee> batch = new ArrayList<>(users);
+		for (int i = 0; i < users; i++) {
+			batch.add(new Employee(String.format("LOAD%07d", i), "load-user-" + i, hash, List.of("USER")));
+		}
+		app.getBean(EmployeeRepository.class).insertUnordered(batch);
+	}
+
+	/* seeds "users" accounts through the API, 1000 per bulk request; the server hashes every password */
+	private void seedOverHttp() throws IOException {
+		for (int start = 0; start < users; start += 1000) {
+			List<Map<String, Object>> batch = new ArrayList<>();
+			for (int i = start; i < Math.min(start + 1000, users); i++) {
+				batch.add(Map.of("empId", String.format("LOAD%07d", i), "username", "load-user-" + i, "password",
+						PASSWORD, "userRoles", List.of("USER")));
+			}
+			send("seed", HttpRequest.newBuilder(URI.create(baseUrl + "/employees/bulk"))
+					.header("Authorization", "Bearer " + adminToken).header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(batch)))).join();
+		}
+	}
+
+	void run(String scenario, int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+		long end = System.nanoTime() + warmup.toNanos() + duration.toNanos();
+		CountDownLatch finished = new CountDownLatch(concurrency);
+		long rampUpStep = warmup.toNanos() / 2 / concurrency;
+		long warmupEnd = System.nanoTime() + warmup.toNanos();
+		for (int i = 0; i < concurrency; i++) {
+			loop(scenario, end, finished);
+			LockSupport.parkNanos(rampUpStep);
+		}
+		Thread.sleep(Math.max(0, (warmupEnd - System.nanoTime()) / 1_000_000));
+		latencies.values().forEach(Recorder::reset);
+		statuses.values().forEach(LongAdder::reset);
+		long started = System.nanoTime();
+		finished.await(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+		report((System.nanoTime() - started) / 1e9);
+	}
+
+	/* one virtual user: the next request goes out when the previous answer arrived */
+	private void loop(String scenario, long end, CountDownLatch finished) {
+		if (System.nanoTime() >= end) {
+			finished.countDown();
+			return;
+		}
+		step(scenario).whenComplete((response, ex) -> loop(scenario, end, finished));
+	}
+
+	private CompletableFuture<HttpResponse<String>> step(String scenario) {
+		boolean login = switch (scenario) {
+		case "login" -> true;
+		case "employees" -> false;
+		case "mixed" -> ThreadLocalRandom.current().nextInt(10) == 0;
+		default -> throw new IllegalArgumentException("unknown scenario " + scenario);
+		};
+		if (login) {
+			String body = "{\"username\":\"load-user-" + ThreadLocalRandom.current().nextInt(users)
+					+ "\",\"password\":\"" + PASSWORD + "\"}";
+			return send("POST /auth/login", HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+					.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body)));
+		}
+		return send("GET /employees", HttpRequest.newBuilder(URI.create(baseUrl + "/employees?limit=" + limit))
+				.header("Authorization", "Bearer " + adminToken).GET());
+	}
+
+	/* completes with null instead of failing, so a connection error does not stop the virtual user */
+	private CompletableFuture<HttpResponse<String>> send(String name, HttpRequest.Builder request) {
+		long start = System.nanoTime();
+		return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString()).handle((response, ex) -> {
+			String status = ex == null ? Integer.toString(response.statusCode())
+					: (ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex).getClass()
+							.getSimpleName();
+			latencies.computeIfAbsent(name, n -> new Recorder(3)).recordValue(System.nanoTime() - start);
+			statuses.computeIfAbsent(name + " " + status, s -> new LongAdder()).increment();
+			return response;
+		});
+	}
+
+	private String login(String username, String password) throws IOException {
+		HttpResponse<String> response = send("login", HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(
+						Map.of("username", username, "password", password))))).join();
+		if (response == null || response.statusCode() != 200) {
+			throw new IllegalStateException(
+					"admin login failed: " + (response == null ? "no response" : response.body()));
+		}
+		return json.readTree(response.body()).get("token").asText();
+	}
+
+	private void report(double seconds) {
+		System.out.printf("%-18s %10s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "req/s", "p50 ms", "p99 ms",
+				"p999 ms", "max ms");
+		new TreeMap<>(latencies).forEach((name, recorder) -> {
+			Histogram h = recorder.getIntervalHistogram();
+			if (h.getTotalCount() == 0) {
+				return;
+			}
+			System.out.printf("%-18s %10d %10.1f %9.2f %9.2f %9.2f %9.2f%n", name, h.getTotalCount(),
+					h.getTotalCount() / seconds, ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)),
+					ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+		});
+		new TreeMap<>(statuses).forEach((key, count) -> {
+			if (count.sum() > 0) {
+				System.out.printf("  %-30s %d%n", key, count.sum());
+			}
+		});
+	}
+
+	private static double ms(long nanos) {
+		return nanos / 1e6;
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * BCrypt encode and match at several cost factors. Each step doubles the work,
+ * so these numbers show directly what a cost change does to login latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+	@Param({ "8", "10", "12" })
+	public int cost;
+
+	private BCryptPasswordEncoder encoder;
+	private String hash;
+
+	@Setup
+	public void setup() {
+		encoder = new BCryptPasswordEncoder(cost);
+		hash = encoder.encode("admin123");
+	}
+
+	@Benchmark
+	public String encode() {
+		return encoder.encode("admin123");
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return encoder.matches("admin123", hash);
+	}
+}
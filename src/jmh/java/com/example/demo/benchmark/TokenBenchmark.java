@@ -0,0 +1,141 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.TokenRevocationList;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.security.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JwtUtil hot paths: signing a token, a cold verify (cache off), a verify that
+ * hits the VerifiedTokenCache, and the old validate/getUsername/getRoles
+ * sequence the filter used to run, kept as the "before" baseline. The baseline
+ * is LegacyJwtUtil, a verbatim copy of the pre-verify() JwtUtil that builds a
+ * new parser for each of its three parses; calling today's wrappers instead
+ * would measure the shared parser three times, not the old code. The *Fast
+ * variants run the same paths with app.jwt.codec=fast. revocationCheck is the
+ * per-request TokenRevocationList lookup for a live token while 10k others are
+ * revoked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBenchmark {
+
+	private static final List<String> ROLES = List.of("ADMIN", "USER");
+
+	private JwtUtil uncached;
+	private JwtUtil cached;
+	private JwtUtil fast;
+	private String token;
+	private String fastToken;
+	private TokenRevocationList revocations;
+	private String liveJti;
+	private LegacyJwtUtil legacy;
+	private String legacyToken;
+
+	@Setup
+	public void setup() {
+		uncached = new JwtUtil();
+		cached = new JwtUtil();
+		ReflectionTestUtils.setField(cached, "tokenCache", new VerifiedTokenCache(10_000, null));
+		token = uncached.generateToken("admin", ROLES);
+		// same key is needed for the cached instance to accept the token
+		ReflectionTestUtils.setField(cached, "keyRing", ReflectionTestUtils.getField(uncached, "keyRing"));
+
+		fast = new JwtUtil();
+		ReflectionTestUtils.setField(fast, "codec", "fast");
+		ReflectionTestUtils.invokeMethod(fast, "init");
+		fastToken = fast.generateToken("admin", ROLES);
+
+		revocations = new TokenRevocationList(null, 100_000);
+		for (int i = 0; i < 10_000; i++) {
+			revocations.revoke(uncached.issue("user" + i, ROLES).jti(), System.currentTimeMillis() + 3_600_000);
+		}
+		liveJti = uncached.verify(token).getJti();
+
+		legacy = new LegacyJwtUtil();
+		legacyToken = legacy.generateToken("admin", ROLES);
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return uncached.generateToken("admin", ROLES);
+	}
+
+	@Benchmark
+	public VerifiedToken verify() {
+		return uncached.verify(token);
+	}
+
+	@Benchmark
+	public VerifiedToken verifyCached() {
+		return cached.verify(token);
+	}
+
+	@Benchmark
+	public String generateTokenFast() {
+		return fast.generateToken("admin", ROLES);
+	}
+
+	@Benchmark
+	public VerifiedToken verifyFast() {
+		return fast.verify(fastToken);
+	}
+
+	@Benchmark
+	public boolean revocationCheck() {
+		return revocations.isRevoked(liveJti);
+	}
+
+	@Benchmark
+	public Object legacyThreeParses() {
+		legacy.validateToken(legacyToken);
+		legacy.getUsername(legacyToken);
+		return legacy.getRoles(legacyToken);
+	}
+
+	/** JwtUtil as it was before verify(): one parser built per call, three parses per request */
+	static class LegacyJwtUtil {
+
+		private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+		private final long expirationMs = 1000 * 60 * 60; // 1h
+
+		public String generateToken(String username, List<String> roles) {
+			return Jwts.builder().setSubject(username).claim("roles", roles).setIssuedAt(new Date())
+					.setExpiration(new Date(System.currentTimeMillis() + expirationMs)).signWith(key).compact();
+		}
+
+		public boolean validateToken(String token) {
+			try {
+				Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+				return true;
+			} catch (JwtException ex) {
+				return false;
+			}
+		}
+
+		public String getUsername(String token) {
+			return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+		}
+
+		@SuppressWarnings("unchecked")
+		public List<String> getRoles(String token) {
+			return (List<String>) Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody()
+					.get("roles");
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.service.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * CustomUserDetailsService.loadUserByUsername against an in-memory repository,
+ * so the number reflects the mapping work and not Mongo round trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+	private CustomUserDetailsService uds;
+
+	@Setup
+	public void setup() {
+		Map<String, Employee> byUsername = new ConcurrentHashMap<>();
+		for (int i = 0; i < 10_000; i++) {
+			String username = "user" + i;
+			byUsername.put(username, new Employee("EMP" + i, username, "{noop}x", List.of("USER")));
+		}
+		EmployeeRepository repo = (EmployeeRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { EmployeeRepository.class }, (proxy, method, args) -> {
+					if (method.getName().equals("findByUsername")) {
+						return Optional.ofNullable(byUsername.get((String) args[0]));
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+		uds = new CustomUserDetailsService();
+		ReflectionTestUtils.setField(uds, "employeeRepository", repo);
+	}
+
+	@Benchmark
+	public UserDetails loadUserByUsername() {
+		return uds.loadUserByUsername("user4242");
+	}
+}
@@ -6,12 +6,14 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.example.demo.entity.Employee;
 import com.example.demo.repository.EmployeeRepository;
 
 @SpringBootApplication
+@EnableScheduling
 public class SpringSecurityJWT {
 
 	public static void main(String[] args) {
@@ -20,7 +22,7 @@ public class SpringSecurityJWT {
 
 	/** On startup, ensure an ADMIN user exists */
 	@Bean
-	CommandLineRunner initAdmin(EmployeeRepository repo, BCryptPasswordEncoder encoder) {
+	CommandLineRunner initAdmin(EmployeeRepository repo, PasswordEncoder encoder) {
 		return args -> {
 			if (repo.findByUsername("admin").isEmpty()) {
 				Employee admin = new Employee();
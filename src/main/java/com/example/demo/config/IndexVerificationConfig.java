@@ -0,0 +1,100 @@
+package com.example.demo.config;
+
+import com.example.demo.entity.Employee;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mongodb.client.model.Filters.*;
+import static com.mongodb.client.model.Sorts.ascending;
+
+@Configuration
+@Profile("!inmemory")
+public class IndexVerificationConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(IndexVerificationConfig.class);
+
+	/*
+	 * Startup query-plan check for the employees collection. The indexes are
+	 * declared on Employee and created by spring.data.mongodb.auto-index-creation;
+	 * this runner then asks Mongo to explain each hot query (login / user-details
+	 * lookup by username, role lookup, own-record read, keyset page) and looks for
+	 * a COLLSCAN stage anywhere in the winning plan. With
+	 * app.mongo.index-check=fail (default) startup aborts, with warn it only logs
+	 * an error, with off the check is skipped. Not loaded with the inmemory
+	 * profile, which has no MongoTemplate.
+	 */
+	@Bean
+	ApplicationRunner verifyEmployeeIndexes(MongoTemplate mongoTemplate,
+			@Value("${app.mongo.index-check:fail}") String mode) {
+		return args -> {
+			if ("off".equalsIgnoreCase(mode)) {
+				return;
+			}
+			String collection = mongoTemplate.getCollectionName(Employee.class);
+			Map<String, Document> plans = new LinkedHashMap<>();
+			plans.put("findByUsername", explain(mongoTemplate, collection, eq("username", "admin"), null));
+			plans.put("findByUserRole", explain(mongoTemplate, collection, eq("userRoles", "ADMIN"), null));
+			plans.put("findByIdAndUsername",
+					explain(mongoTemplate, collection, and(eq("_id", "EMP001"), eq("username", "admin")), null));
+			plans.put("findPageAfter", explain(mongoTemplate, collection,
+					or(gt("_id", "EMP001"), type("_id", "objectId")), ascending("_id")));
+			plans.put("findPageAfter(ObjectId)",
+					explain(mongoTemplate, collection, gt("_id", new ObjectId()), ascending("_id")));
+
+			List<String> scans = new ArrayList<>();
+			plans.forEach((query, plan) -> {
+				if (containsCollScan(plan)) {
+					scans.add(query);
+				}
+			});
+			if (scans.isEmpty()) {
+				log.info("Index check passed for {}: {}", collection, plans.keySet());
+				return;
+			}
+			String message = "COLLSCAN in query plan for " + collection + " " + scans
+					+ " - an index is missing; check auto-index creation and Employee @Indexed fields";
+			if ("warn".equalsIgnoreCase(mode)) {
+				log.error(message);
+			} else {
+				throw new IllegalStateException(message);
+			}
+		};
+	}
+
+	private static Document explain(MongoTemplate mongoTemplate, String collection, Bson filter, Bson sort) {
+		var find = mongoTemplate.getCollection(collection).find(filter).limit(1);
+		if (sort != null) {
+			find = find.sort(sort);
+		}
+		Document planner = find.explain().get("queryPlanner", Document.class);
+		return planner == null ? new Document() : planner.get("winningPlan", new Document());
+	}
+
+	/** Searches the whole plan tree, since stage nesting differs between server versions */
+	static boolean containsCollScan(Object node) {
+		if (node instanceof Document doc) {
+			if ("COLLSCAN".equals(doc.get("stage"))) {
+				return true;
+			}
+			return doc.values().stream().anyMatch(IndexVerificationConfig::containsCollScan);
+		}
+		if (node instanceof List<?> list) {
+			return list.stream().anyMatch(IndexVerificationConfig::containsCollScan);
+		}
+		return false;
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import com.example.demo.security.PasswordEncoders;
+import com.example.demo.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.ToIntFunction;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.security.password.algorithm:bcrypt}")
+	private String algorithm;
+
+	@Value("${app.security.password.bcrypt-strength:10}")
+	private String bcryptStrength;
+
+	@Value("${app.security.password.argon2-iterations:2}")
+	private String argon2Iterations;
+
+	@Value("${app.security.password.target-latency:250ms}")
+	private Duration targetLatency;
+
+	/*
+	 * PasswordEncoder Bean: a DelegatingPasswordEncoder that writes new hashes
+	 * with app.security.password.algorithm (bcrypt or argon2) and verifies both,
+	 * plus the unprefixed BCrypt hashes already in employees. The BCrypt cost
+	 * (10) and Argon2 iterations (2) are fixed numbers by default, so every
+	 * node hashes alike and login latency only changes with the config. Setting
+	 * either to "auto" opts into calibration at startup: the cost is chosen so
+	 * one check takes about app.security.password.target-latency on this
+	 * hardware (only the algorithm used for new hashes is calibrated), which
+	 * can differ between nodes. Higher cost means safer hashes and fewer logins
+	 * per core per second. Hashes below the current setting
+	 * are upgraded on the next successful login (RehashingAuthenticationProvider).
+	 * With a MeterRegistry every encode and match is timed (TimedPasswordEncoder).
+	 */
+	@Bean
+	PasswordEncoder passwordEncoder() {
+		int bcrypt = setting(bcryptStrength, "bcrypt", PasswordEncoders::calibrateBcryptStrength, 10);
+		int argon2 = setting(argon2Iterations, "argon2", PasswordEncoders::calibrateArgon2Iterations, 2);
+		log.info("Password hashing: {} for new hashes, BCrypt cost {}, Argon2 iterations {} (target {} ms)",
+				algorithm, bcrypt, argon2, targetLatency.toMillis());
+		PasswordEncoder encoder = PasswordEncoders.delegating(algorithm, bcrypt, argon2);
+		return meterRegistry == null ? encoder : new TimedPasswordEncoder(encoder, meterRegistry);
+	}
+
+	/* explicit number, else calibrated if this is the encode algorithm, else the floor */
+	private int setting(String value, String forAlgorithm, ToIntFunction<Duration> calibrate, int floor) {
+		if (!"auto".equals(value)) {
+			return Integer.parseInt(value);
+		}
+		return forAlgorithm.equals(algorithm) ? calibrate.applyAsInt(targetLatency) : floor;
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.ReactiveEmployeeRepository;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+@Configuration
+@Profile("reactive & !inmemory")
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveEmployeeRepository.class)
+public class ReactiveMongoConfig {
+
+	/*
+	 * Reactive Mongo client for the reactive profile. Boot's reactive Mongo
+	 * auto-configuration is excluded in application.properties so the servlet
+	 * mode does not open a second, unused connection pool; here the client is
+	 * built from the same spring.data.mongodb settings and the template shares
+	 * the blocking side's MappingMongoConverter, so both map Employee alike.
+	 * Token, refresh-token and revocation storage stay on the blocking
+	 * repositories (see README).
+	 */
+	@Bean(destroyMethod = "close")
+	MongoClient reactiveMongoClient(MongoProperties properties) {
+		return MongoClients.create(properties.determineUri());
+	}
+
+	@Bean
+	ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient, MongoProperties properties,
+			MappingMongoConverter converter) {
+		return new ReactiveMongoTemplate(
+				new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, properties.getMongoClientDatabase()),
+				converter);
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import com.example.demo.security.JwtServerSecurityContextRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+	@Autowired
+	private JwtServerSecurityContextRepository jwtContextRepository;
+
+	@Value("${app.jwt.introspect.role:ADMIN}")
+	private String introspectRole;
+
+	/*
+	 * SecurityWebFilterChain Bean: the reactive profile's copy of
+	 * SecurityConfig.filterChain, with the same rules in the same order: POST
+	 * /auth/introspect needs app.jwt.introspect.role, the rest of /auth/**,
+	 * /.well-known/jwks.json and /actuator/health are public, other
+	 * actuator endpoints need ADMIN, GET /employees/** needs ADMIN or USER, other
+	 * /employees/** need ADMIN, everything else needs authentication. The
+	 * SecurityContext comes from the bearer token
+	 * (JwtServerSecurityContextRepository) and is never stored; CSRF, basic and
+	 * form login are off. Unauthenticated requests get 403, as the servlet chain
+	 * answers without an entry point. Login itself is
+	 * ReactiveEmployeeAuthenticationManager, called by ReactiveAuthController.
+	 */
+	@Bean
+	SecurityWebFilterChain reactiveFilterChain(ServerHttpSecurity http) {
+		return http.csrf(ServerHttpSecurity.CsrfSpec::disable).httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+				.formLogin(ServerHttpSecurity.FormLoginSpec::disable).logout(ServerHttpSecurity.LogoutSpec::disable)
+				.securityContextRepository(jwtContextRepository)
+				.authorizeExchange(auth -> auth.pathMatchers(HttpMethod.POST, "/auth/introspect")
+						.hasRole(introspectRole).pathMatchers("/auth/**", "/.well-known/jwks.json").permitAll()
+						.pathMatchers("/actuator/health").permitAll().pathMatchers("/actuator/**").hasRole("ADMIN")
+						.pathMatchers(HttpMethod.GET, "/employees/**").hasAnyRole("ADMIN", "USER")
+						.pathMatchers("/employees/**").hasRole("ADMIN").anyExchange().authenticated())
+				.exceptionHandling(
+						ex -> ex.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+				.build();
+	}
+}
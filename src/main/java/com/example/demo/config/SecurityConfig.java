@@ -1,24 +1,27 @@
 // src/main/java/com/example/demo/config/SecurityConfig.java
 package com.example.demo.config;
 
+import com.example.demo.repository.EmployeeRepository;
 import com.example.demo.security.JwtAuthenticationFilter;
+import com.example.demo.security.RehashingAuthenticationProvider;
 import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.PasswordHashingService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.*;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.*;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
+@Profile("!reactive")
 @EnableWebSecurity
 public class SecurityConfig {
 
@@ -26,6 +29,16 @@ public class SecurityConfig {
 	private CustomUserDetailsService uds;
 	@Autowired
 	private JwtAuthenticationFilter jwtFilter;
+	@Autowired
+	private PasswordHashingService passwordHashing;
+	@Autowired
+	private EmployeeRepository employeeRepository;
+
+	@Value("${app.security.password.rehash-on-login:true}")
+	private boolean rehashOnLogin;
+
+	@Value("${app.jwt.introspect.role:ADMIN}")
+	private String introspectRole;
 
 	/*
 	 * DaoAuthenticationProvider Bean: Configures a DaoAuthenticationProvider to use
@@ -40,20 +53,23 @@ public class SecurityConfig {
 	 * /employees/** endpoints: Restricted to the ADMIN role. All other requests:
 	 * Require authentication. Session Management: Configured to be stateless (no
 	 * sessions). JWT Filter: Adds the JwtAuthenticationFilter before the
-	 * UsernamePasswordAuthenticationFilter. PasswordEncoder Bean: Provides a
-	 * BCryptPasswordEncoder for securely hashing passwords.
+	 * UsernamePasswordAuthenticationFilter. PasswordEncoder: Provided by
+	 * PasswordEncoderConfig (calibrated BCrypt/Argon2).
 	 */
 	/*
-	 * DaoAuthenticationProvider Bean: Configures a DaoAuthenticationProvider to use
-	 * the custom UserDetailsService (uds) for loading user details. Uses a
-	 * BCryptPasswordEncoder (provided by the passwordEncoder() method) to encode
-	 * and verify passwords.
+	 * DaoAuthenticationProvider Bean: Configures a RehashingAuthenticationProvider
+	 * (a DaoAuthenticationProvider) to use the custom UserDetailsService (uds) for
+	 * loading user details and the PasswordEncoder from PasswordEncoderConfig to
+	 * verify passwords; the check runs on the password-hashing pool
+	 * (PasswordHashingService.pooledMatches), the lookup does not. Outdated
+	 * hashes are upgraded in the background after a successful login unless
+	 * app.security.password.rehash-on-login is false.
 	 */
 	@Bean
 	DaoAuthenticationProvider authenticationProvider() {
-		DaoAuthenticationProvider p = new DaoAuthenticationProvider();
-		p.setUserDetailsService(uds);
-		p.setPasswordEncoder(passwordEncoder());
+		DaoAuthenticationProvider p = new RehashingAuthenticationProvider(passwordHashing, employeeRepository, uds,
+				rehashOnLogin);
+		p.setPasswordEncoder(passwordHashing.pooledMatches());
 		return p;
 	}
 
@@ -69,9 +85,13 @@ public class SecurityConfig {
 
 	/*
 	 * SecurityFilterChain Bean: Configures the HTTP security settings: CSRF:
-	 * Disabled for stateless authentication. Authorization Rules: /auth/**:
-	 * Publicly accessible. GET /employees/**: Accessible to users with roles ADMIN
-	 * or USER. Other /employees/** endpoints: Restricted to the ADMIN role. All
+	 * Disabled for stateless authentication. Authorization Rules: POST
+	 * /auth/introspect needs app.jwt.introspect.role (ADMIN unless configured),
+	 * so only trusted services can make the server verify tokens in bulk. The
+	 * rest of /auth/** and /.well-known/jwks.json: Publicly accessible. GET
+	 * /employees/**: Accessible to users with roles ADMIN or USER. Other
+	 * /employees/** endpoints: Restricted to the ADMIN role.
+	 * /actuator/health is public, other actuator endpoints need ADMIN. All
 	 * other requests: Require authentication. Session Management: Configured to be
 	 * stateless (no sessions).JWT Filter: Adds the JwtAuthenticationFilter before
 	 * the UsernamePasswordAuthenticationFilter
@@ -79,7 +99,9 @@ public class SecurityConfig {
 	@Bean
 	SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 		http.csrf(cs -> cs.disable()).authenticationProvider(authenticationProvider())
-				.authorizeHttpRequests(auth -> auth.requestMatchers("/auth/**").permitAll()
+				.authorizeHttpRequests(auth -> auth.requestMatchers(HttpMethod.POST, "/auth/introspect")
+						.hasRole(introspectRole).requestMatchers("/auth/**", "/.well-known/jwks.json").permitAll()
+						.requestMatchers("/actuator/health").permitAll().requestMatchers("/actuator/**").hasRole("ADMIN")
 						.requestMatchers(HttpMethod.GET, "/employees/**").hasAnyRole("ADMIN", "USER")
 						.requestMatchers("/employees/**").hasRole("ADMIN").anyRequest().authenticated())
 				.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -87,9 +109,4 @@ public class SecurityConfig {
 
 		return http.build();
 	}
-
-	@Bean
-	PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
-	}
 }
@@ -2,52 +2,173 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.AuthRequest;
-import com.example.demo.security.JwtUtil;
-import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.dto.IntrospectRequest;
+import com.example.demo.dto.IntrospectResponse;
+import com.example.demo.dto.RefreshRequest;
+import com.example.demo.dto.TokenResponse;
+import com.example.demo.entity.AuditEvent;
+import com.example.demo.exception.HashingCapacityExceededException;
+import com.example.demo.exception.LoginRateLimitedException;
+import com.example.demo.security.JwtAuthenticationToken;
+import com.example.demo.security.LoginRateLimiter;
+import com.example.demo.security.TokenIntrospector;
+import com.example.demo.security.VerifiedToken;
+import com.example.demo.service.AuditLog;
+import com.example.demo.service.RefreshTokenService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.*;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/auth")
 public class AuthController {
 
 	@Autowired
 	private AuthenticationManager authManager;
 	@Autowired
-	private CustomUserDetailsService uds;
+	private RefreshTokenService refreshTokens;
 	@Autowired
-	private JwtUtil jwtUtil;
+	private LoginRateLimiter rateLimiter;
+	@Autowired
+	private AuditLog audit;
+	@Autowired
+	private TokenIntrospector introspector;
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
 
 	/*
-	 * Authentication: The authManager.authenticate() method is called with a
-	 * UsernamePasswordAuthenticationToken created using the username and password
-	 * from the AuthRequest object. If the credentials are invalid, an exception is
-	 * thrown, and the request fails. Load User Details: The
-	 * uds.loadUserByUsername() method retrieves the UserDetails object for the
-	 * authenticated user. The user's roles are extracted from the UserDetails
-	 * object, and the "ROLE_" prefix is removed for simplicity. Generate JWT Token:
-	 * The jwtUtil.generateToken() method generates a JWT token using the username
-	 * and roles. The token is returned in the response body as a key-value pair
-	 * ("token": <generated_token>). This method ensures secure authentication and
-	 * provides a JWT token for subsequent requests.
+	 * Rate Limit: rateLimiter.check() takes one attempt from the client IP's
+	 * and the username's token bucket first; an empty bucket answers 429 before
+	 * any BCrypt work or user lookup is queued. Authentication: The
+	 * authManager.authenticate() method is called with a
+	 * UsernamePasswordAuthenticationToken created using the username and
+	 * password from the AuthRequest object. If the credentials are invalid, an
+	 * exception is thrown, and the request fails. Read Roles: The
+	 * Authentication returned by authenticate() already carries the user's
+	 * authorities, so they are read from it instead of loading the user a
+	 * second time, and the "ROLE_" prefix is removed for simplicity. Generate
+	 * JWT Token: refreshTokens.login() issues a short-lived access token for
+	 * the username and roles plus the first refresh token of a new family. Both
+	 * are returned as a TokenResponse ("token", "refreshToken", "expiresIn").
+	 * Only the password check runs on the bounded password-hashing pool (see
+	 * PasswordHashingService.pooledMatches); the user lookup and the refresh
+	 * token write stay on this request thread, so Mongo latency never occupies
+	 * a hashing thread. A full queue is answered with 503 straight away.
+	 * Metrics: auth.login times the whole login (lookup, queue wait, hash
+	 * check, token issue) tagged outcome=success|bad_credentials|rejected
+	 * (disabled, locked, ...)|unavailable|error. Audit: every attempt is
+	 * recorded in the AuditLog with the same outcome, or rate_limited when it
+	 * was turned away before the password check.
 	 */
 	@PostMapping("/login")
-	public ResponseEntity<Map<String, String>> login(@RequestBody AuthRequest req) {
-		// 1) Throws if invalid
-		authManager.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
+	public ResponseEntity<TokenResponse> login(@RequestBody AuthRequest req, HttpServletRequest http) {
+		String clientIp = http.getRemoteAddr();
+		try {
+			rateLimiter.check(req.getUsername(), clientIp);
+		} catch (RuntimeException ex) {
+			audit.record(AuditEvent.login(req.getUsername(), clientIp, loginOutcome(ex)));
+			throw ex;
+		}
+		return authenticate(req, clientIp);
+	}
+
+	private ResponseEntity<TokenResponse> authenticate(AuthRequest req, String clientIp) {
+		long start = System.nanoTime();
+		Throwable failure = null;
+		try {
+			// 1) Throws if invalid
+			Authentication auth = authManager
+					.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
+
+			// 2) Roles from the authenticated principal (no second user lookup)
+			List<String> roles = auth.getAuthorities().stream().map(a -> a.getAuthority().replace("ROLE_", ""))
+					.toList();
+
+			// 3) Issue access + refresh token
+			return ResponseEntity.ok(refreshTokens.login(auth.getName(), roles));
+		} catch (RuntimeException ex) {
+			failure = ex;
+			throw ex;
+		} finally {
+			recordLogin(meterRegistry, failure, start);
+			audit.record(AuditEvent.login(req.getUsername(), clientIp, loginOutcome(failure)));
+		}
+	}
+
+	/* auth.login, shared with ReactiveAuthController; failure null means success */
+	static void recordLogin(MeterRegistry meterRegistry, Throwable failure, long startNanos) {
+		if (meterRegistry == null) {
+			return;
+		}
+		Timer.builder("auth.login").description("Login: user lookup, password check and token issue")
+				.tag("outcome", loginOutcome(failure)).register(meterRegistry)
+				.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	static String loginOutcome(Throwable failure) {
+		if (failure == null) {
+			return "success";
+		}
+		if (failure instanceof BadCredentialsException) {
+			return "bad_credentials";
+		}
+		if (failure instanceof AccountStatusException) {
+			return "rejected";
+		}
+		if (failure instanceof LoginRateLimitedException) {
+			return "rate_limited";
+		}
+		return failure instanceof HashingCapacityExceededException ? "unavailable" : "error";
+	}
+
+	/*
+	 * Refresh: exchanges a refresh token for a new access token and a new refresh
+	 * token; the presented one stops working. No password check, so this does
+	 * not go through the hashing pool. An invalid or reused token answers 401.
+	 */
+	@PostMapping("/refresh")
+	public ResponseEntity<TokenResponse> refresh(@RequestBody RefreshRequest req) {
+		return ResponseEntity.ok(refreshTokens.refresh(req.getRefreshToken()));
+	}
 
-		// 2) Load user roles
-		UserDetails ud = uds.loadUserByUsername(req.getUsername());
-		List<String> roles = ud.getAuthorities().stream().map(a -> a.getAuthority().replace("ROLE_", "")).toList();
+	/*
+	 * Logout: revokes the bearer access token of this request (if any) and the
+	 * family of the refresh token in the body (if any). Always 204.
+	 */
+	@PostMapping("/logout")
+	public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshRequest req) {
+		VerifiedToken current = JwtAuthenticationToken.currentToken().orElse(null);
+		refreshTokens.logout(current, req == null ? null : req.getRefreshToken());
+		return ResponseEntity.noContent().build();
+	}
 
-		// 3) Issue token
-		String token = jwtUtil.generateToken(req.getUsername(), roles);
-		return ResponseEntity.ok(Map.of("token", token));
+	/*
+	 * Introspect: checks up to app.jwt.introspect.max-tokens access tokens in
+	 * one call, for gateways and services that would otherwise call a protected
+	 * endpoint per token. Unlike the rest of /auth the caller must hold
+	 * app.jwt.introspect.role, and its token budget is charged per token; see
+	 * TokenIntrospector. An empty or oversized batch answers 400, an exhausted
+	 * budget 429 and a full introspection pool 503.
+	 */
+	@PostMapping("/introspect")
+	public ResponseEntity<IntrospectResponse> introspect(@RequestBody IntrospectRequest req, Authentication auth) {
+		try {
+			return ResponseEntity.ok(introspector.introspect(auth.getName(), req.getTokens()));
+		} catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+		}
 	}
 }
@@ -1,18 +1,38 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BulkCreateResult;
+import com.example.demo.dto.BulkDeleteResult;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeePatch;
 import com.example.demo.entity.Employee;
-import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.repository.EmployeeProjection;
+import com.example.demo.security.RoleSet;
+import com.example.demo.service.EmployeeETags;
+import com.example.demo.service.EmployeeImportService;
 import com.example.demo.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/employees")
 public class EmployeeController {
 
@@ -20,25 +40,103 @@ public class EmployeeController {
     private EmployeeService service;
 
     @Autowired
-	private EmployeeRepository employeeRepository;
+    private EmployeeImportService importService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.employees.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${app.employees.page.max-size:1000}")
+    private int maxPageSize;
 
     private boolean isAdmin() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        return auth.getAuthorities().stream()
-                   .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        return RoleSet.isAdmin(SecurityContextHolder.getContext().getAuthentication());
     }
 
-    // --- READ ALL (ADMIN only) ---
+    // fields=username,userRoles is pushed down to Mongo as a projection; empId is always returned
+    private static Set<String> projection(String fields) {
+        try {
+            return EmployeeProjection.parse(fields);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    // --- READ ALL (ADMIN: everyone, keyset-paged; USER: own record) ---
+    // Body stays a JSON array; the next page is advertised as Link: <...?cursor=...>; rel="next".
+    // The ETag comes from the collection version alone: If-None-Match answers 304 before any employee is read.
     @GetMapping
-    public ResponseEntity<List<Employee>> getAll() {
-    	  List<Employee> list = service.getAllEmployeesWithAccess();
-          return ResponseEntity.ok(list);
+    public ResponseEntity<List<Employee>> getAll(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) String fields,
+                                                 WebRequest request) {
+        int pageSize = limit == null ? defaultPageSize : Math.min(limit, maxPageSize);
+        if (pageSize < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        Set<String> projection = projection(fields);
+        String etag = service.employeesPageETag(cursor, pageSize, projection);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .cacheControl(EmployeeETags.REVALIDATE).build();
+        }
+        EmployeePage page;
+        try {
+            page = service.getEmployeesPageWithAccess(cursor, pageSize, projection);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag).cacheControl(EmployeeETags.REVALIDATE);
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .replaceQueryParam("limit", pageSize)
+                    .build().toUriString();
+            ok.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return ok.body(page.getItems());
+    }
+
+    // --- STREAM ALL (same access rules) ---
+    // NDJSON written straight from the Mongo cursor: heap use and time-to-first-byte
+    // do not depend on the size of the collection.
+    @GetMapping("/stream")
+    public void streamAll(@RequestParam(required = false) String fields,
+                          HttpServletResponse response) throws IOException {
+        Set<String> projection = projection(fields);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/x-ndjson");
+        ObjectWriter writer = objectMapper.writerFor(Employee.class);
+        OutputStream out = response.getOutputStream();
+        boolean[] first = { true };
+        try {
+            service.forEachEmployeeWithAccess(projection, e -> {
+                try {
+                    out.write(writer.writeValueAsBytes(e));
+                    out.write('\n');
+                    if (first[0]) {
+                        out.flush();
+                        first[0] = false;
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        out.flush();
     }
 
+    // With a matching If-None-Match the 304 is sent by Spring from the ETag, without serializing the body
     @GetMapping("/{id}")
-    public ResponseEntity<Employee> getOne(@PathVariable String id) {
-        return service.getEmployeeById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<Employee> getOne(@PathVariable String id,
+                                           @RequestParam(required = false) String fields) {
+        return service.getEmployeeById(id, projection(fields))
+                .map(e -> ResponseEntity.ok().eTag(EmployeeETags.employee(e))
+                        .cacheControl(EmployeeETags.REVALIDATE).body(e))
                 .orElse(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
     }
 
@@ -54,43 +152,80 @@ public class EmployeeController {
 
     // --- CREATE BULK (ADMIN only) ---
     @PostMapping("/bulk")
-    public ResponseEntity<List<Employee>> createBulk(@RequestBody List<Employee> list) {
+    // 201 when every row was created, 207 when some rows failed (see per-row status)
+    public ResponseEntity<BulkCreateResult> createBulk(@RequestBody List<Employee> list) {
         if (!isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        List<Employee> saved = service.createEmployees(list);
-        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        BulkCreateResult result = service.createEmployees(list);
+        HttpStatus status = result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(result);
+    }
+
+    // --- STREAMING IMPORT (ADMIN only) ---
+    // Body: one Employee JSON object per line. Response: NDJSON error/progress/done events,
+    // written while the upload is still being read, with memory bounded by the batch size.
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public void importNdjson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!isAdmin()) {
+            response.sendError(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/x-ndjson");
+        importService.importNdjson(request.getInputStream(), response.getOutputStream());
     }
 
     // --- UPDATE (ADMIN only) ---
-    @PutMapping("/{id}")
-    public ResponseEntity<Employee> update(@PathVariable String id,
-                                           @RequestBody Employee e) {
+    // Only the fields in the body are written, in one atomic update; BCrypt runs only for a new
+    // plaintext password. With "version" the update is conditional: 409 if it has changed.
+    @PatchMapping("/{id}")
+    public ResponseEntity<Employee> patch(@PathVariable String id,
+                                          @RequestBody EmployeePatch patch) {
         if (!isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        Employee updated = service.updateEmployee(id, e);
-        return ResponseEntity.ok(updated);
+        try {
+            return service.updateEmployee(id, patch)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
     }
 
-    // --- DELETE (ADMIN only) ---
+    // PUT takes the same body and is applied the same way
+    @PutMapping("/{id}")
+    public ResponseEntity<Employee> update(@PathVariable String id,
+                                           @RequestBody EmployeePatch patch) {
+        return patch(id, patch);
+    }
+
+    // --- DELETE (ADMIN only, never their own record) ---
+    // One conditional delete: 404 if there is no such employee, 403 if it is the caller's own record
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable String id) {
-    	Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String currentUsername = auth.getName();
-
-        // Fetch the employee to be deleted
-        Optional<Employee> emp = employeeRepository.findById(id);
-
-        // Only allow if current user is ADMIN and not deleting their own record
-        boolean isAdmin = auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
-        if (emp.isEmpty() || !isAdmin || emp.get().getUsername().equals(currentUsername)) {
+        if (!isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return switch (service.deleteEmployee(id, auth.getName())) {
+            case DELETED -> ResponseEntity.ok().build();
+            case NOT_FOUND -> ResponseEntity.notFound().build();
+            case FORBIDDEN -> ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        };
+    }
 
-        service.deleteEmployee(id);
-        return ResponseEntity.ok().build();
+    // --- DELETE BULK (ADMIN only, same rule) ---
+    // Body: JSON array of ids. 200 when every id was deleted, 207 otherwise (see per-row status)
+    @DeleteMapping("/bulk")
+    public ResponseEntity<BulkDeleteResult> deleteBulk(@RequestBody List<String> ids) {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        BulkDeleteResult result = service.deleteEmployees(ids, auth.getName());
+        HttpStatus status = result.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(result);
     }
 }
@@ -0,0 +1,31 @@
+package com.example.demo.controller;
+
+import com.example.demo.security.SigningKeyRing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+public class JwksController {
+
+	@Autowired
+	private SigningKeyRing keyRing;
+
+	/*
+	 * JWK Set: Publishes the public halves of the configured ES256 signing keys
+	 * (kid, curve and coordinates) so downstream services can verify our tokens
+	 * locally instead of calling back. The set is built once at startup; clients
+	 * may cache it for a few minutes and should refetch when they meet an
+	 * unknown kid. HS256 secrets are never included.
+	 */
+	@GetMapping("/.well-known/jwks.json")
+	public ResponseEntity<Map<String, Object>> jwks() {
+		return ResponseEntity.ok().cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+				.body(keyRing.jwks());
+	}
+}
@@ -0,0 +1,121 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.AuthRequest;
+import com.example.demo.dto.IntrospectRequest;
+import com.example.demo.dto.IntrospectResponse;
+import com.example.demo.dto.RefreshRequest;
+import com.example.demo.dto.TokenResponse;
+import com.example.demo.entity.AuditEvent;
+import com.example.demo.security.JwtAuthenticationToken;
+import com.example.demo.security.LoginRateLimiter;
+import com.example.demo.security.ReactiveEmployeeAuthenticationManager;
+import com.example.demo.security.TokenIntrospector;
+import com.example.demo.service.AuditLog;
+import com.example.demo.service.RefreshTokenService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/auth")
+public class ReactiveAuthController {
+
+	@Autowired
+	private ReactiveEmployeeAuthenticationManager authManager;
+	@Autowired
+	private RefreshTokenService refreshTokens;
+	@Autowired
+	private LoginRateLimiter rateLimiter;
+	@Autowired
+	private AuditLog audit;
+	@Autowired
+	private TokenIntrospector introspector;
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	/*
+	 * Login for the reactive profile, with AuthController's contract: rate limit
+	 * first (429), then ReactiveEmployeeAuthenticationManager looks the user up
+	 * without blocking and checks the password on the hashing pool (401 on bad
+	 * credentials, 503 when the pool is full), then the tokens are issued. The
+	 * refresh token is stored by the blocking RefreshTokenService, so that step
+	 * runs on boundedElastic, as do refresh and logout. auth.login is recorded
+	 * here from subscription to completion, like the servlet timer, including
+	 * the wait for the pool (a full pool is outcome=unavailable).
+	 * Every attempt goes to the AuditLog as in AuthController.
+	 */
+	@PostMapping("/login")
+	public Mono<ResponseEntity<TokenResponse>> login(@RequestBody AuthRequest req, ServerHttpRequest http) {
+		InetSocketAddress remote = http.getRemoteAddress();
+		String clientIp = remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress();
+		try {
+			rateLimiter.check(req.getUsername(), clientIp);
+		} catch (RuntimeException ex) {
+			audit.record(AuditEvent.login(req.getUsername(), clientIp, AuthController.loginOutcome(ex)));
+			throw ex;
+		}
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return authManager
+					.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()))
+					.flatMap(auth -> {
+						List<String> roles = auth.getAuthorities().stream()
+								.map(a -> a.getAuthority().replace("ROLE_", "")).toList();
+						return Mono.fromCallable(() -> refreshTokens.login(auth.getName(), roles))
+								.subscribeOn(Schedulers.boundedElastic());
+					})
+					.doOnSuccess(tokens -> {
+						AuthController.recordLogin(meterRegistry, null, start);
+						audit.record(AuditEvent.login(req.getUsername(), clientIp, "success"));
+					})
+					.doOnError(ex -> {
+						AuthController.recordLogin(meterRegistry, ex, start);
+						audit.record(AuditEvent.login(req.getUsername(), clientIp, AuthController.loginOutcome(ex)));
+					});
+		}).map(ResponseEntity::ok);
+	}
+
+	@PostMapping("/refresh")
+	public Mono<ResponseEntity<TokenResponse>> refresh(@RequestBody RefreshRequest req) {
+		return Mono.fromCallable(() -> refreshTokens.refresh(req.getRefreshToken()))
+				.subscribeOn(Schedulers.boundedElastic()).map(ResponseEntity::ok);
+	}
+
+	@PostMapping("/logout")
+	public Mono<ResponseEntity<Void>> logout(@RequestBody(required = false) RefreshRequest req) {
+		return ReactiveSecurityContextHolder.getContext().map(SecurityContext::getAuthentication)
+				.filter(JwtAuthenticationToken.class::isInstance)
+				.map(auth -> Optional.of(((JwtAuthenticationToken) auth).getToken())).defaultIfEmpty(Optional.empty())
+				.publishOn(Schedulers.boundedElastic())
+				.map(current -> {
+					refreshTokens.logout(current.orElse(null), req == null ? null : req.getRefreshToken());
+					return ResponseEntity.noContent().<Void>build();
+				});
+	}
+
+	/* As AuthController; a batch is CPU work, so all of it runs on the introspection pool, never the event loop */
+	@PostMapping("/introspect")
+	public Mono<ResponseEntity<IntrospectResponse>> introspect(@RequestBody IntrospectRequest req) {
+		return ReactiveSecurityContextHolder.getContext().map(context -> context.getAuthentication().getName())
+				.flatMap(caller -> Mono.fromFuture(() -> introspector.introspectAsync(caller, req.getTokens())))
+				.onErrorMap(IllegalArgumentException.class,
+						ex -> new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage()))
+				.map(ResponseEntity::ok);
+	}
+}
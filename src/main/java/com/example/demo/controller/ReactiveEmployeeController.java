@@ -0,0 +1,183 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.BulkCreateResult;
+import com.example.demo.dto.BulkDeleteResult;
+import com.example.demo.dto.EmployeePatch;
+import com.example.demo.dto.ImportEvent;
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.EmployeeProjection;
+import com.example.demo.security.RoleSet;
+import com.example.demo.service.EmployeeETags;
+import com.example.demo.service.EmployeeImportService;
+import com.example.demo.service.ReactiveEmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.*;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/*
+ * /employees for the reactive profile: the same endpoints, parameters, status
+ * codes and bodies as EmployeeController (see there), served by
+ * ReactiveEmployeeService. The caller comes in as the Authentication argument
+ * instead of the thread-bound SecurityContextHolder.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/employees")
+public class ReactiveEmployeeController {
+
+    @Autowired
+    private ReactiveEmployeeService service;
+
+    @Autowired
+    private EmployeeImportService importService;
+
+    @Value("${app.employees.page.default-size:100}")
+    private int defaultPageSize;
+
+    @Value("${app.employees.page.max-size:1000}")
+    private int maxPageSize;
+
+    private static Set<String> projection(String fields) {
+        try {
+            return EmployeeProjection.parse(fields);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    private static ResponseStatusException badRequest(IllegalArgumentException ex) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Employee>>> getAll(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) String fields,
+                                                       Authentication auth, ServerWebExchange exchange) {
+        int pageSize = limit == null ? defaultPageSize : Math.min(limit, maxPageSize);
+        if (pageSize < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        Set<String> projection = projection(fields);
+        return service.employeesPageETag(auth, cursor, pageSize, projection).flatMap(etag -> {
+            if (exchange.checkNotModified(etag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                        .cacheControl(EmployeeETags.REVALIDATE).build());
+            }
+            return page(auth, cursor, pageSize, projection, etag, exchange.getRequest());
+        });
+    }
+
+    private Mono<ResponseEntity<List<Employee>>> page(Authentication auth, String cursor, int pageSize,
+                                                      Set<String> projection, String etag,
+                                                      ServerHttpRequest request) {
+        return service.getEmployeesPage(auth, cursor, pageSize, projection)
+                .onErrorMap(IllegalArgumentException.class, ReactiveEmployeeController::badRequest)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag)
+                            .cacheControl(EmployeeETags.REVALIDATE);
+                    if (page.getNextCursor() != null) {
+                        String next = UriComponentsBuilder.fromUri(request.getURI())
+                                .replaceQueryParam("cursor", page.getNextCursor())
+                                .replaceQueryParam("limit", pageSize)
+                                .build().toUriString();
+                        ok.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+                    }
+                    return ok.body(page.getItems());
+                });
+    }
+
+    // NDJSON, one line per employee as the cursor delivers them
+    @GetMapping("/stream")
+    public ResponseEntity<Flux<Employee>> streamAll(@RequestParam(required = false) String fields,
+                                                    Authentication auth) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(service.streamEmployees(auth, projection(fields)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Employee>> getOne(@PathVariable String id,
+                                                 @RequestParam(required = false) String fields,
+                                                 Authentication auth) {
+        return service.getEmployeeById(auth, id, projection(fields))
+                .map(e -> ResponseEntity.ok().eTag(EmployeeETags.employee(e))
+                        .cacheControl(EmployeeETags.REVALIDATE).body(e))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Employee>> create(@RequestBody Employee e, Authentication auth) {
+        if (!RoleSet.isAdmin(auth)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        }
+        return service.createEmployee(e).map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved));
+    }
+
+    @PostMapping("/bulk")
+    public Mono<ResponseEntity<BulkCreateResult>> createBulk(@RequestBody List<Employee> list, Authentication auth) {
+        if (!RoleSet.isAdmin(auth)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        }
+        return service.createEmployees(list).map(result -> ResponseEntity
+                .status(result.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(result));
+    }
+
+    // Body: NDJSON lines; events are streamed back while the upload is still being read
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<Flux<ImportEvent>> importNdjson(@RequestBody Flux<String> lines, Authentication auth) {
+        if (!RoleSet.isAdmin(auth)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(importService.importNdjson(lines));
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Employee>> patch(@PathVariable String id,
+                                                @RequestBody EmployeePatch patch, Authentication auth) {
+        if (!RoleSet.isAdmin(auth)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        }
+        return service.updateEmployee(id, patch)
+                .map(updated -> updated.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()))
+                .onErrorMap(IllegalArgumentException.class, ReactiveEmployeeController::badRequest);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Employee>> update(@PathVariable String id,
+                                                 @RequestBody EmployeePatch patch, Authentication auth) {
+        return patch(id, patch, auth);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String id, Authentication auth) {
+        if (!RoleSet.isAdmin(auth)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        }
+        return service.deleteEmployee(id, auth.getName()).map(outcome -> switch (outcome) {
+            case DELETED -> ResponseEntity.ok().<Void>build();
+            case NOT_FOUND -> ResponseEntity.notFound().<Void>build();
+            case FORBIDDEN -> ResponseEntity.status(HttpStatus.FORBIDDEN).<Void>build();
+        });
+    }
+
+    @DeleteMapping("/bulk")
+    public Mono<ResponseEntity<BulkDeleteResult>> deleteBulk(@RequestBody List<String> ids, Authentication auth) {
+        if (!RoleSet.isAdmin(auth)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        }
+        return service.deleteEmployees(ids, auth.getName()).map(result -> ResponseEntity
+                .status(result.getFailed() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(result));
+    }
+}
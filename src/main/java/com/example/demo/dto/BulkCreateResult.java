@@ -0,0 +1,57 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of POST /employees/bulk: totals plus one entry per submitted row, in
+ * request order. Saved entities (and their password hashes) are not echoed.
+ */
+public class BulkCreateResult {
+
+	public static final String CREATED = "CREATED";
+	public static final String FAILED = "FAILED";
+
+	private final int requested;
+	private final int created;
+	private final int failed;
+	private final List<Row> rows;
+
+	public BulkCreateResult(List<Row> rows) {
+		this.rows = rows;
+		this.requested = rows.size();
+		this.created = (int) rows.stream().filter(r -> CREATED.equals(r.getStatus())).count();
+		this.failed = requested - created;
+	}
+
+	public int getRequested() { return requested; }
+	public int getCreated() { return created; }
+	public int getFailed() { return failed; }
+	public List<Row> getRows() { return rows; }
+
+	public static class Row {
+		private final int index;
+		private final String empId;
+		private final String status;
+		private final String error;
+
+		public Row(int index, String empId, String status, String error) {
+			this.index = index;
+			this.empId = empId;
+			this.status = status;
+			this.error = error;
+		}
+
+		public static Row created(int index, String empId) {
+			return new Row(index, empId, CREATED, null);
+		}
+
+		public static Row failed(int index, String empId, String error) {
+			return new Row(index, empId, FAILED, error);
+		}
+
+		public int getIndex() { return index; }
+		public String getEmpId() { return empId; }
+		public String getStatus() { return status; }
+		public String getError() { return error; }
+	}
+}
@@ -0,0 +1,49 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of DELETE /employees/bulk: totals plus one entry per submitted id, in
+ * request order. status is DELETED, NOT_FOUND or FORBIDDEN (the caller's own
+ * record). When a request deletes some ids and names others that do not exist,
+ * every id that is gone afterwards is reported DELETED.
+ */
+public class BulkDeleteResult {
+
+	public static final String DELETED = "DELETED";
+	public static final String NOT_FOUND = "NOT_FOUND";
+	public static final String FORBIDDEN = "FORBIDDEN";
+
+	private final int requested;
+	private final int deleted;
+	private final int failed;
+	private final List<Row> rows;
+
+	public BulkDeleteResult(List<Row> rows) {
+		this.rows = rows;
+		this.requested = rows.size();
+		this.deleted = (int) rows.stream().filter(r -> DELETED.equals(r.getStatus())).count();
+		this.failed = requested - deleted;
+	}
+
+	public int getRequested() { return requested; }
+	public int getDeleted() { return deleted; }
+	public int getFailed() { return failed; }
+	public List<Row> getRows() { return rows; }
+
+	public static class Row {
+		private final int index;
+		private final String empId;
+		private final String status;
+
+		public Row(int index, String empId, String status) {
+			this.index = index;
+			this.empId = empId;
+			this.status = status;
+		}
+
+		public int getIndex() { return index; }
+		public String getEmpId() { return empId; }
+		public String getStatus() { return status; }
+	}
+}
@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Employee;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One keyset page of employees plus the opaque cursor for the next page
+ * (null on the last page). The cursor is the base64url-encoded _id of the last
+ * employee returned, so it stays valid while documents are added or removed.
+ */
+public class EmployeePage {
+
+	private final List<Employee> items;
+	private final String nextCursor;
+
+	public EmployeePage(List<Employee> items, String nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<Employee> getItems() { return items; }
+	public String getNextCursor() { return nextCursor; }
+
+	public static String encodeCursor(String lastId) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/** Throws IllegalArgumentException if the cursor was not produced by encodeCursor */
+	public static String decodeCursor(String cursor) {
+		return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+	}
+}
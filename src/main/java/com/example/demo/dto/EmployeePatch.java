@@ -0,0 +1,36 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Body of PATCH (and PUT) /employees/{id}. Fields left null are not changed.
+ * password is a new plaintext password, or the current hash sent back
+ * unchanged; version, when given, must match the stored one.
+ */
+public class EmployeePatch {
+    private String username;
+    private String password;
+    private List<String> userRoles;
+    private Long version;
+
+    public EmployeePatch() {}
+
+    public EmployeePatch(String username, String password, List<String> userRoles, Long version) {
+        this.username = username;
+        this.password = password;
+        this.userRoles = userRoles;
+        this.version = version;
+    }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public List<String> getUserRoles() { return userRoles; }
+    public void setUserRoles(List<String> userRoles) { this.userRoles = userRoles; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
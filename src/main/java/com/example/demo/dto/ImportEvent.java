@@ -0,0 +1,71 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the NDJSON stream returned by POST /employees/import: either a
+ * per-record "error", a "progress" update after each batch, or the final
+ * "done" summary.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEvent {
+
+	private final String type;
+	private final Long line;
+	private final String empId;
+	private final String error;
+	private final Long processed;
+	private final Long created;
+	private final Long failed;
+
+	private ImportEvent(String type, Long line, String empId, String error, Long processed, Long created,
+			Long failed) {
+		this.type = type;
+		this.line = line;
+		this.empId = empId;
+		this.error = error;
+		this.processed = processed;
+		this.created = created;
+		this.failed = failed;
+	}
+
+	public static ImportEvent error(long line, String empId, String error) {
+		return new ImportEvent("error", line, empId, error, null, null, null);
+	}
+
+	public static ImportEvent progress(long processed, long created, long failed) {
+		return new ImportEvent("progress", null, null, null, processed, created, failed);
+	}
+
+	public static ImportEvent done(long processed, long created, long failed) {
+		return new ImportEvent("done", null, null, null, processed, created, failed);
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public Long getLine() {
+		return line;
+	}
+
+	public String getEmpId() {
+		return empId;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public Long getProcessed() {
+		return processed;
+	}
+
+	public Long getCreated() {
+		return created;
+	}
+
+	public Long getFailed() {
+		return failed;
+	}
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+public class IntrospectRequest {
+    private List<String> tokens;
+
+    public IntrospectRequest() {}
+
+    public List<String> getTokens() { return tokens; }
+    public void setTokens(List<String> tokens) { this.tokens = tokens; }
+}
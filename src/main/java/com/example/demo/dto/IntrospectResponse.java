@@ -0,0 +1,62 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Outcome of POST /auth/introspect: totals plus one result per submitted token,
+ * in request order. An active result carries the subject, roles, exp (epoch
+ * seconds) and expiresIn (seconds left); an inactive one only the reason
+ * (expired, tampered, malformed or revoked).
+ */
+public class IntrospectResponse {
+
+	private final int requested;
+	private final int active;
+	private final List<Result> results;
+
+	public IntrospectResponse(List<Result> results) {
+		this.results = results;
+		this.requested = results.size();
+		this.active = (int) results.stream().filter(Result::isActive).count();
+	}
+
+	public int getRequested() { return requested; }
+	public int getActive() { return active; }
+	public List<Result> getResults() { return results; }
+
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	public static class Result {
+		private final boolean active;
+		private final String sub;
+		private final List<String> roles;
+		private final Long exp;
+		private final Long expiresIn;
+		private final String reason;
+
+		private Result(boolean active, String sub, List<String> roles, Long exp, Long expiresIn, String reason) {
+			this.active = active;
+			this.sub = sub;
+			this.roles = roles;
+			this.exp = exp;
+			this.expiresIn = expiresIn;
+			this.reason = reason;
+		}
+
+		public static Result active(String sub, List<String> roles, long exp, long expiresIn) {
+			return new Result(true, sub, roles, exp, expiresIn, null);
+		}
+
+		public static Result inactive(String reason) {
+			return new Result(false, null, null, null, null, reason);
+		}
+
+		public boolean isActive() { return active; }
+		public String getSub() { return sub; }
+		public List<String> getRoles() { return roles; }
+		public Long getExp() { return exp; }
+		public Long getExpiresIn() { return expiresIn; }
+		public String getReason() { return reason; }
+	}
+}
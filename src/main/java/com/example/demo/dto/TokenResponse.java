@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+/**
+ * Result of login and refresh: a short-lived access token ("token", as before),
+ * the opaque refresh token that replaces the one presented, and the access
+ * token lifetime in seconds.
+ */
+public class TokenResponse {
+
+    private final String token;
+    private final String refreshToken;
+    private final long expiresIn;
+
+    public TokenResponse(String token, String refreshToken, long expiresIn) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getToken() { return token; }
+    public String getRefreshToken() { return refreshToken; }
+    public long getExpiresIn() { return expiresIn; }
+}
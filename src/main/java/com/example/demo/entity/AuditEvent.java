@@ -0,0 +1,128 @@
+package com.example.demo.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/*
+ * One audit record: a login attempt or a write to an employee. at is when the
+ * request happened, not when AuditLog wrote the record. actor is the
+ * authenticated admin for writes and the username tried for a login; target is
+ * the employee id a write applied to. outcome is a short lowercase word
+ * (success, bad_credentials, created, deleted, not_found, ...), detail an
+ * optional error message. Written in batches by AuditLog.
+ */
+@Document(collection = "audit_events")
+public class AuditEvent {
+	public static final String LOGIN = "login";
+	public static final String EMPLOYEE_CREATE = "employee.create";
+	public static final String EMPLOYEE_UPDATE = "employee.update";
+	public static final String EMPLOYEE_DELETE = "employee.delete";
+	public static final String EVENTS_DROPPED = "audit.dropped";
+
+	@Id
+	private String id;
+	@Indexed
+	private Date at;
+	private String type;
+	private String actor;
+	private String target;
+	private String outcome;
+	private String clientIp;
+	private String detail;
+
+	// Constructors
+	public AuditEvent() {
+	}
+
+	public AuditEvent(Date at, String type, String actor, String target, String outcome, String clientIp,
+			String detail) {
+		this.at = at;
+		this.type = type;
+		this.actor = actor;
+		this.target = target;
+		this.outcome = outcome;
+		this.clientIp = clientIp;
+		this.detail = detail;
+	}
+
+	public static AuditEvent login(String username, String clientIp, String outcome) {
+		return new AuditEvent(new Date(), LOGIN, username, null, outcome, clientIp, null);
+	}
+
+	public static AuditEvent employee(String type, String actor, String empId, String outcome, String detail) {
+		return new AuditEvent(new Date(), type, actor, empId, outcome, null, detail);
+	}
+
+	/* written by AuditLog in place of events its full buffer had to refuse */
+	public static AuditEvent dropped(long count) {
+		return new AuditEvent(new Date(), EVENTS_DROPPED, null, null, "dropped", null, count + " events dropped");
+	}
+
+	// Getters and Setters
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Date getAt() {
+		return at;
+	}
+
+	public void setAt(Date at) {
+		this.at = at;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public String getActor() {
+		return actor;
+	}
+
+	public void setActor(String actor) {
+		this.actor = actor;
+	}
+
+	public String getTarget() {
+		return target;
+	}
+
+	public void setTarget(String target) {
+		this.target = target;
+	}
+
+	public String getOutcome() {
+		return outcome;
+	}
+
+	public void setOutcome(String outcome) {
+		this.outcome = outcome;
+	}
+
+	public String getClientIp() {
+		return clientIp;
+	}
+
+	public void setClientIp(String clientIp) {
+		this.clientIp = clientIp;
+	}
+
+	public String getDetail() {
+		return detail;
+	}
+
+	public void setDetail(String detail) {
+		this.detail = detail;
+	}
+}
@@ -1,16 +1,27 @@
 package com.example.demo.entity;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.util.List;
 
 @Document(collection = "employees")
+@JsonInclude(JsonInclude.Include.NON_NULL) // fields left out by a projection are omitted
 public class Employee {
 	@Id
 	private String empId;
+	@Indexed(unique = true)
 	private String username;
+	@JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // accepted on input, never serialized
 	private String password;
+	@Indexed // multikey: one entry per role
 	private List<String> userRoles;
+	@Version // bumped by every write; PUT/PATCH can require it (optimistic concurrency)
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private Long version;
 
 	// Constructors
 	public Employee() {
@@ -55,4 +66,12 @@ public class Employee {
 	public void setUserRoles(List<String> userRoles) {
 		this.userRoles = userRoles;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 }
@@ -0,0 +1,110 @@
+package com.example.demo.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/*
+ * One refresh token. Only the SHA-256 of the opaque token is stored (as _id),
+ * never the token itself. Every login starts a family; each refresh marks the
+ * presented token used and issues the next one in the same family. Presenting
+ * a used token again means it was stolen or replayed, and the whole family is
+ * revoked. accessJti/accessExpiresAt name the access token issued alongside, so
+ * revoking the family can revoke that access token too. The TTL index removes
+ * tokens once they have expired.
+ */
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+	@Id
+	private String tokenHash;
+	private String username;
+	@Indexed
+	private String familyId;
+	@Indexed(expireAfterSeconds = 0)
+	private Date expiresAt;
+	private Date usedAt;
+	private boolean revoked;
+	private String accessJti;
+	private Date accessExpiresAt;
+
+	// Constructors
+	public RefreshToken() {
+	}
+
+	public RefreshToken(String tokenHash, String username, String familyId, Date expiresAt, String accessJti,
+			Date accessExpiresAt) {
+		this.tokenHash = tokenHash;
+		this.username = username;
+		this.familyId = familyId;
+		this.expiresAt = expiresAt;
+		this.accessJti = accessJti;
+		this.accessExpiresAt = accessExpiresAt;
+	}
+
+	// Getters and Setters
+	public String getTokenHash() {
+		return tokenHash;
+	}
+
+	public void setTokenHash(String tokenHash) {
+		this.tokenHash = tokenHash;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public String getFamilyId() {
+		return familyId;
+	}
+
+	public void setFamilyId(String familyId) {
+		this.familyId = familyId;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	public Date getUsedAt() {
+		return usedAt;
+	}
+
+	public void setUsedAt(Date usedAt) {
+		this.usedAt = usedAt;
+	}
+
+	public boolean isRevoked() {
+		return revoked;
+	}
+
+	public void setRevoked(boolean revoked) {
+		this.revoked = revoked;
+	}
+
+	public String getAccessJti() {
+		return accessJti;
+	}
+
+	public void setAccessJti(String accessJti) {
+		this.accessJti = accessJti;
+	}
+
+	public Date getAccessExpiresAt() {
+		return accessExpiresAt;
+	}
+
+	public void setAccessExpiresAt(Date accessExpiresAt) {
+		this.accessExpiresAt = accessExpiresAt;
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.demo.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/*
+ * A revoked access token, by jti. Kept only until the token would have expired
+ * anyway: the TTL index on expiresAt lets Mongo delete it after that. revokedAt
+ * lets every node pick up revocations made elsewhere (TokenRevocationList).
+ */
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+	@Id
+	private String jti;
+	@Indexed(expireAfterSeconds = 0)
+	private Date expiresAt;
+	@Indexed
+	private Date revokedAt;
+
+	// Constructors
+	public RevokedToken() {
+	}
+
+	public RevokedToken(String jti, Date expiresAt, Date revokedAt) {
+		this.jti = jti;
+		this.expiresAt = expiresAt;
+		this.revokedAt = revokedAt;
+	}
+
+	// Getters and Setters
+	public String getJti() {
+		return jti;
+	}
+
+	public void setJti(String jti) {
+		this.jti = jti;
+	}
+
+	public Date getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Date expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	public Date getRevokedAt() {
+		return revokedAt;
+	}
+
+	public void setRevokedAt(Date revokedAt) {
+		this.revokedAt = revokedAt;
+	}
+}
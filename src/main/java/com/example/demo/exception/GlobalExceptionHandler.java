@@ -0,0 +1,68 @@
+package com.example.demo.exception;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+	/*
+	 * Overload: the BCrypt or introspection pool rejected the work. Answer
+	 * immediately with 503 and a short Retry-After instead of letting the caller
+	 * wait on a servlet thread.
+	 */
+	@ExceptionHandler({ HashingCapacityExceededException.class, IntrospectionCapacityExceededException.class })
+	public ResponseEntity<Map<String, String>> capacityExceeded(RuntimeException ex) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+				.body(Map.of("error", ex.getMessage()));
+	}
+
+	/*
+	 * Rate limits (logins, introspected tokens): rejected before any hashing,
+	 * lookup or verification. Retry-After tells the client when the next
+	 * attempt will be accepted.
+	 */
+	@ExceptionHandler(RateLimitedException.class)
+	public ResponseEntity<Map<String, String>> rateLimited(RateLimitedException ex) {
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+				.body(Map.of("error", ex.getMessage()));
+	}
+
+	/*
+	 * Refresh: the client must log in again. The reason (unknown, expired, reused)
+	 * is logged by RefreshTokenService, not returned.
+	 */
+	@ExceptionHandler(InvalidRefreshTokenException.class)
+	public ResponseEntity<Map<String, String>> invalidRefreshToken(InvalidRefreshTokenException ex) {
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid refresh token"));
+	}
+
+	/*
+	 * Conflicting write: the employee changed since the client read the version
+	 * it sent, or the new username is already taken. The client should re-read
+	 * and retry.
+	 */
+	@ExceptionHandler({ OptimisticLockingFailureException.class, DuplicateKeyException.class })
+	public ResponseEntity<Map<String, String>> conflict(RuntimeException ex) {
+		String error = ex instanceof DuplicateKeyException ? "Duplicate key" : ex.getMessage();
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", error));
+	}
+
+	/*
+	 * Login authenticates inside AuthController rather than in a security
+	 * filter, so bad credentials arrive here.
+	 */
+	@ExceptionHandler(AuthenticationException.class)
+	public ResponseEntity<Map<String, String>> authenticationFailed(AuthenticationException ex) {
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid username or password"));
+	}
+}
@@ -0,0 +1,14 @@
+package com.example.demo.exception;
+
+/**
+ * Thrown when the password-hashing pool and its queue are full. Mapped to
+ * 503 Service Unavailable by GlobalExceptionHandler.
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public HashingCapacityExceededException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,14 @@
+package com.example.demo.exception;
+
+/**
+ * Thrown when the token-introspection pool and its queue are full. Mapped to
+ * 503 Service Unavailable by GlobalExceptionHandler.
+ */
+public class IntrospectionCapacityExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public IntrospectionCapacityExceededException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,16 @@
+package com.example.demo.exception;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Thrown when a refresh token is unknown, expired, revoked or already used.
+ * Mapped to 401 Unauthorized by GlobalExceptionHandler.
+ */
+public class InvalidRefreshTokenException extends AuthenticationException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidRefreshTokenException(String message) {
+		super(message);
+	}
+}
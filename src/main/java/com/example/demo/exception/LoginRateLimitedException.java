@@ -0,0 +1,14 @@
+package com.example.demo.exception;
+
+/**
+ * Thrown when a client IP or username has used up its login attempts. Mapped
+ * to 429 Too Many Requests with Retry-After by GlobalExceptionHandler.
+ */
+public class LoginRateLimitedException extends RateLimitedException {
+
+	private static final long serialVersionUID = 1L;
+
+	public LoginRateLimitedException(long retryAfterSeconds) {
+		super("Too many login attempts", retryAfterSeconds);
+	}
+}
@@ -0,0 +1,21 @@
+package com.example.demo.exception;
+
+/**
+ * Thrown when a caller has used up a rate limit. Mapped to 429 Too Many
+ * Requests with Retry-After by GlobalExceptionHandler.
+ */
+public class RateLimitedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfterSeconds;
+
+	public RateLimitedException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.AuditEvent;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface AuditEventRepository extends MongoRepository<AuditEvent, String> {
+}
@@ -0,0 +1,39 @@
+package com.example.demo.repository;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Field selection for employee reads. Only the fields listed in READABLE can
+ * ever be projected, so the password hash is never fetched from Mongo on a
+ * read path. empId (_id) is always returned because it identifies the row and
+ * drives keyset paging.
+ */
+public final class EmployeeProjection {
+
+	public static final Set<String> READABLE = Set.of("empId", "username", "userRoles", "version");
+
+	private EmployeeProjection() {
+	}
+
+	/**
+	 * Parses a fields= parameter such as "username,userRoles". Null or blank
+	 * selects every readable field; an unknown or non-readable field throws
+	 * IllegalArgumentException.
+	 */
+	public static Set<String> parse(String csv) {
+		if (csv == null || csv.isBlank()) {
+			return READABLE;
+		}
+		Set<String> fields = new LinkedHashSet<>();
+		fields.add("empId");
+		for (String f : Arrays.stream(csv.split(",")).map(String::trim).filter(f -> !f.isEmpty()).toList()) {
+			if (!READABLE.contains(f)) {
+				throw new IllegalArgumentException("unknown or non-readable field: " + f);
+			}
+			fields.add(f);
+		}
+		return fields;
+	}
+}
@@ -2,10 +2,14 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.Employee;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface EmployeeRepository extends MongoRepository<Employee, String> {
+public interface EmployeeRepository extends MongoRepository<Employee, String>, EmployeeRepositoryCustom {
 	Optional<Employee> findByUsername(String username);
+
+	/** Employees holding the role; served by the multikey userRoles index */
+	List<Employee> findByUserRoles(String role);
 }
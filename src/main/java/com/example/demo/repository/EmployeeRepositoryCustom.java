@@ -0,0 +1,85 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Employee;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Employee operations that need MongoTemplate rather than derived queries.
+ * Implemented by EmployeeRepositoryImpl and mixed into EmployeeRepository.
+ */
+public interface EmployeeRepositoryCustom {
+
+	/**
+	 * Inserts the documents in one unordered bulk write, so a bad row does not
+	 * stop the others. Returns the failed positions (index into the given list)
+	 * mapped to the error message; an empty map means everything was inserted.
+	 */
+	Map<Integer, String> insertUnordered(List<Employee> employees);
+
+	/**
+	 * Keyset page ordered by _id: up to limit employees whose id sorts after
+	 * afterId (from the start when afterId is null). Uses the _id index only and
+	 * fetches only the given fields (see EmployeeProjection).
+	 */
+	List<Employee> findPageAfter(String afterId, int limit, Set<String> fields);
+
+	/**
+	 * Streams every employee, projected to the given fields, from a Mongo cursor.
+	 * The stream holds the cursor open and must be closed (try-with-resources).
+	 */
+	Stream<Employee> streamAll(Set<String> fields);
+
+	/** Projected read of one employee by id, only if it belongs to username */
+	Optional<Employee> findByIdAndUsername(String id, String username, Set<String> fields);
+
+	/**
+	 * Replaces the password hash only if it is still expectedHash, so a rehash
+	 * computed in the background never overwrites a password changed meanwhile.
+	 * Returns true if the document was updated.
+	 */
+	boolean updatePasswordIfUnchanged(String username, String expectedHash, String newHash);
+
+	/**
+	 * Sets the given fields (name -> value) and increments version in one
+	 * findAndModify, returning the updated employee projected to the readable
+	 * fields. Only matches while the stored version equals expectedVersion and
+	 * the stored hash equals expectedPassword, each when not null; empty if
+	 * nothing matched.
+	 */
+	Optional<Employee> updateFieldsIf(String id, Long expectedVersion, String expectedPassword,
+			Map<String, Object> fields);
+
+	/**
+	 * Deletes the employee in one conditional delete, unless its username is
+	 * exceptUsername (the caller's own record). Returns true if it was deleted.
+	 */
+	boolean deleteUnlessUsername(String id, String exceptUsername);
+
+	/**
+	 * Deletes every listed employee whose username is not exceptUsername in one
+	 * conditional delete and returns how many were deleted.
+	 */
+	long deleteAllUnlessUsername(Collection<String> ids, String exceptUsername);
+
+	/** Which of the ids exist, read through the _id index alone */
+	Set<String> findExistingIds(Collection<String> ids);
+
+	/** Projected read by username; never loads the password hash */
+	Optional<Employee> findProjectedByUsername(String username, Set<String> fields);
+
+	/**
+	 * Version of the employees collection as a whole: a counter that
+	 * EmployeeService increments after every write. Reading it is one _id lookup
+	 * of a tiny document, so list ETags cost no read of any employee.
+	 */
+	long collectionVersion();
+
+	/** Increments the collection version; called once a write has been applied */
+	void incrementCollectionVersion();
+}
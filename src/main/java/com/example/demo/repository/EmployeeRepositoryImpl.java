@@ -0,0 +1,173 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Employee;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+	static final String VERSIONS_COLLECTION = "collection_versions";
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	/* a bulk insert does not initialise @Version as insert() does, so new documents get version 0 here */
+	@Override
+	public Map<Integer, String> insertUnordered(List<Employee> employees) {
+		if (employees.isEmpty()) {
+			return Map.of();
+		}
+		for (Employee e : employees) {
+			if (e.getVersion() == null) {
+				e.setVersion(0L);
+			}
+		}
+		try {
+			mongoTemplate.bulkOps(BulkMode.UNORDERED, Employee.class).insert(employees).execute();
+			return Map.of();
+		} catch (BulkOperationException ex) {
+			Map<Integer, String> failures = new HashMap<>();
+			for (BulkWriteError error : ex.getErrors()) {
+				failures.put(error.getIndex(), error.getMessage());
+			}
+			return failures;
+		}
+	}
+
+	/*
+	 * Ids are Strings in Java but Spring stores ObjectId-shaped ones as BSON
+	 * ObjectIds, and Mongo only compares _id values of the same BSON type. All
+	 * strings sort before all ObjectIds, so after a plain string id the page also
+	 * has to pick up every ObjectId.
+	 */
+	@Override
+	public List<Employee> findPageAfter(String afterId, int limit, Set<String> fields) {
+		return mongoTemplate.find(pageQuery(afterId, limit, fields), Employee.class);
+	}
+
+	static Query pageQuery(String afterId, int limit, Set<String> fields) {
+		Query query = project(new Query(), fields).with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+		if (afterId != null) {
+			Criteria after = Criteria.where("_id").gt(afterId);
+			query.addCriteria(ObjectId.isValid(afterId) ? after
+					: new Criteria().orOperator(after, Criteria.where("_id").type(7)));
+		}
+		return query;
+	}
+
+	@Override
+	public Stream<Employee> streamAll(Set<String> fields) {
+		return mongoTemplate.stream(project(new Query(), fields), Employee.class);
+	}
+
+	@Override
+	public Optional<Employee> findByIdAndUsername(String id, String username, Set<String> fields) {
+		return Optional.ofNullable(mongoTemplate.findOne(byIdAndUsername(id, username, fields), Employee.class));
+	}
+
+	static Query byIdAndUsername(String id, String username, Set<String> fields) {
+		return project(new Query(Criteria.where("_id").is(id).and("username").is(username)), fields);
+	}
+
+	@Override
+	public Optional<Employee> findProjectedByUsername(String username, Set<String> fields) {
+		return Optional.ofNullable(mongoTemplate.findOne(byUsername(username, fields), Employee.class));
+	}
+
+	static Query byUsername(String username, Set<String> fields) {
+		return project(new Query(Criteria.where("username").is(username)), fields);
+	}
+
+	@Override
+	public boolean updatePasswordIfUnchanged(String username, String expectedHash, String newHash) {
+		return mongoTemplate.updateFirst(byUsernameAndPassword(username, expectedHash),
+				new Update().set("password", newHash), Employee.class).getModifiedCount() > 0;
+	}
+
+	static Query byUsernameAndPassword(String username, String hash) {
+		return new Query(Criteria.where("username").is(username).and("password").is(hash));
+	}
+
+	@Override
+	public Optional<Employee> updateFieldsIf(String id, Long expectedVersion, String expectedPassword,
+			Map<String, Object> fields) {
+		Criteria criteria = Criteria.where("_id").is(id);
+		if (expectedVersion != null) {
+			criteria.and("version").is(expectedVersion);
+		}
+		if (expectedPassword != null) {
+			criteria.and("password").is(expectedPassword);
+		}
+		Update update = new Update().inc("version", 1);
+		fields.forEach(update::set);
+		Query query = project(new Query(criteria), EmployeeProjection.READABLE);
+		FindAndModifyOptions returnNew = FindAndModifyOptions.options().returnNew(true);
+		return Optional.ofNullable(mongoTemplate.findAndModify(query, update, returnNew, Employee.class));
+	}
+
+	@Override
+	public boolean deleteUnlessUsername(String id, String exceptUsername) {
+		Query query = new Query(Criteria.where("_id").is(id).and("username").ne(exceptUsername));
+		return mongoTemplate.remove(query, Employee.class).getDeletedCount() > 0;
+	}
+
+	@Override
+	public long deleteAllUnlessUsername(Collection<String> ids, String exceptUsername) {
+		Query query = new Query(Criteria.where("_id").in(ids).and("username").ne(exceptUsername));
+		return mongoTemplate.remove(query, Employee.class).getDeletedCount();
+	}
+
+	@Override
+	public Set<String> findExistingIds(Collection<String> ids) {
+		Query query = project(new Query(Criteria.where("_id").in(ids)), Set.of("empId"));
+		return mongoTemplate.find(query, Employee.class).stream().map(Employee::getEmpId).collect(Collectors.toSet());
+	}
+
+	/*
+	 * The collection version is the {_id: "employees", version: n} document in
+	 * collection_versions, incremented by an upserting $inc, so every instance
+	 * reads and bumps the same counter.
+	 */
+	@Override
+	public long collectionVersion() {
+		Document counter = mongoTemplate.findOne(collectionVersionQuery(), Document.class, VERSIONS_COLLECTION);
+		return collectionVersion(counter);
+	}
+
+	static long collectionVersion(Document counter) {
+		return counter == null ? 0 : counter.get("version", Number.class).longValue();
+	}
+
+	@Override
+	public void incrementCollectionVersion() {
+		mongoTemplate.upsert(collectionVersionQuery(), new Update().inc("version", 1), VERSIONS_COLLECTION);
+	}
+
+	static Query collectionVersionQuery() {
+		return new Query(Criteria.where("_id").is("employees"));
+	}
+
+	static Query project(Query query, Set<String> fields) {
+		query.fields().include(fields.toArray(String[]::new));
+		return query;
+	}
+}
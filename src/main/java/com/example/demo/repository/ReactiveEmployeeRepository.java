@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Employee;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of EmployeeRepository for the reactive profile,
+ * covering the reads on the request path and the login lookup.
+ */
+public interface ReactiveEmployeeRepository
+		extends ReactiveMongoRepository<Employee, String>, ReactiveEmployeeRepositoryCustom {
+	Mono<Employee> findByUsername(String username);
+}
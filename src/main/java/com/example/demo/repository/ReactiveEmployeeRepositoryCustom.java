@@ -0,0 +1,33 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Employee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * The EmployeeRepositoryCustom reads used by the reactive profile, with the
+ * same queries and projections (see there). Implemented by
+ * ReactiveEmployeeRepositoryImpl and mixed into ReactiveEmployeeRepository.
+ */
+public interface ReactiveEmployeeRepositoryCustom {
+
+	/** Keyset page ordered by _id, as EmployeeRepositoryCustom.findPageAfter */
+	Flux<Employee> findPageAfter(String afterId, int limit, Set<String> fields);
+
+	/** Every employee, projected, straight from the cursor with backpressure */
+	Flux<Employee> streamAll(Set<String> fields);
+
+	/** Projected read of one employee by id, only if it belongs to username */
+	Mono<Employee> findByIdAndUsername(String id, String username, Set<String> fields);
+
+	/** Projected read by username; never loads the password hash */
+	Mono<Employee> findProjectedByUsername(String username, Set<String> fields);
+
+	/** The counter of EmployeeRepositoryCustom.collectionVersion */
+	Mono<Long> collectionVersion();
+
+	/** As EmployeeRepositoryCustom.updatePasswordIfUnchanged; emits true if updated */
+	Mono<Boolean> updatePasswordIfUnchanged(String username, String expectedHash, String newHash);
+}
@@ -0,0 +1,52 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Employee;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/* Same queries as EmployeeRepositoryImpl, run through the ReactiveMongoTemplate */
+class ReactiveEmployeeRepositoryImpl implements ReactiveEmployeeRepositoryCustom {
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Override
+	public Flux<Employee> findPageAfter(String afterId, int limit, Set<String> fields) {
+		return mongoTemplate.find(EmployeeRepositoryImpl.pageQuery(afterId, limit, fields), Employee.class);
+	}
+
+	@Override
+	public Flux<Employee> streamAll(Set<String> fields) {
+		return mongoTemplate.find(EmployeeRepositoryImpl.project(new Query(), fields), Employee.class);
+	}
+
+	@Override
+	public Mono<Employee> findByIdAndUsername(String id, String username, Set<String> fields) {
+		return mongoTemplate.findOne(EmployeeRepositoryImpl.byIdAndUsername(id, username, fields), Employee.class);
+	}
+
+	@Override
+	public Mono<Employee> findProjectedByUsername(String username, Set<String> fields) {
+		return mongoTemplate.findOne(EmployeeRepositoryImpl.byUsername(username, fields), Employee.class);
+	}
+
+	@Override
+	public Mono<Long> collectionVersion() {
+		return mongoTemplate.findOne(EmployeeRepositoryImpl.collectionVersionQuery(), Document.class,
+				EmployeeRepositoryImpl.VERSIONS_COLLECTION).map(EmployeeRepositoryImpl::collectionVersion)
+				.defaultIfEmpty(0L);
+	}
+
+	@Override
+	public Mono<Boolean> updatePasswordIfUnchanged(String username, String expectedHash, String newHash) {
+		return mongoTemplate.updateFirst(EmployeeRepositoryImpl.byUsernameAndPassword(username, expectedHash),
+				new Update().set("password", newHash), Employee.class).map(r -> r.getModifiedCount() > 0);
+	}
+}
@@ -0,0 +1,11 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.RefreshToken;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String>, RefreshTokenRepositoryCustom {
+	List<RefreshToken> findByFamilyId(String familyId);
+}
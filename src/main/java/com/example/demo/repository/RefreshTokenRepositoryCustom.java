@@ -0,0 +1,23 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.RefreshToken;
+
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Atomic refresh-token state changes. Implemented by
+ * RefreshTokenRepositoryImpl and mixed into RefreshTokenRepository.
+ */
+public interface RefreshTokenRepositoryCustom {
+
+	/**
+	 * Marks the token used if it is unused, not revoked and not expired, in one
+	 * findAndModify, so two concurrent refreshes cannot both succeed. Returns the
+	 * token as it was before the update, or empty if it could not be claimed.
+	 */
+	Optional<RefreshToken> claimUnused(String tokenHash, Date now);
+
+	/** Flags every token of the family revoked; returns how many were changed */
+	long revokeFamily(String familyId);
+}
@@ -0,0 +1,32 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.RefreshToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.Optional;
+
+class RefreshTokenRepositoryImpl implements RefreshTokenRepositoryCustom {
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Override
+	public Optional<RefreshToken> claimUnused(String tokenHash, Date now) {
+		Query query = new Query(Criteria.where("_id").is(tokenHash).and("usedAt").is(null).and("revoked").is(false)
+				.and("expiresAt").gt(now));
+		return Optional.ofNullable(mongoTemplate.findAndModify(query, new Update().set("usedAt", now),
+				RefreshToken.class));
+	}
+
+	@Override
+	public long revokeFamily(String familyId) {
+		Query query = new Query(Criteria.where("familyId").is(familyId).and("revoked").is(false));
+		return mongoTemplate.updateMulti(query, new Update().set("revoked", true), RefreshToken.class)
+				.getModifiedCount();
+	}
+}
@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.RevokedToken;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+	List<RevokedToken> findByExpiresAtAfter(Date now);
+
+	List<RevokedToken> findByRevokedAtGreaterThanEqual(Date since);
+}
@@ -0,0 +1,30 @@
+package com.example.demo.repository.inmemory;
+
+import com.example.demo.entity.AuditEvent;
+import com.example.demo.repository.AuditEventRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+/* AuditEventRepository for the "inmemory" profile: append-only, ids are ObjectIds in insertion order */
+@Repository
+@Profile("inmemory")
+public class InMemoryAuditEventRepository extends InMemoryRepository<AuditEvent> implements AuditEventRepository {
+
+	@Override
+	protected String idOf(AuditEvent event) {
+		return event.getId();
+	}
+
+	@Override
+	protected void assignId(AuditEvent event, String id) {
+		event.setId(id);
+	}
+
+	@Override
+	protected AuditEvent copy(AuditEvent e) {
+		AuditEvent copy = new AuditEvent(e.getAt(), e.getType(), e.getActor(), e.getTarget(), e.getOutcome(),
+				e.getClientIp(), e.getDetail());
+		copy.setId(e.getId());
+		return copy;
+	}
+}
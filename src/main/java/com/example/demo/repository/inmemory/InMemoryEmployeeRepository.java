@@ -0,0 +1,256 @@
+package com.example.demo.repository.inmemory;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.repository.EmployeeProjection;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/*
+ * EmployeeRepository for the "inmemory" profile. The two Mongo indexes on
+ * Employee are mirrored as hash maps maintained on every write: username -> id
+ * (unique, so a duplicate username fails like the unique index does) and
+ * role -> ids. Login and user-details lookups by username and role lookups are
+ * therefore O(1) map reads; projections copy only the requested fields, so the
+ * password hash leaves the repository only through findByUsername, as with
+ * Mongo. version behaves like Spring Data's @Version handling: 0 on insert,
+ * checked and incremented by save and by every update. The collection version
+ * starts at the startup time in milliseconds rather than 0, so a restart,
+ * which empties the store, never hands out a list ETag of a previous run.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryEmployeeRepository extends InMemoryRepository<Employee> implements EmployeeRepository {
+
+	private final Map<String, String> idByUsername = new ConcurrentHashMap<>();
+	private final Map<String, Set<String>> idsByRole = new ConcurrentHashMap<>();
+	private final AtomicLong collectionVersion = new AtomicLong(System.currentTimeMillis());
+
+	@Override
+	protected String idOf(Employee employee) {
+		return employee.getEmpId();
+	}
+
+	@Override
+	protected void assignId(Employee employee, String id) {
+		employee.setEmpId(id);
+	}
+
+	@Override
+	protected Employee copy(Employee e) {
+		Employee copy = new Employee(e.getEmpId(), e.getUsername(), e.getPassword(),
+				e.getUserRoles() == null ? null : new ArrayList<>(e.getUserRoles()));
+		copy.setVersion(e.getVersion());
+		return copy;
+	}
+
+	private static Employee project(Employee e, Set<String> fields) {
+		Employee projected = new Employee(e.getEmpId(), fields.contains("username") ? e.getUsername() : null, null,
+				fields.contains("userRoles") && e.getUserRoles() != null ? new ArrayList<>(e.getUserRoles()) : null);
+		projected.setVersion(fields.contains("version") ? e.getVersion() : null);
+		return projected;
+	}
+
+	/* new documents (version null) must not exist yet; existing ones must still have the version that was read */
+	@Override
+	public synchronized <S extends Employee> S save(S employee) {
+		Employee stored = employee.getEmpId() == null ? null : store.get(employee.getEmpId());
+		if (employee.getVersion() == null) {
+			if (stored != null) {
+				throw new DuplicateKeyException(
+						"E11000 duplicate key error index: _id_ dup key: " + employee.getEmpId());
+			}
+			employee.setVersion(0L);
+		} else if (stored == null || !employee.getVersion().equals(stored.getVersion())) {
+			throw new OptimisticLockingFailureException("Cannot save employee " + employee.getEmpId() + " with version "
+					+ employee.getVersion() + " to the employees collection");
+		} else {
+			employee.setVersion(employee.getVersion() + 1);
+		}
+		return super.save(employee);
+	}
+
+	private static long next(Long version) {
+		return version == null ? 1 : version + 1;
+	}
+
+	@Override
+	protected void reindex(Employee previous, Employee current) {
+		if (current != null && current.getUsername() != null) {
+			String owner = idByUsername.get(current.getUsername());
+			if (owner != null && !owner.equals(current.getEmpId())) {
+				throw new DuplicateKeyException(
+						"E11000 duplicate key error index: username dup key: " + current.getUsername());
+			}
+		}
+		if (previous != null) {
+			if (previous.getUsername() != null) {
+				idByUsername.remove(previous.getUsername(), previous.getEmpId());
+			}
+			roles(previous).forEach(role -> idsByRole.computeIfPresent(role, (r, ids) -> {
+				ids.remove(previous.getEmpId());
+				return ids.isEmpty() ? null : ids;
+			}));
+		}
+		if (current != null) {
+			if (current.getUsername() != null) {
+				idByUsername.put(current.getUsername(), current.getEmpId());
+			}
+			roles(current).forEach(role -> idsByRole.computeIfAbsent(role, r -> ConcurrentHashMap.newKeySet())
+					.add(current.getEmpId()));
+		}
+	}
+
+	private static List<String> roles(Employee e) {
+		return e.getUserRoles() == null ? List.of() : e.getUserRoles();
+	}
+
+	/* the id from the index is re-checked against the document, which may have been renamed meanwhile */
+	private Optional<Employee> stored(String username) {
+		String id = username == null ? null : idByUsername.get(username);
+		Employee e = id == null ? null : store.get(id);
+		return e != null && username.equals(e.getUsername()) ? Optional.of(e) : Optional.empty();
+	}
+
+	@Override
+	public Optional<Employee> findByUsername(String username) {
+		return stored(username).map(this::copy);
+	}
+
+	@Override
+	public List<Employee> findByUserRoles(String role) {
+		Set<String> ids = idsByRole.getOrDefault(role, Set.of());
+		return ids.stream().map(store::get).filter(e -> e != null && roles(e).contains(role)).map(this::copy)
+				.toList();
+	}
+
+	@Override
+	public synchronized Map<Integer, String> insertUnordered(List<Employee> employees) {
+		Map<Integer, String> failures = new HashMap<>();
+		for (int i = 0; i < employees.size(); i++) {
+			try {
+				insert(employees.get(i));
+			} catch (DuplicateKeyException ex) {
+				failures.put(i, ex.getMessage());
+			}
+		}
+		return failures;
+	}
+
+	@Override
+	public List<Employee> findPageAfter(String afterId, int limit, Set<String> fields) {
+		return (afterId == null ? store : store.tailMap(afterId, false)).values().stream().limit(limit)
+				.map(e -> project(e, fields)).toList();
+	}
+
+	@Override
+	public Stream<Employee> streamAll(Set<String> fields) {
+		return store.values().stream().map(e -> project(e, fields));
+	}
+
+	@Override
+	public Optional<Employee> findByIdAndUsername(String id, String username, Set<String> fields) {
+		Employee e = id == null ? null : store.get(id);
+		return e != null && Objects.equals(e.getUsername(), username) ? Optional.of(project(e, fields))
+				: Optional.empty();
+	}
+
+	@Override
+	public synchronized boolean updatePasswordIfUnchanged(String username, String expectedHash, String newHash) {
+		Employee e = stored(username).orElse(null);
+		if (e == null || !Objects.equals(e.getPassword(), expectedHash)) {
+			return false;
+		}
+		Employee updated = copy(e);
+		updated.setPassword(newHash);
+		updated.setVersion(next(e.getVersion()));
+		write(updated.getEmpId(), updated);
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public synchronized Optional<Employee> updateFieldsIf(String id, Long expectedVersion, String expectedPassword,
+			Map<String, Object> fields) {
+		Employee e = id == null ? null : store.get(id);
+		if (e == null || (expectedVersion != null && !expectedVersion.equals(e.getVersion()))
+				|| (expectedPassword != null && !expectedPassword.equals(e.getPassword()))) {
+			return Optional.empty();
+		}
+		Employee updated = copy(e);
+		fields.forEach((field, value) -> {
+			switch (field) {
+			case "username" -> updated.setUsername((String) value);
+			case "password" -> updated.setPassword((String) value);
+			case "userRoles" -> updated.setUserRoles(value == null ? null : new ArrayList<>((List<String>) value));
+			default -> throw new IllegalArgumentException("cannot update " + field);
+			}
+		});
+		updated.setVersion(next(e.getVersion()));
+		write(id, updated);
+		return Optional.of(project(updated, EmployeeProjection.READABLE));
+	}
+
+	@Override
+	public synchronized boolean deleteUnlessUsername(String id, String exceptUsername) {
+		Employee e = id == null ? null : store.get(id);
+		if (e == null || Objects.equals(e.getUsername(), exceptUsername)) {
+			return false;
+		}
+		deleteById(id);
+		return true;
+	}
+
+	@Override
+	public synchronized long deleteAllUnlessUsername(Collection<String> ids, String exceptUsername) {
+		long deleted = 0;
+		for (String id : new LinkedHashSet<>(ids)) {
+			if (deleteUnlessUsername(id, exceptUsername)) {
+				deleted++;
+			}
+		}
+		return deleted;
+	}
+
+	@Override
+	public Set<String> findExistingIds(Collection<String> ids) {
+		Set<String> existing = new HashSet<>();
+		for (String id : ids) {
+			if (id != null && store.containsKey(id)) {
+				existing.add(id);
+			}
+		}
+		return existing;
+	}
+
+	@Override
+	public Optional<Employee> findProjectedByUsername(String username, Set<String> fields) {
+		return stored(username).map(e -> project(e, fields));
+	}
+
+	@Override
+	public long collectionVersion() {
+		return collectionVersion.get();
+	}
+
+	@Override
+	public void incrementCollectionVersion() {
+		collectionVersion.incrementAndGet();
+	}
+}
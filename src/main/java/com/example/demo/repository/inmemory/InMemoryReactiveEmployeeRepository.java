@@ -0,0 +1,60 @@
+package com.example.demo.repository.inmemory;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.ReactiveEmployeeRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+/* ReactiveEmployeeRepository over the same InMemoryEmployeeRepository the blocking services use */
+@Repository
+@Profile("inmemory & reactive")
+public class InMemoryReactiveEmployeeRepository extends InMemoryReactiveRepository<Employee>
+		implements ReactiveEmployeeRepository {
+
+	private final InMemoryEmployeeRepository employees;
+
+	public InMemoryReactiveEmployeeRepository(InMemoryEmployeeRepository employees) {
+		super(employees);
+		this.employees = employees;
+	}
+
+	@Override
+	public Mono<Employee> findByUsername(String username) {
+		return Mono.fromCallable(() -> employees.findByUsername(username).orElse(null));
+	}
+
+	@Override
+	public Flux<Employee> findPageAfter(String afterId, int limit, Set<String> fields) {
+		return Flux.defer(() -> Flux.fromIterable(employees.findPageAfter(afterId, limit, fields)));
+	}
+
+	@Override
+	public Flux<Employee> streamAll(Set<String> fields) {
+		return Flux.using(() -> employees.streamAll(fields), Flux::fromStream, Stream::close);
+	}
+
+	@Override
+	public Mono<Employee> findByIdAndUsername(String id, String username, Set<String> fields) {
+		return Mono.fromCallable(() -> employees.findByIdAndUsername(id, username, fields).orElse(null));
+	}
+
+	@Override
+	public Mono<Employee> findProjectedByUsername(String username, Set<String> fields) {
+		return Mono.fromCallable(() -> employees.findProjectedByUsername(username, fields).orElse(null));
+	}
+
+	@Override
+	public Mono<Long> collectionVersion() {
+		return Mono.fromCallable(employees::collectionVersion);
+	}
+
+	@Override
+	public Mono<Boolean> updatePasswordIfUnchanged(String username, String expectedHash, String newHash) {
+		return Mono.fromCallable(() -> employees.updatePasswordIfUnchanged(username, expectedHash, newHash));
+	}
+}
@@ -0,0 +1,168 @@
+package com.example.demo.repository.inmemory;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/*
+ * ReactiveMongoRepository view of an in-memory repository, for the reactive
+ * profile combined with inmemory. Every in-memory operation is a map access
+ * that never waits on I/O, so each call runs on the subscribing thread
+ * (Mono.fromCallable / Flux.defer) without a scheduler hop.
+ */
+abstract class InMemoryReactiveRepository<T> implements ReactiveMongoRepository<T, String> {
+
+	protected final MongoRepository<T, String> delegate;
+
+	InMemoryReactiveRepository(MongoRepository<T, String> delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public <S extends T> Mono<S> insert(S entity) {
+		return Mono.fromCallable(() -> delegate.insert(entity));
+	}
+
+	@Override
+	public <S extends T> Flux<S> insert(Iterable<S> entities) {
+		return Flux.defer(() -> Flux.fromIterable(delegate.insert(entities)));
+	}
+
+	@Override
+	public <S extends T> Flux<S> insert(Publisher<S> entities) {
+		return Flux.from(entities).concatMap(this::insert);
+	}
+
+	@Override
+	public <S extends T> Mono<S> save(S entity) {
+		return Mono.fromCallable(() -> delegate.save(entity));
+	}
+
+	@Override
+	public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+		return Flux.defer(() -> Flux.fromIterable(delegate.saveAll(entities)));
+	}
+
+	@Override
+	public <S extends T> Flux<S> saveAll(Publisher<S> entities) {
+		return Flux.from(entities).concatMap(this::save);
+	}
+
+	@Override
+	public Mono<T> findById(String id) {
+		return Mono.fromCallable(() -> delegate.findById(id).orElse(null));
+	}
+
+	@Override
+	public Mono<T> findById(Publisher<String> id) {
+		return Mono.from(id).flatMap(this::findById);
+	}
+
+	@Override
+	public Mono<Boolean> existsById(String id) {
+		return Mono.fromCallable(() -> delegate.existsById(id));
+	}
+
+	@Override
+	public Mono<Boolean> existsById(Publisher<String> id) {
+		return Mono.from(id).flatMap(this::existsById);
+	}
+
+	@Override
+	public Flux<T> findAll() {
+		return Flux.defer(() -> Flux.fromIterable(delegate.findAll()));
+	}
+
+	@Override
+	public Flux<T> findAll(Sort sort) {
+		return Flux.defer(() -> Flux.fromIterable(delegate.findAll(sort)));
+	}
+
+	@Override
+	public Flux<T> findAllById(Iterable<String> ids) {
+		return Flux.defer(() -> Flux.fromIterable(delegate.findAllById(ids)));
+	}
+
+	@Override
+	public Flux<T> findAllById(Publisher<String> ids) {
+		return Flux.from(ids).concatMap(this::findById);
+	}
+
+	@Override
+	public Mono<Long> count() {
+		return Mono.fromCallable(delegate::count);
+	}
+
+	@Override
+	public Mono<Void> deleteById(String id) {
+		return Mono.fromRunnable(() -> delegate.deleteById(id));
+	}
+
+	@Override
+	public Mono<Void> deleteById(Publisher<String> id) {
+		return Mono.from(id).flatMap(this::deleteById);
+	}
+
+	@Override
+	public Mono<Void> delete(T entity) {
+		return Mono.fromRunnable(() -> delegate.delete(entity));
+	}
+
+	@Override
+	public Mono<Void> deleteAllById(Iterable<? extends String> ids) {
+		return Mono.fromRunnable(() -> delegate.deleteAllById(ids));
+	}
+
+	@Override
+	public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+		return Mono.fromRunnable(() -> delegate.deleteAll(entities));
+	}
+
+	@Override
+	public Mono<Void> deleteAll(Publisher<? extends T> entities) {
+		return Flux.from(entities).concatMap(this::delete).then();
+	}
+
+	@Override
+	public Mono<Void> deleteAll() {
+		return Mono.fromRunnable(delegate::deleteAll);
+	}
+
+	@Override
+	public <S extends T> Mono<S> findOne(Example<S> example) {
+		return Mono.fromCallable(() -> delegate.findOne(example).orElse(null));
+	}
+
+	@Override
+	public <S extends T> Flux<S> findAll(Example<S> example) {
+		return Flux.defer(() -> Flux.fromIterable(delegate.findAll(example)));
+	}
+
+	@Override
+	public <S extends T> Flux<S> findAll(Example<S> example, Sort sort) {
+		return Flux.defer(() -> Flux.fromIterable(delegate.findAll(example, sort)));
+	}
+
+	@Override
+	public <S extends T> Mono<Long> count(Example<S> example) {
+		return Mono.fromCallable(() -> delegate.count(example));
+	}
+
+	@Override
+	public <S extends T> Mono<Boolean> exists(Example<S> example) {
+		return Mono.fromCallable(() -> delegate.exists(example));
+	}
+
+	@Override
+	public <S extends T, R, P extends Publisher<R>> P findBy(Example<S> example,
+			Function<FluentQuery.ReactiveFluentQuery<S>, P> queryFunction) {
+		throw InMemoryRepository.queryByExample();
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.demo.repository.inmemory;
+
+import com.example.demo.entity.RefreshToken;
+import com.example.demo.repository.RefreshTokenRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * RefreshTokenRepository for the "inmemory" profile: familyId is indexed like
+ * in Mongo, claimUnused is atomic under the write lock, and expired tokens are
+ * removed every minute as the TTL index would.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryRefreshTokenRepository extends InMemoryRepository<RefreshToken>
+		implements RefreshTokenRepository {
+
+	private final Map<String, Set<String>> idsByFamily = new ConcurrentHashMap<>();
+
+	@Override
+	protected String idOf(RefreshToken token) {
+		return token.getTokenHash();
+	}
+
+	@Override
+	protected void assignId(RefreshToken token, String id) {
+		token.setTokenHash(id);
+	}
+
+	@Override
+	protected RefreshToken copy(RefreshToken t) {
+		RefreshToken copy = new RefreshToken(t.getTokenHash(), t.getUsername(), t.getFamilyId(), t.getExpiresAt(),
+				t.getAccessJti(), t.getAccessExpiresAt());
+		copy.setUsedAt(t.getUsedAt());
+		copy.setRevoked(t.isRevoked());
+		return copy;
+	}
+
+	@Override
+	protected void reindex(RefreshToken previous, RefreshToken current) {
+		if (previous != null && previous.getFamilyId() != null) {
+			idsByFamily.computeIfPresent(previous.getFamilyId(), (f, ids) -> {
+				ids.remove(previous.getTokenHash());
+				return ids.isEmpty() ? null : ids;
+			});
+		}
+		if (current != null && current.getFamilyId() != null) {
+			idsByFamily.computeIfAbsent(current.getFamilyId(), f -> ConcurrentHashMap.newKeySet())
+					.add(current.getTokenHash());
+		}
+	}
+
+	@Override
+	public List<RefreshToken> findByFamilyId(String familyId) {
+		return idsByFamily.getOrDefault(familyId, Set.of()).stream().map(this::read).flatMap(Optional::stream)
+				.filter(t -> familyId.equals(t.getFamilyId())).toList();
+	}
+
+	@Override
+	public synchronized Optional<RefreshToken> claimUnused(String tokenHash, Date now) {
+		RefreshToken t = store.get(tokenHash);
+		if (t == null || t.getUsedAt() != null || t.isRevoked() || !t.getExpiresAt().after(now)) {
+			return Optional.empty();
+		}
+		RefreshToken used = copy(t);
+		used.setUsedAt(now);
+		write(tokenHash, used);
+		return Optional.of(copy(t));
+	}
+
+	@Override
+	public synchronized long revokeFamily(String familyId) {
+		long changed = 0;
+		for (String id : List.copyOf(idsByFamily.getOrDefault(familyId, Set.of()))) {
+			RefreshToken t = store.get(id);
+			if (t != null && !t.isRevoked()) {
+				RefreshToken revoked = copy(t);
+				revoked.setRevoked(true);
+				write(id, revoked);
+				changed++;
+			}
+		}
+		return changed;
+	}
+
+	@Scheduled(fixedDelay = 60_000)
+	public void expire() {
+		Date now = new Date();
+		removeIf(t -> t.getExpiresAt() != null && !t.getExpiresAt().after(now));
+	}
+}
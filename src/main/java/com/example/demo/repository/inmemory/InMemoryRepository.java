@@ -0,0 +1,279 @@
+package com.example.demo.repository.inmemory;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*
+ * Base of the repositories used by the "inmemory" profile in place of Mongo.
+ * Documents live in a ConcurrentSkipListMap keyed by id in Mongo's _id order
+ * (plain string ids before ObjectId-shaped ones, see
+ * EmployeeRepositoryImpl.findPageAfter), so keyset paging returns the same
+ * pages. Stored documents are never mutated: every write stores a fresh copy
+ * and every read returns one, as a Mongo round trip would, so readers never
+ * lock and never see a half-written document. Writes are serialised on the
+ * repository, which keeps secondary indexes (see reindex) and unique
+ * constraints consistent; they throw DuplicateKeyException like the Mongo
+ * driver does. Sorts work on simple and nested properties with Mongo's
+ * ordering (nulls first, the id in _id order); query by example is not
+ * supported.
+ */
+abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+
+	static final Comparator<String> ID_ORDER = Comparator.comparing(ObjectId::isValid)
+			.thenComparing(Comparator.naturalOrder());
+
+	protected final ConcurrentNavigableMap<String, T> store = new ConcurrentSkipListMap<>(ID_ORDER);
+
+	protected abstract String idOf(T entity);
+
+	protected abstract void assignId(T entity, String id);
+
+	protected abstract T copy(T entity);
+
+	/**
+	 * Updates secondary indexes when a document is written (previous null: new
+	 * document) or deleted (current null). Runs under the write lock, before the
+	 * store changes; throw DuplicateKeyException to reject the write.
+	 */
+	protected void reindex(T previous, T current) {
+	}
+
+	/** Reads a stored document, copied; empty if absent */
+	protected Optional<T> read(String id) {
+		T stored = id == null ? null : store.get(id);
+		return stored == null ? Optional.empty() : Optional.of(copy(stored));
+	}
+
+	/** Replaces the stored document; callers hold the write lock */
+	protected void write(String id, T entity) {
+		T previous = store.get(id);
+		reindex(previous, entity);
+		store.put(id, entity);
+	}
+
+	/** Deletes every document matching the filter; returns how many were removed */
+	protected synchronized int removeIf(Predicate<T> filter) {
+		int removed = 0;
+		for (T entity : store.values()) {
+			if (filter.test(entity)) {
+				deleteById(idOf(entity));
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	protected List<T> readAll(Predicate<T> filter) {
+		return store.values().stream().filter(filter).map(this::copy).toList();
+	}
+
+	@Override
+	public synchronized <S extends T> S save(S entity) {
+		String id = idOf(entity);
+		if (id == null) {
+			id = new ObjectId().toHexString();
+			assignId(entity, id);
+		}
+		write(id, copy(entity));
+		return entity;
+	}
+
+	@Override
+	public synchronized <S extends T> S insert(S entity) {
+		String id = idOf(entity);
+		if (id != null && store.containsKey(id)) {
+			throw new DuplicateKeyException("E11000 duplicate key error index: _id_ dup key: " + id);
+		}
+		return save(entity);
+	}
+
+	@Override
+	public synchronized <S extends T> List<S> insert(Iterable<S> entities) {
+		List<S> saved = new ArrayList<>();
+		entities.forEach(e -> saved.add(insert(e)));
+		return saved;
+	}
+
+	@Override
+	public synchronized <S extends T> List<S> saveAll(Iterable<S> entities) {
+		List<S> saved = new ArrayList<>();
+		entities.forEach(e -> saved.add(save(e)));
+		return saved;
+	}
+
+	@Override
+	public Optional<T> findById(String id) {
+		return read(id);
+	}
+
+	@Override
+	public boolean existsById(String id) {
+		return store.containsKey(id);
+	}
+
+	@Override
+	public List<T> findAll() {
+		return readAll(e -> true);
+	}
+
+	@Override
+	public List<T> findAllById(Iterable<String> ids) {
+		List<T> found = new ArrayList<>();
+		ids.forEach(id -> read(id).ifPresent(found::add));
+		return found;
+	}
+
+	@Override
+	public List<T> findAll(Sort sort) {
+		if (sort.isUnsorted()) {
+			return findAll();
+		}
+		return store.values().stream().sorted(ordering(sort)).map(this::copy).toList();
+	}
+
+	@Override
+	public Page<T> findAll(Pageable pageable) {
+		if (pageable.isUnpaged()) {
+			return new PageImpl<>(findAll(pageable.getSort()));
+		}
+		var documents = store.values().stream();
+		if (pageable.getSort().isSorted()) {
+			documents = documents.sorted(ordering(pageable.getSort()));
+		}
+		List<T> content = documents.skip(pageable.getOffset()).limit(pageable.getPageSize()).map(this::copy)
+				.toList();
+		return new PageImpl<>(content, pageable, store.size());
+	}
+
+	/* a stable sort over the store's id order, so ties come back in _id order as in Mongo */
+	private Comparator<T> ordering(Sort sort) {
+		Comparator<T> ordering = (a, b) -> 0;
+		for (Sort.Order order : sort) {
+			String property = order.getProperty();
+			Comparator<T> byProperty = (a, b) -> isId(a, property) ? ID_ORDER.compare(idOf(a), idOf(b))
+					: compare(order, new BeanWrapperImpl(a).getPropertyValue(property),
+							new BeanWrapperImpl(b).getPropertyValue(property));
+			ordering = ordering.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+		}
+		return ordering;
+	}
+
+	private static boolean isId(Object entity, String property) {
+		Field field = ReflectionUtils.findField(entity.getClass(), property);
+		return "_id".equals(property) || field != null && field.isAnnotationPresent(Id.class);
+	}
+
+	/* Mongo's order for one property: missing and null values first */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compare(Sort.Order order, Object a, Object b) {
+		if (a == null || b == null) {
+			return a == b ? 0 : a == null ? -1 : 1;
+		}
+		if (order.isIgnoreCase() && a instanceof String x && b instanceof String y) {
+			return x.compareToIgnoreCase(y);
+		}
+		if (!(a instanceof Comparable)) {
+			throw unsupported("sorting by " + order.getProperty());
+		}
+		return ((Comparable) a).compareTo(b);
+	}
+
+	@Override
+	public long count() {
+		return store.size();
+	}
+
+	@Override
+	public synchronized void deleteById(String id) {
+		T previous = store.get(id);
+		if (previous != null) {
+			reindex(previous, null);
+			store.remove(id);
+		}
+	}
+
+	@Override
+	public void delete(T entity) {
+		deleteById(idOf(entity));
+	}
+
+	@Override
+	public synchronized void deleteAllById(Iterable<? extends String> ids) {
+		ids.forEach(this::deleteById);
+	}
+
+	@Override
+	public synchronized void deleteAll(Iterable<? extends T> entities) {
+		entities.forEach(this::delete);
+	}
+
+	@Override
+	public synchronized void deleteAll() {
+		removeIf(e -> true);
+	}
+
+	@Override
+	public <S extends T> Optional<S> findOne(Example<S> example) {
+		throw queryByExample();
+	}
+
+	@Override
+	public <S extends T> List<S> findAll(Example<S> example) {
+		throw queryByExample();
+	}
+
+	@Override
+	public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+		throw queryByExample();
+	}
+
+	@Override
+	public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+		throw queryByExample();
+	}
+
+	@Override
+	public <S extends T> long count(Example<S> example) {
+		throw queryByExample();
+	}
+
+	@Override
+	public <S extends T> boolean exists(Example<S> example) {
+		throw queryByExample();
+	}
+
+	@Override
+	public <S extends T, R> R findBy(Example<S> example,
+			Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+		throw queryByExample();
+	}
+
+	static UnsupportedOperationException queryByExample() {
+		return unsupported("query by example");
+	}
+
+	/** The exception for everything the in-memory repositories (blocking and reactive) do not implement */
+	static UnsupportedOperationException unsupported(String what) {
+		return new UnsupportedOperationException(what + " is not supported by the in-memory repository");
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.demo.repository.inmemory;
+
+import com.example.demo.entity.RevokedToken;
+import com.example.demo.repository.RevokedTokenRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+/*
+ * RevokedTokenRepository for the "inmemory" profile. Revocations are rare and
+ * TokenRevocationList keeps its own index, so the two queries simply scan.
+ * Expired entries are removed every minute as the TTL index would.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryRevokedTokenRepository extends InMemoryRepository<RevokedToken>
+		implements RevokedTokenRepository {
+
+	@Override
+	protected String idOf(RevokedToken token) {
+		return token.getJti();
+	}
+
+	@Override
+	protected void assignId(RevokedToken token, String id) {
+		token.setJti(id);
+	}
+
+	@Override
+	protected RevokedToken copy(RevokedToken t) {
+		return new RevokedToken(t.getJti(), t.getExpiresAt(), t.getRevokedAt());
+	}
+
+	@Override
+	public List<RevokedToken> findByExpiresAtAfter(Date now) {
+		return readAll(t -> t.getExpiresAt() != null && t.getExpiresAt().after(now));
+	}
+
+	@Override
+	public List<RevokedToken> findByRevokedAtGreaterThanEqual(Date since) {
+		return readAll(t -> t.getRevokedAt() != null && !t.getRevokedAt().before(since));
+	}
+
+	@Scheduled(fixedDelay = 60_000)
+	public void expire() {
+		Date now = new Date();
+		removeIf(t -> t.getExpiresAt() != null && !t.getExpiresAt().after(now));
+	}
+}
@@ -0,0 +1,391 @@
+package com.example.demo.security;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/*
+ * Dedicated encoder/decoder for the fixed claim set JwtUtil issues (jti, sub,
+ * roles or r, iat, exp) signed with HS256 under one key id. It writes and reads the JSON by hand, keeps
+ * one Mac per thread and decodes Base64URL straight from the token string, so
+ * none of jjwt's generic Jackson map handling or Mac setup is on the hot path.
+ *
+ * The decoder is a fast path only: tryDecode() returns a VerifiedToken when the
+ * token has exactly the shape this class produces, a valid signature and an exp
+ * that has not passed, and null for everything else. JwtUtil then hands the
+ * token to jjwt, which accepts or rejects it and throws the usual exception.
+ * Because every fast-path acceptance is a token jjwt would also accept, and
+ * every other token is judged by jjwt itself, both paths accept and reject the
+ * same tokens (see Hs256TokenCodecTest). Instances are thread-safe.
+ */
+final class Hs256TokenCodec {
+
+	private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+	private final String header;
+	private final ThreadLocal<Mac> mac;
+	private final RoleRegistry roleRegistry;
+
+	/** kid may be null for a header with alg only */
+	Hs256TokenCodec(String kid, SecretKey key, RoleRegistry roleRegistry) {
+		StringBuilder json = new StringBuilder("{");
+		if (kid != null) {
+			json.append("\"kid\":");
+			appendString(json, kid);
+			json.append(',');
+		}
+		this.header = B64.encodeToString(json.append("\"alg\":\"HS256\"}").toString().getBytes(StandardCharsets.UTF_8));
+		this.roleRegistry = roleRegistry;
+		this.mac = ThreadLocal.withInitial(() -> {
+			try {
+				Mac m = Mac.getInstance("HmacSHA256");
+				m.init(key);
+				return m;
+			} catch (GeneralSecurityException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	/** The Base64URL header every token of this codec starts with */
+	String header() {
+		return header;
+	}
+
+	/**
+	 * Encodes the claims in the order jjwt's builder writes them. roleMask >= 0
+	 * writes "r" instead of "roles"; issuedAtSec < 0 omits iat. Like jjwt, a
+	 * null jti is left out, and so is a blank subject when it would be the first
+	 * claim (jjwt's builder only skips it while it has no claims yet).
+	 */
+	String encode(String jti, String subject, List<String> roles, int roleMask, long issuedAtSec,
+			long expiresAtSec) {
+		StringBuilder json = new StringBuilder(128).append('{');
+		boolean hasJti = jti != null && !jti.isBlank();
+		if (hasJti) {
+			json.append("\"jti\":");
+			appendString(json, jti);
+			json.append(',');
+		}
+		if (subject != null && (hasJti || !subject.isBlank())) {
+			json.append("\"sub\":");
+			appendString(json, subject);
+			json.append(',');
+		}
+		if (roleMask >= 0) {
+			json.append("\"r\":").append(roleMask);
+		} else {
+			json.append("\"roles\":[");
+			for (int i = 0; i < roles.size(); i++) {
+				if (i > 0) {
+					json.append(',');
+				}
+				appendString(json, roles.get(i));
+			}
+			json.append(']');
+		}
+		if (issuedAtSec >= 0) {
+			json.append(",\"iat\":").append(issuedAtSec);
+		}
+		json.append(",\"exp\":").append(expiresAtSec).append('}');
+
+		String signingInput = header + '.' + B64.encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+		byte[] signature = mac.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+		return signingInput + '.' + B64.encodeToString(signature);
+	}
+
+	/** Verified claims, or null when the token must be judged by jjwt instead */
+	VerifiedToken tryDecode(String token, long nowMs) {
+		int first = token.indexOf('.');
+		int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+		if (first != header.length() || second < 0 || token.indexOf('.', second + 1) >= 0
+				|| !token.startsWith(header) || !isBase64Url(token, first + 1, second)
+				|| !isBase64Url(token, second + 1, token.length())) {
+			return null;
+		}
+
+		Mac m = mac.get();
+		for (int i = 0; i < second; i++) {
+			m.update((byte) token.charAt(i));
+		}
+		byte[] expected = B64.encode(m.doFinal());
+		byte[] actual = token.substring(second + 1).getBytes(StandardCharsets.US_ASCII);
+		if (!MessageDigest.isEqual(expected, actual)) {
+			return null;
+		}
+
+		byte[] json;
+		try {
+			json = B64_DECODER.decode(token.substring(first + 1, second));
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+		String payload;
+		try {
+			payload = StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(json)).toString();
+		} catch (CharacterCodingException ex) {
+			return null;
+		}
+		Claims claims = new ClaimsParser(payload).parse();
+		if (claims == null || (claims.exp != null && nowMs > claims.exp * 1000)) {
+			return null;
+		}
+
+		RoleSet roles;
+		if (claims.r != null && roleRegistry != null) {
+			if (claims.r > Integer.MAX_VALUE) {
+				return null;
+			}
+			try {
+				roles = roleRegistry.decode(claims.r.intValue());
+			} catch (IllegalArgumentException ex) {
+				return null;
+			}
+		} else {
+			roles = claims.roles == null ? RoleSet.EMPTY : RoleSet.of(claims.roles);
+		}
+		return new VerifiedToken(claims.jti, claims.sub, roles, claims.iat == null ? 0 : claims.iat * 1000,
+				claims.exp == null ? 0 : claims.exp * 1000);
+	}
+
+	private static boolean isBase64Url(String s, int from, int to) {
+		if (from >= to || (to - from) % 4 == 1) {
+			return false;
+		}
+		for (int i = from; i < to; i++) {
+			char c = s.charAt(i);
+			if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-'
+					|| c == '_')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** JSON string escaping identical to Jackson's default output */
+	private static void appendString(StringBuilder out, String s) {
+		out.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"' -> out.append("\\\"");
+			case '\\' -> out.append("\\\\");
+			case '\b' -> out.append("\\b");
+			case '\f' -> out.append("\\f");
+			case '\n' -> out.append("\\n");
+			case '\r' -> out.append("\\r");
+			case '\t' -> out.append("\\t");
+			default -> {
+				// Jackson's UTF-8 generator escapes controls and each half of a surrogate pair
+				if (c < 0x20 || Character.isSurrogate(c)) {
+					out.append(String.format("\\u%04X", (int) c));
+				} else {
+					out.append(c);
+				}
+			}
+			}
+		}
+		out.append('"');
+	}
+
+	private static final class Claims {
+		String jti;
+		String sub;
+		List<String> roles;
+		Long r;
+		Long iat;
+		Long exp;
+	}
+
+	/*
+	 * Strict parser for exactly one JSON object holding the known claims. Any
+	 * other key, a duplicate key, an unexpected value type, a fraction or
+	 * exponent, or trailing content makes parse() return null (jjwt decides).
+	 */
+	private static final class ClaimsParser {
+		private final String s;
+		private int pos;
+
+		ClaimsParser(String s) {
+			this.s = s;
+		}
+
+		Claims parse() {
+			try {
+				Claims c = new Claims();
+				skipWs();
+				expect('{');
+				skipWs();
+				if (peek() == '}') {
+					pos++;
+				} else {
+					do {
+						skipWs();
+						String key = string();
+						skipWs();
+						expect(':');
+						skipWs();
+						switch (key) {
+						case "jti" -> {
+							if (c.jti != null) {
+								return null;
+							}
+							c.jti = string();
+						}
+						case "sub" -> {
+							if (c.sub != null) {
+								return null;
+							}
+							c.sub = string();
+						}
+						case "roles" -> {
+							if (c.roles != null) {
+								return null;
+							}
+							c.roles = stringArray();
+						}
+						case "r" -> {
+							if (c.r != null) {
+								return null;
+							}
+							c.r = number();
+						}
+						case "iat" -> {
+							if (c.iat != null) {
+								return null;
+							}
+							c.iat = number();
+						}
+						case "exp" -> {
+							if (c.exp != null) {
+								return null;
+							}
+							c.exp = number();
+						}
+						default -> {
+							return null;
+						}
+						}
+						skipWs();
+					} while (consume(','));
+					expect('}');
+				}
+				skipWs();
+				return pos == s.length() ? c : null;
+			} catch (IllegalStateException | IndexOutOfBoundsException ex) {
+				return null;
+			}
+		}
+
+		private List<String> stringArray() {
+			expect('[');
+			List<String> out = new ArrayList<>(4);
+			skipWs();
+			if (consume(']')) {
+				return out;
+			}
+			do {
+				skipWs();
+				out.add(string());
+				skipWs();
+			} while (consume(','));
+			expect(']');
+			return out;
+		}
+
+		private long number() {
+			int start = pos;
+			while (pos < s.length() && s.charAt(pos) >= '0' && s.charAt(pos) <= '9') {
+				pos++;
+			}
+			int digits = pos - start;
+			if (digits == 0 || digits > 15 || (digits > 1 && s.charAt(start) == '0')) {
+				throw new IllegalStateException("number");
+			}
+			return Long.parseLong(s, start, pos, 10);
+		}
+
+		private String string() {
+			expect('"');
+			StringBuilder out = null;
+			int start = pos;
+			while (true) {
+				char c = s.charAt(pos);
+				if (c == '"') {
+					String tail = s.substring(start, pos++);
+					return out == null ? tail : out.append(tail).toString();
+				}
+				if (c < 0x20) {
+					throw new IllegalStateException("control character");
+				}
+				if (c != '\\') {
+					pos++;
+					continue;
+				}
+				if (out == null) {
+					out = new StringBuilder();
+				}
+				out.append(s, start, pos);
+				char e = s.charAt(pos + 1);
+				pos += 2;
+				switch (e) {
+				case '"', '\\', '/' -> out.append(e);
+				case 'b' -> out.append('\b');
+				case 'f' -> out.append('\f');
+				case 'n' -> out.append('\n');
+				case 'r' -> out.append('\r');
+				case 't' -> out.append('\t');
+				case 'u' -> {
+					int code = 0;
+					for (int end = pos + 4; pos < end; pos++) {
+						int digit = Character.digit(s.charAt(pos), 16);
+						if (digit < 0) {
+							throw new IllegalStateException("escape");
+						}
+						code = code * 16 + digit;
+					}
+					out.append((char) code);
+				}
+				default -> throw new IllegalStateException("escape");
+				}
+				start = pos;
+			}
+		}
+
+		private void skipWs() {
+			while (pos < s.length()) {
+				char c = s.charAt(pos);
+				if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+					return;
+				}
+				pos++;
+			}
+		}
+
+		private char peek() {
+			return s.charAt(pos);
+		}
+
+		private boolean consume(char c) {
+			if (pos < s.length() && s.charAt(pos) == c) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(char c) {
+			if (!consume(c)) {
+				throw new IllegalStateException("expected " + c);
+			}
+		}
+	}
+}
@@ -0,0 +1,5 @@
+package com.example.demo.security;
+
+/** A freshly signed access token together with the claims needed to track or revoke it */
+public record IssuedToken(String token, String jti, long expiresAtMs) {
+}
@@ -0,0 +1,81 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/*
+ * Authentication placed in the SecurityContext by JwtAuthenticationFilter. The
+ * principal is the username (so auth.getName() behaves exactly like before) and
+ * the already verified claims are kept alongside, so controllers and services
+ * can read them through currentToken() without touching the raw JWT. It
+ * implements Authentication directly rather than extending
+ * AbstractAuthenticationToken, whose constructor copies the authorities into a
+ * new list: here they are the shared list of the token's interned RoleSet.
+ */
+public class JwtAuthenticationToken implements Authentication {
+
+	private static final long serialVersionUID = 1L;
+
+	private final VerifiedToken token;
+
+	public JwtAuthenticationToken(VerifiedToken token) {
+		this.token = token;
+	}
+
+	public VerifiedToken getToken() {
+		return token;
+	}
+
+	@Override
+	public String getName() {
+		return token.getSubject();
+	}
+
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return token.getRoleSet().getAuthorities();
+	}
+
+	@Override
+	public Object getCredentials() {
+		return null;
+	}
+
+	@Override
+	public Object getDetails() {
+		return token;
+	}
+
+	@Override
+	public Object getPrincipal() {
+		return token.getSubject();
+	}
+
+	@Override
+	public boolean isAuthenticated() {
+		return true;
+	}
+
+	@Override
+	public void setAuthenticated(boolean isAuthenticated) {
+		if (isAuthenticated) {
+			return;
+		}
+		throw new IllegalArgumentException("A verified JWT authentication cannot be marked unauthenticated");
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [Principal=" + getName() + ", Authorities=" + getAuthorities() + "]";
+	}
+
+	/** Verified claims of the current request, if it was authenticated by a JWT */
+	public static Optional<VerifiedToken> currentToken() {
+		Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+		return auth instanceof JwtAuthenticationToken jwt ? Optional.of(jwt.getToken()) : Optional.empty();
+	}
+}
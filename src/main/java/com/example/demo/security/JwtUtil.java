@@ -1,59 +1,197 @@
 package com.example.demo.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
 	/*
-	 * Key Generation: private final Key key: A secret key is generated using the
-	 * Keys.secretKeyFor(SignatureAlgorithm.HS256) method. This key is used to sign
-	 * and verify JWTs using the HS256 algorithm. Token Expiration: private final
-	 * long expirationMs: Defines the token's expiration time in milliseconds (1
-	 * hour in this case). Token Generation: generateToken(String username,
-	 * List<String> roles): Creates a JWT with the following claims: sub (subject):
-	 * The username. roles: A list of roles associated with the user. iat (issued
-	 * at): The current timestamp. exp (expiration): The expiration timestamp. Signs
-	 * the token using the secret key and returns the compact JWT string. Token
-	 * Validation: validateToken(String token): Parses the token using the secret
-	 * key to ensure it is valid. Returns true if the token is valid; otherwise,
-	 * returns false if an exception occurs (e.g., expired or malformed token).
-	 * Extract Username: getUsername(String token): Extracts and returns the sub
-	 * (subject) claim, which represents the username, from the token. Extract
-	 * Roles: getRoles(String token): Extracts and returns the roles claim as a list
-	 * of strings from the token. This class is essential for generating,
-	 * validating, and extracting information from JWTs in a Spring Security-based
-	 * application.
+	 * Keys: SigningKeyRing keyRing: Tokens are signed with the ring's active key
+	 * (HS256 or ES256, configured via app.jwt.keys) and carry its kid in the
+	 * header, so any node with the same key files accepts them. Parser: the ring's
+	 * single parser resolves the verification key by kid; jjwt parsers are
+	 * immutable and thread-safe, so every request reuses it instead of going
+	 * through Jwts.parserBuilder() again. Token Expiration: accessTtl
+	 * (app.jwt.access-ttl, 15 minutes by default) is kept short because clients
+	 * renew through refresh tokens (RefreshTokenService). Token Generation:
+	 * issue(String username, List<String> roles): Creates a JWT with the following
+	 * claims: jti: A random id used for revocation. sub (subject): The username.
+	 * roles: A list of roles associated with the user. iat (issued at): The
+	 * current timestamp. exp (expiration): The expiration timestamp. Signs the
+	 * token using the active key and returns the compact JWT string with its jti
+	 * and expiry; generateToken returns just the string. With
+	 * app.jwt.format=compact the roles are written as the bitmask claim "r" (see
+	 * RoleRegistry) and iat is left out, which makes the token noticeably shorter;
+	 * a user holding an unregistered role still gets the standard "roles" array.
+	 * Verification always accepts both formats. Token Verification: verify(String
+	 * token): Parses the token once, checks signature and expiry and returns an
+	 * immutable VerifiedToken holding all claims; throws a JwtException if the
+	 * token is invalid, or a RevokedTokenException if its jti is on the
+	 * TokenRevocationList (an in-memory check, see there). When the
+	 * VerifiedTokenCache is enabled, a token that was already verified is answered
+	 * from the cache until its own exp. Codec: with app.jwt.codec=fast, tokens are
+	 * written and checked by Hs256TokenCodec, a hand-written codec for this fixed
+	 * claim set (one per HS256 key, picked by the token's header); anything it
+	 * does not recognise, and every rejection, still goes through jjwt, so the set
+	 * of accepted tokens does not change. validateToken, getUsername and getRoles
+	 * are kept for existing callers and are thin wrappers over verify().
+	 * Metrics: jwt.sign times issue(), jwt.verify times verify() tagged with its
+	 * TokenOutcome (valid, expired, tampered, malformed, revoked), cache hits
+	 * included; both publish histogram buckets from 1µs.
 	 */
-	private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-	private final long expirationMs = 1000 * 60 * 60; // 1h
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	// replaced by the configured ring when Spring wires this bean
+	@Autowired
+	private SigningKeyRing keyRing = SigningKeyRing.ephemeral();
+
+	@Value("${app.jwt.access-ttl:15m}")
+	private Duration accessTtl = Duration.ofMinutes(15);
+
+	@Autowired
+	private VerifiedTokenCache tokenCache;
+
+	@Autowired
+	private RoleRegistry roleRegistry;
+
+	@Autowired
+	private TokenRevocationList revocations;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.jwt.format:standard}")
+	private String format;
+
+	@Value("${app.jwt.codec:jjwt}")
+	private String codec;
+
+	private Map<String, Hs256TokenCodec> fastCodecs = Map.of(); // by encoded header
+	private Hs256TokenCodec fastSigner;
+	private Timer signTimer;
+	private Timer[] verifyTimers; // by TokenOutcome ordinal
+
+	@PostConstruct
+	void init() {
+		Map<String, Hs256TokenCodec> codecs = new HashMap<>();
+		fastSigner = null;
+		if ("fast".equals(codec)) {
+			for (SigningKeyRing.Entry e : keyRing.hs256Entries()) {
+				Hs256TokenCodec c = new Hs256TokenCodec(e.kid(), (SecretKey) e.verificationKey(), roleRegistry);
+				codecs.put(c.header(), c);
+				if (e == keyRing.active()) {
+					fastSigner = c;
+				}
+			}
+		}
+		fastCodecs = Map.copyOf(codecs);
+		if (meterRegistry != null) {
+			signTimer = TokenOutcome.microTimer("jwt.sign", "Access token signing").register(meterRegistry);
+		}
+		verifyTimers = TokenOutcome.timers(meterRegistry, "jwt.verify", "Access token verification", false);
+	}
 
 	public String generateToken(String username, List<String> roles) {
-		return Jwts.builder().setSubject(username).claim("roles", roles).setIssuedAt(new Date())
-				.setExpiration(new Date(System.currentTimeMillis() + expirationMs)).signWith(key).compact();
+		return issue(username, roles).token();
+	}
+
+	public IssuedToken issue(String username, List<String> roles) {
+		long start = System.nanoTime();
+		IssuedToken issued = sign(username, roles);
+		if (signTimer != null) {
+			signTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+		return issued;
+	}
+
+	private IssuedToken sign(String username, List<String> roles) {
+		long now = System.currentTimeMillis();
+		// whole seconds, as stored in the exp claim
+		long expiresAtMs = (now + accessTtl.toMillis()) / 1000 * 1000;
+		String jti = newJti();
+		int mask = "compact".equals(format) && roleRegistry != null ? roleRegistry.encode(roles) : -1;
+		if (fastSigner != null) {
+			return new IssuedToken(fastSigner.encode(jti, username, roles, mask, mask >= 0 ? -1 : now / 1000,
+					expiresAtMs / 1000), jti, expiresAtMs);
+		}
+		SigningKeyRing.Entry active = keyRing.active();
+		JwtBuilder builder = Jwts.builder().setHeaderParam(JwsHeader.KEY_ID, active.kid()).setId(jti)
+				.setSubject(username);
+		if (mask >= 0) {
+			builder.claim("r", mask);
+		} else {
+			builder.claim("roles", roles).setIssuedAt(new Date(now));
+		}
+		String token = builder.setExpiration(new Date(expiresAtMs)).signWith(active.signingKey(), active.alg())
+				.compact();
+		return new IssuedToken(token, jti, expiresAtMs);
+	}
+
+	/** 128 random bits, Base64URL */
+	private static String newJti() {
+		byte[] id = new byte[16];
+		RANDOM.nextBytes(id);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+	}
+
+	/** Parses and verifies the token exactly once; throws JwtException if invalid */
+	public VerifiedToken verify(String token) {
+		long start = System.nanoTime();
+		TokenOutcome outcome = TokenOutcome.VALID;
+		try {
+			VerifiedToken verified = tokenCache == null ? parse(token) : tokenCache.get(token, this::parse);
+			if (revocations != null && revocations.isRevoked(verified.getJti())) {
+				throw new RevokedTokenException();
+			}
+			return verified;
+		} catch (JwtException | IllegalArgumentException ex) {
+			outcome = TokenOutcome.of(ex);
+			throw ex;
+		} finally {
+			if (verifyTimers != null) {
+				verifyTimers[outcome.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	private VerifiedToken parse(String token) {
+		if (!fastCodecs.isEmpty()) {
+			int dot = token.indexOf('.');
+			Hs256TokenCodec c = dot < 0 ? null : fastCodecs.get(token.substring(0, dot));
+			VerifiedToken fast = c == null ? null : c.tryDecode(token, System.currentTimeMillis());
+			if (fast != null) {
+				return fast;
+			}
+		}
+		return VerifiedToken.fromClaims(keyRing.parser().parseClaimsJws(token).getBody(), roleRegistry);
 	}
 
 	public boolean validateToken(String token) {
 		try {
-			Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+			verify(token);
 			return true;
-		} catch (JwtException ex) {
+		} catch (JwtException | IllegalArgumentException ex) {
 			return false;
 		}
 	}
 
 	public String getUsername(String token) {
-		return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+		return verify(token).getSubject();
 	}
 
-	@SuppressWarnings("unchecked")
 	public List<String> getRoles(String token) {
-		return (List<String>) Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody()
-				.get("roles");
+		return verify(token).getRoles();
 	}
 }
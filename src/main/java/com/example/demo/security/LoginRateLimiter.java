@@ -0,0 +1,189 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.LoginRateLimitedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@Component
+public class LoginRateLimiter {
+
+	/*
+	 * Token buckets in front of /auth/login, one per client IP and one per
+	 * username, checked before the request reaches the BCrypt pool or Mongo. A
+	 * bucket holds up to capacity attempts and regains one every refill period;
+	 * an empty bucket rejects with the time until the next attempt is allowed.
+	 * Each bucket is a single AtomicLong updated by compare-and-set (GCRA form,
+	 * see Bucket), so concurrent logins never lock. Buckets live in two Caffeine
+	 * caches bounded by app.security.login-rate.max-keys and dropped after
+	 * app.security.login-rate.idle-timeout without use; a dropped bucket was full
+	 * again anyway once idle for capacity x refill. Usernames are lowercased so
+	 * case variants share a bucket. A capacity of 0 turns that limit off.
+	 * Metrics: auth.login.rate.rejected (tag scope=ip|username) and the cache
+	 * metrics of "login.rate.ip" / "login.rate.username" (size, evictions).
+	 * Behind a proxy, set server.forward-headers-strategy so the client IP is
+	 * the real one.
+	 */
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.security.login-rate.ip.capacity:30}")
+	private int ipCapacity;
+
+	@Value("${app.security.login-rate.ip.refill:2s}")
+	private Duration ipRefill;
+
+	@Value("${app.security.login-rate.username.capacity:5}")
+	private int usernameCapacity;
+
+	@Value("${app.security.login-rate.username.refill:12s}")
+	private Duration usernameRefill;
+
+	@Value("${app.security.login-rate.max-keys:100000}")
+	private long maxKeys;
+
+	@Value("${app.security.login-rate.idle-timeout:10m}")
+	private Duration idleTimeout;
+
+	private LongSupplier nanoClock = System::nanoTime;
+	private Cache<String, Bucket> byIp;
+	private Cache<String, Bucket> byUsername;
+	private Counter ipRejected;
+	private Counter usernameRejected;
+
+	public LoginRateLimiter() {
+	}
+
+	LoginRateLimiter(int ipCapacity, Duration ipRefill, int usernameCapacity, Duration usernameRefill,
+			LongSupplier nanoClock) {
+		this.ipCapacity = ipCapacity;
+		this.ipRefill = ipRefill;
+		this.usernameCapacity = usernameCapacity;
+		this.usernameRefill = usernameRefill;
+		this.maxKeys = 10_000;
+		this.idleTimeout = Duration.ofMinutes(10);
+		this.nanoClock = nanoClock;
+		init();
+	}
+
+	@PostConstruct
+	void init() {
+		byIp = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterAccess(idleTimeout).recordStats().build();
+		byUsername = Caffeine.newBuilder().maximumSize(maxKeys).expireAfterAccess(idleTimeout).recordStats().build();
+		if (meterRegistry != null) {
+			CaffeineCacheMetrics.monitor(meterRegistry, byIp, "login.rate.ip");
+			CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "login.rate.username");
+			ipRejected = Counter.builder("auth.login.rate.rejected").tag("scope", "ip").register(meterRegistry);
+			usernameRejected = Counter.builder("auth.login.rate.rejected").tag("scope", "username")
+					.register(meterRegistry);
+		}
+	}
+
+	/*
+	 * Takes one attempt from the IP and the username bucket; throws if either
+	 * is empty. Both are checked before either is charged, so an attempt that
+	 * one limit refuses costs nothing from the other: a locked-out username
+	 * does not drain the budget of a shared (NAT) IP. If the username bucket
+	 * empties between the check and the charge (a concurrent attempt), the IP
+	 * attempt is given back.
+	 */
+	public void check(String username, String clientIp) {
+		long now = nanoClock.getAsLong();
+		Bucket ip = ipCapacity <= 0 ? null
+				: byIp.get(clientIp == null ? "" : clientIp, k -> new Bucket(ipCapacity, ipRefill, now));
+		Bucket user = usernameCapacity <= 0 ? null
+				: byUsername.get(username == null ? "" : username.toLowerCase(Locale.ROOT),
+						k -> new Bucket(usernameCapacity, usernameRefill, now));
+		long ipWait = ip == null ? 0 : ip.waitNanos(now);
+		if (ipWait > 0) {
+			reject(ipRejected, ipWait);
+		}
+		long userWait = user == null ? 0 : user.waitNanos(now);
+		if (userWait > 0) {
+			reject(usernameRejected, userWait);
+		}
+		ipWait = ip == null ? 0 : ip.tryAcquire(now);
+		if (ipWait > 0) {
+			reject(ipRejected, ipWait);
+		}
+		userWait = user == null ? 0 : user.tryAcquire(now);
+		if (userWait > 0) {
+			if (ip != null) {
+				ip.release();
+			}
+			reject(usernameRejected, userWait);
+		}
+	}
+
+	private static void reject(Counter counter, long waitNanos) {
+		if (counter != null) {
+			counter.increment();
+		}
+		throw new LoginRateLimitedException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1));
+	}
+
+	/*
+	 * Token bucket as GCRA: instead of a token count plus a refill timestamp the
+	 * bucket stores one value, the theoretical arrival time (tat) at which it
+	 * would be full again. An attempt adds one refill interval to max(tat, now)
+	 * and is allowed if the result is at most capacity intervals ahead of now.
+	 * Same behaviour as a token bucket, but one CAS per attempt.
+	 */
+	static final class Bucket {
+		private final long intervalNanos;
+		private final long burstNanos;
+		private final AtomicLong tat;
+
+		Bucket(int capacity, Duration refill, long now) {
+			this.intervalNanos = refill.toNanos();
+			this.burstNanos = intervalNanos * capacity;
+			this.tat = new AtomicLong(now);
+		}
+
+		/** 0 if an attempt would be allowed now, otherwise nanoseconds until it would be; takes nothing */
+		long waitNanos(long now) {
+			return Math.max(0, Math.max(tat.get(), now) + intervalNanos - now - burstNanos);
+		}
+
+		/** 0 if the attempt is allowed, otherwise nanoseconds until it would be */
+		long tryAcquire(long now) {
+			return tryAcquire(now, 1);
+		}
+
+		/** tryAcquire for several units at once: all of them are taken, or none */
+		long tryAcquire(long now, int units) {
+			while (true) {
+				long current = tat.get();
+				long next = Math.max(current, now) + intervalNanos * units;
+				long ahead = next - now;
+				if (ahead > burstNanos) {
+					return ahead - burstNanos;
+				}
+				if (tat.compareAndSet(current, next)) {
+					return 0;
+				}
+			}
+		}
+
+		/*
+		 * Gives back an attempt taken by tryAcquire. Moving tat back by one
+		 * interval leaves the bucket at most as full as before that attempt
+		 * (tryAcquire may have started from now rather than from an older tat).
+		 */
+		void release() {
+			tat.addAndGet(-intervalNanos);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.demo.security;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
+
+/*
+ * Builds the application's password encoder and calibrates its cost to the
+ * hardware. New hashes are written as {bcrypt}... or {argon2}...; both are
+ * always accepted, and so are the unprefixed BCrypt hashes stored before ids
+ * were used. upgradeEncoding() is true for any hash not made with the current
+ * algorithm and cost, which drives the rehash on login.
+ *
+ * Calibration times a check at a cheap setting and extrapolates: one BCrypt
+ * cost step doubles the work, Argon2 time grows linearly with iterations. The
+ * result is the most expensive setting whose check stays within the target
+ * latency, but never below the floor (BCrypt 10; Argon2 2 iterations over
+ * 19 MiB, the OWASP minimum).
+ */
+public final class PasswordEncoders {
+
+	static final int MIN_BCRYPT_STRENGTH = 10;
+	static final int MAX_BCRYPT_STRENGTH = 16;
+	static final int MIN_ARGON2_ITERATIONS = 2;
+	static final int MAX_ARGON2_ITERATIONS = 10;
+	private static final int ARGON2_MEMORY_KIB = 19 * 1024;
+	private static final int BCRYPT_PROBE_STRENGTH = 8;
+	private static final Pattern ENCODED = Pattern
+			.compile("\\{(bcrypt|argon2)}.+|\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}");
+
+	private PasswordEncoders() {
+	}
+
+	public static DelegatingPasswordEncoder delegating(String idForEncode, int bcryptStrength, int argon2Iterations) {
+		Map<String, PasswordEncoder> encoders = Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength), "argon2",
+				argon2(argon2Iterations));
+		if (!encoders.containsKey(idForEncode)) {
+			throw new IllegalArgumentException("Unsupported password algorithm " + idForEncode + " (bcrypt, argon2)");
+		}
+		DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(idForEncode, encoders);
+		delegating.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+		return delegating;
+	}
+
+	/**
+	 * True if the value is a hash this encoder wrote ({bcrypt}, {argon2} or a
+	 * legacy unprefixed BCrypt hash) rather than a plaintext password
+	 */
+	public static boolean isEncoded(String value) {
+		return value != null && ENCODED.matcher(value).matches();
+	}
+
+	/** Highest BCrypt cost whose check takes at most target on this machine */
+	public static int calibrateBcryptStrength(Duration target) {
+		long probe = fastestCheck(BCryptPasswordEncoder::new, BCRYPT_PROBE_STRENGTH);
+		int strength = BCRYPT_PROBE_STRENGTH;
+		while (strength < MAX_BCRYPT_STRENGTH && probe << (strength + 1 - BCRYPT_PROBE_STRENGTH) <= target.toNanos()) {
+			strength++;
+		}
+		return Math.max(MIN_BCRYPT_STRENGTH, strength);
+	}
+
+	/** Highest Argon2 iteration count whose check takes at most target on this machine */
+	public static int calibrateArgon2Iterations(Duration target) {
+		long probe = fastestCheck(PasswordEncoders::argon2, 1);
+		long iterations = target.toNanos() / Math.max(1, probe);
+		return (int) Math.min(MAX_ARGON2_ITERATIONS, Math.max(MIN_ARGON2_ITERATIONS, iterations));
+	}
+
+	private static Argon2PasswordEncoder argon2(int iterations) {
+		return new Argon2PasswordEncoder(16, 32, 1, ARGON2_MEMORY_KIB, iterations);
+	}
+
+	/* best of a few runs after warm-up, so JIT and GC noise do not inflate the cost */
+	private static long fastestCheck(IntFunction<PasswordEncoder> factory, int setting) {
+		PasswordEncoder encoder = factory.apply(setting);
+		String hash = encoder.encode("calibration-password");
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			long start = System.nanoTime();
+			encoder.matches("calibration-password", hash);
+			long elapsed = System.nanoTime() - start;
+			if (i >= 2) {
+				best = Math.min(best, elapsed);
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.demo.security;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.exception.HashingCapacityExceededException;
+import com.example.demo.repository.ReactiveEmployeeRepository;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.PasswordHashingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+@Component
+@Profile("reactive")
+public class ReactiveEmployeeAuthenticationManager implements ReactiveAuthenticationManager {
+
+	private static final Logger log = LoggerFactory.getLogger(ReactiveEmployeeAuthenticationManager.class);
+
+	/*
+	 * Login for the reactive profile. The employee is read through
+	 * ReactiveEmployeeRepository and the password check is submitted to the same
+	 * bounded PasswordHashingService pool as in servlet mode, so BCrypt never
+	 * runs on an event-loop thread and a full queue still answers 503. As in
+	 * DaoAuthenticationProvider, an unknown username costs one hash check too,
+	 * so response times do not reveal which usernames exist, and every failure
+	 * is the same BadCredentialsException. Outdated hashes are upgraded after a
+	 * successful login the way RehashingAuthenticationProvider does it.
+	 */
+	@Autowired
+	private ReactiveEmployeeRepository employees;
+
+	@Autowired
+	private PasswordHashingService passwordHashing;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Value("${app.security.password.rehash-on-login:true}")
+	private boolean rehashOnLogin;
+
+	private volatile String userNotFoundHash;
+
+	@Override
+	public Mono<Authentication> authenticate(Authentication login) {
+		String raw = login.getCredentials() == null ? "" : login.getCredentials().toString();
+		return employees.findByUsername(login.getName()).map(Optional::of).defaultIfEmpty(Optional.empty())
+				.flatMap(found -> Mono.fromFuture(() -> passwordHashing.submit(() -> matches(raw, found)))
+						.flatMap(ok -> ok ? Mono.just(authenticated(found.get(), raw))
+								: Mono.error(new BadCredentialsException("Bad credentials"))));
+	}
+
+	/* runs on the hashing pool */
+	private boolean matches(String raw, Optional<Employee> found) {
+		if (found.isEmpty()) {
+			passwordEncoder.matches(raw, userNotFoundHash());
+			return false;
+		}
+		return passwordEncoder.matches(raw, found.get().getPassword());
+	}
+
+	private String userNotFoundHash() {
+		if (userNotFoundHash == null) {
+			userNotFoundHash = passwordEncoder.encode("userNotFoundPassword");
+		}
+		return userNotFoundHash;
+	}
+
+	private Authentication authenticated(Employee employee, String raw) {
+		if (rehashOnLogin && passwordEncoder.upgradeEncoding(employee.getPassword())) {
+			rehash(employee.getUsername(), employee.getPassword(), raw);
+		}
+		List<String> roles = employee.getUserRoles() == null ? List.of()
+				: employee.getUserRoles().stream().map(r -> r.toUpperCase(Locale.ROOT)).toList();
+		return UsernamePasswordAuthenticationToken.authenticated(employee.getUsername(), null,
+				RoleSet.of(roles).getAuthorities());
+	}
+
+	private void rehash(String username, String oldHash, String raw) {
+		Mono.fromFuture(() -> passwordHashing.encodeAsync(raw))
+				.flatMap(newHash -> employees.updatePasswordIfUnchanged(username, oldHash, newHash))
+				.subscribe(updated -> {
+					if (updated) {
+						userDetailsService.evict(username);
+					}
+				}, ex -> {
+					// a saturated pool just leaves the old hash; the next login tries again
+					if (!(ex instanceof HashingCapacityExceededException)) {
+						log.warn("Password rehash for {} failed: {}", username, ex.toString());
+					}
+				});
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.HashingCapacityExceededException;
+import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.PasswordHashingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/*
+ * DaoAuthenticationProvider that upgrades outdated password hashes after a
+ * successful login: an unprefixed legacy hash, a BCrypt cost below the current
+ * one, or a hash from the other algorithm. Unlike Spring's built-in
+ * UserDetailsPasswordService hook, the new hash is computed on the
+ * password-hashing pool after the login has been answered, so the user does
+ * not wait for a second hash. The update is conditional on the old hash (see
+ * EmployeeRepositoryCustom.updatePasswordIfUnchanged) and evicts the cached
+ * user. If the pool is full the upgrade is skipped; the next login retries.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+	private static final Logger log = LoggerFactory.getLogger(RehashingAuthenticationProvider.class);
+
+	private final PasswordHashingService passwordHashing;
+	private final EmployeeRepository employeeRepository;
+	private final CustomUserDetailsService userDetailsService;
+	private final boolean enabled;
+
+	public RehashingAuthenticationProvider(PasswordHashingService passwordHashing,
+			EmployeeRepository employeeRepository, CustomUserDetailsService userDetailsService, boolean enabled) {
+		this.passwordHashing = passwordHashing;
+		this.employeeRepository = employeeRepository;
+		this.userDetailsService = userDetailsService;
+		this.enabled = enabled;
+		setUserDetailsService(userDetailsService);
+	}
+
+	@Override
+	protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+			UserDetails user) {
+		if (enabled && authentication.getCredentials() != null
+				&& getPasswordEncoder().upgradeEncoding(user.getPassword())) {
+			rehash(user.getUsername(), user.getPassword(), authentication.getCredentials().toString());
+		}
+		return super.createSuccessAuthentication(principal, authentication, user);
+	}
+
+	private void rehash(String username, String oldHash, String rawPassword) {
+		try {
+			passwordHashing.encodeAsync(rawPassword).thenAccept(newHash -> {
+				if (employeeRepository.updatePasswordIfUnchanged(username, oldHash, newHash)) {
+					userDetailsService.evict(username);
+				}
+			}).exceptionally(ex -> {
+				log.warn("Password rehash for {} failed: {}", username, ex.toString());
+				return null;
+			});
+		} catch (HashingCapacityExceededException ex) {
+			// hashing pool is saturated; leave the old hash, the next login tries again
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.JwtException;
+
+/** Thrown by JwtUtil.verify() for a correctly signed token whose jti was revoked */
+public class RevokedTokenException extends JwtException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RevokedTokenException() {
+		super("Token has been revoked");
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Role registry for the compact token format: role i of app.jwt.role-registry
+ * is bit i of the "r" claim, so ["ADMIN","USER"] travels as r=3 instead of a
+ * JSON string array. The order is part of the token format - only ever append
+ * roles, never reorder or remove them, or tokens already issued change meaning.
+ * Decoded masks map straight to the interned RoleSet.
+ */
+@Component
+public class RoleRegistry {
+
+	private final List<String> roles;
+	private final Map<Integer, RoleSet> byMask = new ConcurrentHashMap<>();
+
+	public RoleRegistry(@Value("${app.jwt.role-registry:ADMIN,USER}") List<String> roles) {
+		if (roles.size() > 31) {
+			throw new IllegalArgumentException("app.jwt.role-registry supports at most 31 roles");
+		}
+		this.roles = List.copyOf(roles);
+	}
+
+	/** Bitmask for the roles, or -1 if any of them is not registered */
+	public int encode(List<String> roleNames) {
+		int mask = 0;
+		for (String role : roleNames) {
+			int bit = roles.indexOf(role);
+			if (bit < 0) {
+				return -1;
+			}
+			mask |= 1 << bit;
+		}
+		return mask;
+	}
+
+	/** Interned RoleSet for a mask; throws IllegalArgumentException for unknown bits */
+	public RoleSet decode(int mask) {
+		RoleSet set = byMask.get(mask);
+		if (set != null) {
+			return set;
+		}
+		if (mask < 0 || (mask >>> roles.size()) != 0) {
+			throw new IllegalArgumentException("unknown role bits in mask " + mask);
+		}
+		List<String> names = new ArrayList<>();
+		for (int bit = 0; bit < roles.size(); bit++) {
+			if ((mask & (1 << bit)) != 0) {
+				names.add(roles.get(bit));
+			}
+		}
+		set = RoleSet.of(names);
+		byMask.putIfAbsent(mask, set);
+		return set;
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Interned, immutable combination of roles with its pre-built authorities.
+ * Tokens only ever carry a handful of distinct role lists, so each combination
+ * is built once (ROLE_ prefixed SimpleGrantedAuthority list plus an admin flag)
+ * and shared by every request that presents it. The filter therefore allocates
+ * no authority objects per request, and isAdmin() is a field read instead of a
+ * stream over string comparisons. The intern table is capped; an unusual
+ * combination beyond the cap still works, it just is not shared.
+ */
+public final class RoleSet implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int MAX_INTERNED = 1024;
+	private static final Map<List<String>, RoleSet> INTERNED = new ConcurrentHashMap<>();
+
+	public static final RoleSet EMPTY = of(List.of());
+
+	private final List<String> roles;
+	private final List<GrantedAuthority> authorities;
+	private final boolean admin;
+
+	private RoleSet(List<String> roles) {
+		this.roles = List.copyOf(roles);
+		this.authorities = this.roles.stream().<GrantedAuthority>map(r -> new SimpleGrantedAuthority("ROLE_" + r))
+				.toList();
+		this.admin = this.roles.contains("ADMIN");
+	}
+
+	/** Returns the shared instance for this role list (order-sensitive) */
+	public static RoleSet of(List<String> roles) {
+		RoleSet set = INTERNED.get(roles);
+		if (set != null) {
+			return set;
+		}
+		set = new RoleSet(roles);
+		if (INTERNED.size() >= MAX_INTERNED) {
+			return set;
+		}
+		RoleSet raced = INTERNED.putIfAbsent(set.roles, set);
+		return raced == null ? set : raced;
+	}
+
+	public List<String> getRoles() {
+		return roles;
+	}
+
+	public List<GrantedAuthority> getAuthorities() {
+		return authorities;
+	}
+
+	public boolean isAdmin() {
+		return admin;
+	}
+
+	public boolean has(String role) {
+		return roles.contains(role);
+	}
+
+	/**
+	 * ADMIN check for the current Authentication: a field read for JWT requests,
+	 * the usual authority scan for anything else.
+	 */
+	public static boolean isAdmin(Authentication auth) {
+		if (auth instanceof JwtAuthenticationToken jwt) {
+			return jwt.getToken().getRoleSet().isAdmin();
+		}
+		return auth != null && auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+	}
+
+	private Object readResolve() {
+		return of(roles);
+	}
+}
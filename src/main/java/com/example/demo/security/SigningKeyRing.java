@@ -0,0 +1,205 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.*;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * In-memory keyring of JWT signing keys, loaded once at startup so every node
+ * configured with the same files signs and accepts the same tokens. Each entry
+ * of app.jwt.keys is kid:ALG:path. HS256 files hold a Base64 secret of at least
+ * 256 bits. ES256 files hold PEM blocks: a PUBLIC KEY, plus a PKCS#8 PRIVATE
+ * KEY if this node signs with it. A public-only entry can still verify tokens,
+ * e.g. a retired key. app.jwt.active-kid picks the key new tokens are signed
+ * with (default: the first entry). Every token carries its kid, and the parser
+ * resolves the key by kid and rejects a token whose alg differs from that key's.
+ * Rotation: add the new key to every node, then switch active-kid, then remove
+ * the old key once the last token it signed has expired. ES256 public keys are
+ * published as a JWK set for /.well-known/jwks.json; HS256 secrets never are.
+ * With no keys configured a random HS256 key is generated, which, as before,
+ * only works for a single node and does not survive a restart.
+ */
+@Component
+public class SigningKeyRing extends SigningKeyResolverAdapter {
+
+	private static final Logger log = LoggerFactory.getLogger(SigningKeyRing.class);
+	private static final Pattern KID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+	private static final Pattern PEM = Pattern.compile("-----BEGIN ([A-Z ]+)-----([^-]+)-----END \\1-----");
+
+	record Entry(String kid, SignatureAlgorithm alg, Key signingKey, Key verificationKey) {
+	}
+
+	private final Map<String, Entry> entries;
+	private final Entry active;
+	private final JwtParser parser;
+	private final Map<String, Object> jwks;
+
+	@Autowired
+	public SigningKeyRing(@Value("${app.jwt.keys:}") List<String> keys,
+			@Value("${app.jwt.active-kid:}") String activeKid) {
+		this(activeKid, load(keys));
+	}
+
+	SigningKeyRing(String activeKid, List<Entry> list) {
+		if (list.isEmpty()) {
+			log.warn("app.jwt.keys is empty - using a random HS256 key; tokens will not be accepted by other nodes "
+					+ "or after a restart");
+			list = List.of(randomHs256());
+		}
+		Map<String, Entry> byKid = new LinkedHashMap<>();
+		for (Entry e : list) {
+			if (byKid.putIfAbsent(e.kid(), e) != null) {
+				throw new IllegalStateException("Duplicate JWT key id " + e.kid());
+			}
+		}
+		this.entries = Map.copyOf(byKid);
+		this.active = activeKid == null || activeKid.isBlank() ? list.get(0) : byKid.get(activeKid);
+		if (active == null || active.signingKey() == null) {
+			throw new IllegalStateException("app.jwt.active-kid " + activeKid + " is not a configured signing key");
+		}
+		this.parser = Jwts.parserBuilder().setSigningKeyResolver(this).build();
+
+		List<Map<String, Object>> published = new ArrayList<>();
+		for (Entry e : byKid.values()) {
+			if (e.verificationKey() instanceof ECPublicKey ec) {
+				Map<String, Object> jwk = new LinkedHashMap<>();
+				jwk.put("kty", "EC");
+				jwk.put("crv", "P-256");
+				jwk.put("kid", e.kid());
+				jwk.put("use", "sig");
+				jwk.put("alg", e.alg().getValue());
+				jwk.put("x", coordinate(ec.getW().getAffineX()));
+				jwk.put("y", coordinate(ec.getW().getAffineY()));
+				published.add(Collections.unmodifiableMap(jwk));
+			}
+		}
+		this.jwks = Map.of("keys", List.copyOf(published));
+	}
+
+	static SigningKeyRing ephemeral() {
+		return new SigningKeyRing(null, List.of(randomHs256()));
+	}
+
+	/** Shared, thread-safe parser that resolves keys from this ring */
+	JwtParser parser() {
+		return parser;
+	}
+
+	Entry active() {
+		return active;
+	}
+
+	/** HS256 entries; each gets its own fast codec in JwtUtil */
+	List<Entry> hs256Entries() {
+		return entries.values().stream().filter(e -> e.alg() == SignatureAlgorithm.HS256).toList();
+	}
+
+	/** The public JWK set served at /.well-known/jwks.json */
+	public Map<String, Object> jwks() {
+		return jwks;
+	}
+
+	@Override
+	public Key resolveSigningKey(JwsHeader header, Claims claims) {
+		return resolve(header);
+	}
+
+	@Override
+	public Key resolveSigningKey(JwsHeader header, String plaintext) {
+		return resolve(header);
+	}
+
+	private Key resolve(JwsHeader<?> header) {
+		Entry e = header.getKeyId() == null ? null : entries.get(header.getKeyId());
+		if (e == null) {
+			throw new UnsupportedJwtException("Unknown JWT key id");
+		}
+		if (!e.alg().getValue().equals(header.getAlgorithm())) {
+			throw new UnsupportedJwtException("JWT alg does not match the algorithm of key " + e.kid());
+		}
+		return e.verificationKey();
+	}
+
+	private static Entry randomHs256() {
+		byte[] id = new byte[6];
+		new SecureRandom().nextBytes(id);
+		SecretKey key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+		return new Entry("ephemeral-" + HexFormat.of().formatHex(id), SignatureAlgorithm.HS256, key, key);
+	}
+
+	private static List<Entry> load(List<String> specs) {
+		List<Entry> out = new ArrayList<>();
+		for (String spec : specs) {
+			if (spec.isBlank()) {
+				continue;
+			}
+			String[] parts = spec.trim().split(":", 3);
+			if (parts.length != 3 || !KID.matcher(parts[0]).matches()) {
+				throw new IllegalStateException("app.jwt.keys entry must be kid:ALG:path, got " + spec);
+			}
+			try {
+				String content = Files.readString(Path.of(parts[2]), StandardCharsets.US_ASCII);
+				out.add(switch (parts[1]) {
+				case "HS256" -> {
+					SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(content.trim()));
+					yield new Entry(parts[0], SignatureAlgorithm.HS256, key, key);
+				}
+				case "ES256" -> es256(parts[0], content);
+				default -> throw new IllegalStateException(
+						"Unsupported JWT key algorithm " + parts[1] + " for " + parts[0] + " (use HS256 or ES256)");
+				});
+			} catch (IOException | GeneralSecurityException | RuntimeException e) {
+				throw new IllegalStateException("Cannot load JWT key " + parts[0] + " from " + parts[2], e);
+			}
+		}
+		return out;
+	}
+
+	private static Entry es256(String kid, String pem) throws GeneralSecurityException {
+		KeyFactory factory = KeyFactory.getInstance("EC");
+		PrivateKey privateKey = null;
+		PublicKey publicKey = null;
+		Matcher m = PEM.matcher(pem);
+		while (m.find()) {
+			byte[] der = Base64.getMimeDecoder().decode(m.group(2));
+			switch (m.group(1)) {
+			case "PRIVATE KEY" -> privateKey = factory.generatePrivate(new PKCS8EncodedKeySpec(der));
+			case "PUBLIC KEY" -> publicKey = factory.generatePublic(new X509EncodedKeySpec(der));
+			default -> throw new InvalidKeyException(
+					m.group(1) + " is not supported; convert with openssl pkcs8 -topk8 -nocrypt");
+			}
+		}
+		if (!(publicKey instanceof ECPublicKey ec) || ec.getParams().getCurve().getField().getFieldSize() != 256) {
+			throw new InvalidKeyException("ES256 key file needs a P-256 PUBLIC KEY block");
+		}
+		return new Entry(kid, SignatureAlgorithm.ES256, privateKey, publicKey);
+	}
+
+	/** Unsigned big-endian, left-padded to 32 bytes, Base64URL (RFC 7518 6.2.1) */
+	private static String coordinate(BigInteger value) {
+		byte[] raw = value.toByteArray();
+		byte[] fixed = new byte[32];
+		int len = Math.min(raw.length, 32);
+		System.arraycopy(raw, raw.length - len, fixed, 32 - len, len);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * PasswordEncoder decorator timing every hash: password.encode tagged with
+ * the algorithm of the new hash, password.matches tagged with the algorithm of
+ * the stored one (bcrypt, argon2, legacy for unprefixed BCrypt, unknown) and
+ * result=match|mismatch, so bad-credential logins show up as mismatches and a
+ * rehash migration as legacy checks fading out. A meter lookup per call is
+ * noise next to a hash that takes milliseconds. upgradeEncoding is passed
+ * through untimed.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+	private final PasswordEncoder delegate;
+	private final MeterRegistry registry;
+
+	public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry registry) {
+		this.delegate = delegate;
+		this.registry = registry;
+	}
+
+	@Override
+	public String encode(CharSequence rawPassword) {
+		long start = System.nanoTime();
+		String encoded = delegate.encode(rawPassword);
+		Timer.builder("password.encode").description("Password hashing").tag("algorithm", algorithm(encoded))
+				.register(registry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return encoded;
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		long start = System.nanoTime();
+		boolean matches = delegate.matches(rawPassword, encodedPassword);
+		Timer.builder("password.matches").description("Password checks").tag("algorithm", algorithm(encodedPassword))
+				.tag("result", matches ? "match" : "mismatch").register(registry)
+				.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return matches;
+	}
+
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	static String algorithm(String encoded) {
+		if (encoded == null) {
+			return "unknown";
+		}
+		if (encoded.startsWith("{bcrypt}")) {
+			return "bcrypt";
+		}
+		if (encoded.startsWith("{argon2}")) {
+			return "argon2";
+		}
+		return encoded.startsWith("$2") ? "legacy" : "unknown";
+	}
+}
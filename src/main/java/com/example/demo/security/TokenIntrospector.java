@@ -0,0 +1,216 @@
+package com.example.demo.security;
+
+import com.example.demo.dto.IntrospectResponse;
+import com.example.demo.exception.IntrospectionCapacityExceededException;
+import com.example.demo.exception.RateLimitedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class TokenIntrospector {
+
+	/*
+	 * Batch check of access tokens for gateways and other services (POST
+	 * /auth/introspect). Every token goes through JwtUtil.verify(), so the
+	 * answer is exactly what a request carrying it would get: same keys, same
+	 * revocation list, same verified-token cache, and jwt.verify records each
+	 * one. Only callers holding app.jwt.introspect.role may ask (see
+	 * SecurityConfig), and each caller has a token bucket of
+	 * app.jwt.introspect.rate.capacity tokens (at least max-tokens) refilled at
+	 * app.jwt.introspect.rate.tokens-per-second: a batch takes as many units as
+	 * it has tokens, and a caller out of budget gets 429 before anything is
+	 * verified. Failed verifications are never cached, so this is what keeps a
+	 * caller sending tampered tokens from buying unlimited signature checks.
+	 * verify() is pure CPU, so batches of app.jwt.introspect.parallel-threshold
+	 * tokens or more are cut into slices of that size and checked on a
+	 * dedicated pool of app.jwt.introspect.threads threads (0 = half the cores)
+	 * with a bounded queue (app.jwt.introspect.queue-capacity slices); request
+	 * threads and the common ForkJoinPool are never used for it. A full queue
+	 * answers 503. Smaller batches are checked on the calling thread, where the
+	 * hand-off would cost more than it saves; introspectAsync always uses the
+	 * pool, for callers that must not block. Results keep the request order. A
+	 * batch is limited to app.jwt.introspect.max-tokens; a larger one is
+	 * refused with an IllegalArgumentException. The answer only repeats claims
+	 * the token holder can already read, plus whether the token is still
+	 * accepted. Metrics: auth.introspect.rejected (tag reason=rate|capacity).
+	 */
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.jwt.introspect.max-tokens:1000}")
+	private int maxTokens;
+
+	@Value("${app.jwt.introspect.parallel-threshold:64}")
+	private int parallelThreshold;
+
+	@Value("${app.jwt.introspect.threads:0}")
+	private int threads;
+
+	@Value("${app.jwt.introspect.queue-capacity:64}")
+	private int queueCapacity;
+
+	@Value("${app.jwt.introspect.rate.capacity:5000}")
+	private int rateCapacity;
+
+	@Value("${app.jwt.introspect.rate.tokens-per-second:1000}")
+	private int tokensPerSecond;
+
+	private ThreadPoolExecutor executor;
+	private Cache<String, LoginRateLimiter.Bucket> budgets;
+	private Counter rateRejected;
+	private Counter capacityRejected;
+
+	public TokenIntrospector() {
+	}
+
+	TokenIntrospector(JwtUtil jwtUtil, int maxTokens, int parallelThreshold, int threads, int queueCapacity,
+			int tokensPerSecond) {
+		this.jwtUtil = jwtUtil;
+		this.maxTokens = maxTokens;
+		this.parallelThreshold = parallelThreshold;
+		this.threads = threads;
+		this.queueCapacity = queueCapacity;
+		this.rateCapacity = maxTokens;
+		this.tokensPerSecond = tokensPerSecond;
+		init();
+	}
+
+	@PostConstruct
+	void init() {
+		int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		AtomicInteger seq = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), r -> {
+					Thread t = new Thread(r, "token-introspect-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		budgets = Caffeine.newBuilder().maximumSize(10_000).expireAfterAccess(Duration.ofMinutes(10)).build();
+		if (meterRegistry != null) {
+			rateRejected = Counter.builder("auth.introspect.rejected").tag("reason", "rate").register(meterRegistry);
+			capacityRejected = Counter.builder("auth.introspect.rejected").tag("reason", "capacity")
+					.register(meterRegistry);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	/** Checks the batch for caller, on the calling thread unless it is large enough for the pool */
+	public IntrospectResponse introspect(String caller, List<String> tokens) {
+		admit(caller, tokens);
+		if (tokens.size() < parallelThreshold) {
+			long now = System.currentTimeMillis();
+			return new IntrospectResponse(tokens.stream().map(token -> check(token, now)).toList());
+		}
+		try {
+			return onPool(tokens).join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw ex;
+		}
+	}
+
+	/** Checks the batch for caller entirely on the introspection pool */
+	public CompletableFuture<IntrospectResponse> introspectAsync(String caller, List<String> tokens) {
+		admit(caller, tokens);
+		return onPool(tokens);
+	}
+
+	private void admit(String caller, List<String> tokens) {
+		if (tokens == null || tokens.isEmpty()) {
+			throw new IllegalArgumentException("tokens must not be empty");
+		}
+		if (tokens.size() > maxTokens) {
+			throw new IllegalArgumentException("At most " + maxTokens + " tokens per request");
+		}
+		if (tokensPerSecond <= 0) {
+			return;
+		}
+		long now = System.nanoTime();
+		LoginRateLimiter.Bucket budget = budgets.get(caller == null ? "" : caller,
+				k -> new LoginRateLimiter.Bucket(Math.max(rateCapacity, maxTokens),
+						Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / tokensPerSecond), now));
+		long waitNanos = budget.tryAcquire(now, tokens.size());
+		if (waitNanos > 0) {
+			if (rateRejected != null) {
+				rateRejected.increment();
+			}
+			throw new RateLimitedException("Too many tokens introspected",
+					Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1));
+		}
+	}
+
+	/* one pool task per slice of parallelThreshold tokens; a batch the queue cannot take answers 503 */
+	private CompletableFuture<IntrospectResponse> onPool(List<String> tokens) {
+		long now = System.currentTimeMillis();
+		int sliceSize = Math.max(1, parallelThreshold);
+		IntrospectResponse.Result[] results = new IntrospectResponse.Result[tokens.size()];
+		List<CompletableFuture<Void>> slices = new ArrayList<>();
+		try {
+			// refuse up front rather than leave part of the batch queued; the catch covers the race
+			if (executor.getQueue().remainingCapacity() < (tokens.size() + sliceSize - 1) / sliceSize
+					- (executor.getMaximumPoolSize() - executor.getActiveCount())) {
+				throw new RejectedExecutionException();
+			}
+			for (int start = 0; start < tokens.size(); start += sliceSize) {
+				int from = start;
+				int to = Math.min(start + sliceSize, tokens.size());
+				slices.add(CompletableFuture.runAsync(() -> {
+					for (int i = from; i < to; i++) {
+						results[i] = check(tokens.get(i), now);
+					}
+				}, executor));
+			}
+		} catch (RejectedExecutionException ex) {
+			slices.forEach(slice -> slice.cancel(false));
+			if (capacityRejected != null) {
+				capacityRejected.increment();
+			}
+			throw new IntrospectionCapacityExceededException("Token introspection capacity exceeded, retry shortly");
+		}
+		return CompletableFuture.allOf(slices.toArray(CompletableFuture[]::new))
+				.thenApply(done -> new IntrospectResponse(Arrays.asList(results)));
+	}
+
+	private IntrospectResponse.Result check(String token, long now) {
+		if (token == null || token.isBlank()) {
+			return IntrospectResponse.Result.inactive(TokenOutcome.MALFORMED.tag());
+		}
+		try {
+			VerifiedToken verified = jwtUtil.verify(token);
+			long expiresAtMs = verified.getExpiresAtMs();
+			return IntrospectResponse.Result.active(verified.getSubject(), verified.getRoles(), expiresAtMs / 1000,
+					Math.max(0, (expiresAtMs - now) / 1000));
+		} catch (JwtException | IllegalArgumentException ex) {
+			return IntrospectResponse.Result.inactive(TokenOutcome.of(ex).tag());
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/*
+ * Outcome tag of the jwt.verify and jwt.filter timers. tampered covers a bad
+ * signature as well as a kid or algorithm none of our keys accepts; malformed
+ * is anything that is not a parseable JWS (including an empty bearer); none
+ * (filter only) is a request without a bearer token. The timers are created
+ * once per outcome and indexed by ordinal, so recording is an array read plus
+ * Timer.record, with no tag lookup per request.
+ */
+enum TokenOutcome {
+	VALID, EXPIRED, TAMPERED, MALFORMED, REVOKED, NONE;
+
+	private final String tag = name().toLowerCase(Locale.ROOT);
+
+	String tag() {
+		return tag;
+	}
+
+	static TokenOutcome of(RuntimeException ex) {
+		if (ex instanceof RevokedTokenException) {
+			return REVOKED;
+		}
+		if (ex instanceof ExpiredJwtException) {
+			return EXPIRED;
+		}
+		if (ex instanceof SignatureException || ex instanceof UnsupportedJwtException) {
+			return TAMPERED;
+		}
+		return MALFORMED;
+	}
+
+	/* null without a registry; buckets start at 1µs since a cached verification takes well under 1ms */
+	static Timer[] timers(MeterRegistry registry, String name, String description, boolean withNone) {
+		if (registry == null) {
+			return null;
+		}
+		Timer[] timers = new Timer[values().length];
+		for (TokenOutcome outcome : values()) {
+			if (outcome != NONE || withNone) {
+				timers[outcome.ordinal()] = microTimer(name, description).tag("outcome", outcome.tag)
+						.register(registry);
+			}
+		}
+		return timers;
+	}
+
+	static Timer.Builder microTimer(String name, String description) {
+		return Timer.builder(name).description(description).publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofNanos(1_000)).maximumExpectedValue(Duration.ofMillis(100));
+	}
+}
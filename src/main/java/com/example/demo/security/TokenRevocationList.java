@@ -0,0 +1,180 @@
+package com.example.demo.security;
+
+import com.example.demo.entity.RevokedToken;
+import com.example.demo.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class TokenRevocationList {
+
+	/*
+	 * Revoked access tokens, checked on every authenticated request without
+	 * touching Mongo. A Bloom filter answers "definitely not revoked" for almost
+	 * every token with a few multiplications and array reads; only a Bloom hit
+	 * (a revoked token or a ~1% false positive) falls through to the exact map
+	 * of jti -> exp. The filter is lock-free to read; adds and rebuilds are
+	 * serialised on this object, which is fine because revocations are rare.
+	 * Revocations are written to the revoked_tokens collection, loaded from it
+	 * at startup, and pulled from it every app.jwt.revocation.sync-interval-ms,
+	 * so a token revoked on one node is rejected by every node within that
+	 * interval. Entries whose token has expired are pruned on the same schedule
+	 * and the filter is rebuilt from the remaining ones, since a Bloom filter
+	 * cannot forget.
+	 */
+	private static final long SYNC_OVERLAP_MS = 30_000; // tolerates clock skew between nodes
+
+	@Autowired
+	private RevokedTokenRepository repository;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.jwt.revocation.expected-size:100000}")
+	private int expectedSize;
+
+	private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+	private volatile BloomFilter bloom;
+	private long lastSyncMs;
+
+	public TokenRevocationList() {
+	}
+
+	public TokenRevocationList(RevokedTokenRepository repository, int expectedSize) {
+		this.repository = repository;
+		this.expectedSize = expectedSize;
+		init();
+	}
+
+	@PostConstruct
+	void init() {
+		bloom = new BloomFilter(expectedSize);
+		long now = System.currentTimeMillis();
+		if (repository != null) {
+			for (RevokedToken t : repository.findByExpiresAtAfter(new Date(now))) {
+				add(t.getJti(), t.getExpiresAt().getTime());
+			}
+		}
+		lastSyncMs = now;
+		if (meterRegistry != null) {
+			Gauge.builder("jwt.revoked.size", revoked, Map::size).register(meterRegistry);
+		}
+	}
+
+	/** True if the token with this jti was revoked; tokens without a jti never are */
+	public boolean isRevoked(String jti) {
+		return jti != null && bloom.mightContain(jti) && revoked.containsKey(jti);
+	}
+
+	/** Revokes the token until its own expiry, here at once and on other nodes after the next sync */
+	public void revoke(String jti, long expiresAtMs) {
+		long now = System.currentTimeMillis();
+		if (jti == null || expiresAtMs <= now) {
+			return;
+		}
+		if (repository != null) {
+			repository.save(new RevokedToken(jti, new Date(expiresAtMs), new Date(now)));
+		}
+		add(jti, expiresAtMs);
+	}
+
+	int size() {
+		return revoked.size();
+	}
+
+	@Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms:5000}")
+	void sync() {
+		long now = System.currentTimeMillis();
+		if (repository != null) {
+			for (RevokedToken t : repository.findByRevokedAtGreaterThanEqual(new Date(lastSyncMs - SYNC_OVERLAP_MS))) {
+				add(t.getJti(), t.getExpiresAt().getTime());
+			}
+		}
+		lastSyncMs = now;
+		prune(now);
+	}
+
+	synchronized void prune(long now) {
+		if (revoked.values().removeIf(exp -> exp <= now)) {
+			BloomFilter rebuilt = new BloomFilter(Math.max(expectedSize, 2 * revoked.size()));
+			revoked.keySet().forEach(rebuilt::put);
+			bloom = rebuilt;
+		}
+	}
+
+	private synchronized void add(String jti, long expiresAtMs) {
+		if (expiresAtMs > System.currentTimeMillis() && revoked.put(jti, expiresAtMs) == null) {
+			bloom.put(jti);
+		}
+	}
+
+	/*
+	 * Classic Bloom filter sized for ~1% false positives at the expected number
+	 * of entries (about 9.6 bits per entry, 7 probes), rounded up to a power of
+	 * two so a probe is a mask instead of a division. The probes come from one
+	 * 64-bit hash of the jti split in two (Kirsch-Mitzenmacher double hashing).
+	 */
+	static final class BloomFilter {
+		private static final int PROBES = 7;
+
+		private final AtomicLongArray words;
+		private final long mask;
+
+		BloomFilter(int expected) {
+			long bits = Long.highestOneBit(Math.max(64, (long) Math.ceil(expected * 9.6)) * 2 - 1);
+			words = new AtomicLongArray((int) (bits >>> 6));
+			mask = bits - 1;
+		}
+
+		void put(String key) {
+			long h = hash(key);
+			long h1 = h;
+			long h2 = (h >>> 32) | 1;
+			for (int i = 0; i < PROBES; i++, h1 += h2) {
+				long bit = h1 & mask;
+				int word = (int) (bit >>> 6);
+				long m = 1L << bit;
+				long current;
+				while (((current = words.get(word)) & m) == 0 && !words.compareAndSet(word, current, current | m)) {
+					// retry: another bit in the same word was set concurrently
+				}
+			}
+		}
+
+		boolean mightContain(String key) {
+			long h = hash(key);
+			long h1 = h;
+			long h2 = (h >>> 32) | 1;
+			for (int i = 0; i < PROBES; i++, h1 += h2) {
+				long bit = h1 & mask;
+				if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/* FNV-1a over the chars, finished with the MurmurHash3 fmix64 avalanche */
+		private static long hash(String key) {
+			long h = 0xcbf29ce484222325L;
+			for (int i = 0; i < key.length(); i++) {
+				h = (h ^ key.charAt(i)) * 0x100000001b3L;
+			}
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb9fe1a85ec53L;
+			return h ^ (h >>> 33);
+		}
+	}
+}
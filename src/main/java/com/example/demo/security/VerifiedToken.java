@@ -0,0 +1,97 @@
+package com.example.demo.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.MalformedJwtException;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+/*
+ * Immutable view of a JWT whose signature and expiry have already been checked
+ * by JwtUtil.verify(). It is built once per token and then handed around (the
+ * filter stores it in the Authentication), so nothing downstream ever needs to
+ * parse or verify the same token again. Roles are held as an interned RoleSet.
+ * The jti identifies the token for revocation (null on tokens issued without
+ * one).
+ */
+public final class VerifiedToken implements Serializable {
+
+	private static final long serialVersionUID = 2L;
+
+	private final String jti;
+	private final String subject;
+	private final RoleSet roles;
+	private final long issuedAtMs;
+	private final long expiresAtMs;
+
+	public VerifiedToken(String subject, List<String> roles, long issuedAtMs, long expiresAtMs) {
+		this(subject, roles == null ? RoleSet.EMPTY : RoleSet.of(roles), issuedAtMs, expiresAtMs);
+	}
+
+	public VerifiedToken(String subject, RoleSet roles, long issuedAtMs, long expiresAtMs) {
+		this(null, subject, roles, issuedAtMs, expiresAtMs);
+	}
+
+	public VerifiedToken(String jti, String subject, RoleSet roles, long issuedAtMs, long expiresAtMs) {
+		this.jti = jti;
+		this.subject = subject;
+		this.roles = roles;
+		this.issuedAtMs = issuedAtMs;
+		this.expiresAtMs = expiresAtMs;
+	}
+
+	/*
+	 * Accepts both token formats: compact tokens carry the role bitmask "r"
+	 * (decoded through the RoleRegistry), standard tokens the "roles" array.
+	 */
+	static VerifiedToken fromClaims(Claims claims, RoleRegistry registry) {
+		RoleSet roles;
+		Object mask = claims.get("r");
+		if (mask instanceof Number n && registry != null) {
+			try {
+				roles = registry.decode(n.intValue());
+			} catch (IllegalArgumentException ex) {
+				throw new MalformedJwtException(ex.getMessage());
+			}
+		} else {
+			Object rawRoles = claims.get("roles");
+			roles = rawRoles instanceof List<?> l ? RoleSet.of(l.stream().map(String::valueOf).toList())
+					: RoleSet.EMPTY;
+		}
+		return new VerifiedToken(claims.getId(), claims.getSubject(), roles, millis(claims.getIssuedAt()),
+				millis(claims.getExpiration()));
+	}
+
+	private static long millis(Date d) {
+		return d == null ? 0L : d.getTime();
+	}
+
+	public String getJti() {
+		return jti;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public List<String> getRoles() {
+		return roles.getRoles();
+	}
+
+	public RoleSet getRoleSet() {
+		return roles;
+	}
+
+	public boolean hasRole(String role) {
+		return roles.has(role);
+	}
+
+	public long getIssuedAtMs() {
+		return issuedAtMs;
+	}
+
+	public long getExpiresAtMs() {
+		return expiresAtMs;
+	}
+}
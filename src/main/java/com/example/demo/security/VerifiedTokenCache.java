@@ -0,0 +1,122 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Component
+public class VerifiedTokenCache {
+
+	/*
+	 * Bounded cache of tokens that already passed signature verification. Entries
+	 * are keyed by the SHA-256 digest of the raw token (the token itself is never
+	 * kept as a key) and hold the VerifiedToken. Each entry expires at the token's
+	 * own exp claim, and get() re-checks exp on every hit, so an expired token is
+	 * never served from the cache. Size eviction is handled by Caffeine, whose
+	 * reads are lock-free and whose writes are striped. Lookups deliberately use
+	 * getIfPresent/put rather than a computing get, so no bin lock is held while
+	 * the HMAC is checked. Hit, miss and eviction counts are published under the
+	 * "jwt.verified" cache name. Setting app.jwt.cache.max-size to 0 disables it.
+	 */
+	@Value("${app.jwt.cache.max-size:10000}")
+	private long maxSize;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	private Cache<String, VerifiedToken> cache;
+
+	private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	});
+
+	public VerifiedTokenCache() {
+	}
+
+	public VerifiedTokenCache(long maxSize, MeterRegistry meterRegistry) {
+		this.maxSize = maxSize;
+		this.meterRegistry = meterRegistry;
+		init();
+	}
+
+	@PostConstruct
+	void init() {
+		if (maxSize <= 0) {
+			return;
+		}
+		cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfter(new Expiry<String, VerifiedToken>() {
+			@Override
+			public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+				return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.getExpiresAtMs() - System.currentTimeMillis()));
+			}
+
+			@Override
+			public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+				return expireAfterCreate(key, value, currentTime);
+			}
+
+			@Override
+			public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+				return currentDuration;
+			}
+		}).recordStats().build();
+		if (meterRegistry != null) {
+			CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+		}
+	}
+
+	public boolean isEnabled() {
+		return cache != null;
+	}
+
+	/** Returns the cached claims for the token, or verifies it and caches the result */
+	public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+		if (cache == null) {
+			return verifier.apply(token);
+		}
+		String key = digest(token);
+		VerifiedToken hit = cache.getIfPresent(key);
+		if (hit != null) {
+			if (hit.getExpiresAtMs() > System.currentTimeMillis()) {
+				return hit;
+			}
+			cache.invalidate(key);
+		}
+		// verifier throws for bad or expired tokens, so only valid ones get cached
+		VerifiedToken verified = verifier.apply(token);
+		cache.put(key, verified);
+		return verified;
+	}
+
+	public void invalidateAll() {
+		if (cache != null) {
+			cache.invalidateAll();
+		}
+	}
+
+	long estimatedSize() {
+		return cache == null ? 0 : cache.estimatedSize();
+	}
+
+	private static String digest(String token) {
+		MessageDigest md = SHA256.get();
+		return Base64.getEncoder().encodeToString(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,205 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AuditEvent;
+import com.example.demo.repository.AuditEventRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+@Service
+public class AuditLog {
+
+	private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+	/*
+	 * Audit events (logins, employee writes) are recorded off the request path:
+	 * record() puts the event into a lock-free RingBuffer of
+	 * app.audit.buffer-size slots and returns, so a request never waits on
+	 * Mongo. One "audit-writer" thread inserts the buffered events into
+	 * audit_events in batches of up to app.audit.batch-size, oldest first:
+	 * as soon as a batch is full, otherwise every app.audit.flush-interval.
+	 * Overflow policy: when the buffer is full, record() drops the new event
+	 * and counts it instead of blocking or growing; the writer then stores an
+	 * "audit.dropped" event with the number lost, so a gap in the log is itself
+	 * on record. The marker sits where the gap is: the first drop notes how
+	 * many events had been buffered (gapAt), and the writer inserts the marker
+	 * right after that many events, ahead of anything recorded later. A failed
+	 * insert is retried as a whole after flush-interval while new events queue
+	 * up behind it (and are dropped once the buffer is full). Delivery is at
+	 * least once: an insert that failed part-way may store some events twice.
+	 * On shutdown the writer drains and writes everything still buffered, in
+	 * order, waiting up to app.audit.shutdown-timeout; events recorded after
+	 * that point are dropped. Metrics: audit.buffer.size (gauge),
+	 * audit.events.dropped (counter), audit.write (timer per batch, tag
+	 * result=success|failure).
+	 */
+	@Autowired
+	private AuditEventRepository repository;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.audit.buffer-size:8192}")
+	private int bufferSize;
+
+	@Value("${app.audit.batch-size:500}")
+	private int batchSize;
+
+	@Value("${app.audit.flush-interval:1s}")
+	private Duration flushInterval;
+
+	@Value("${app.audit.shutdown-timeout:10s}")
+	private Duration shutdownTimeout;
+
+	private RingBuffer<AuditEvent> buffer;
+	private final LongAdder dropped = new LongAdder();
+	private final AtomicLong gapAt = new AtomicLong(-1); // buffer position of the first unrecorded drop
+	private long droppedWritten; // writer thread only
+	private volatile boolean running;
+	private Thread writer;
+	private Timer written;
+	private Timer failed;
+
+	public AuditLog() {
+	}
+
+	AuditLog(AuditEventRepository repository, int bufferSize, int batchSize, Duration flushInterval) {
+		this.repository = repository;
+		this.bufferSize = bufferSize;
+		this.batchSize = batchSize;
+		this.flushInterval = flushInterval;
+		this.shutdownTimeout = Duration.ofSeconds(10);
+		init();
+	}
+
+	@PostConstruct
+	void init() {
+		buffer = new RingBuffer<>(bufferSize);
+		if (meterRegistry != null) {
+			Gauge.builder("audit.buffer.size", buffer, RingBuffer::size).register(meterRegistry);
+			FunctionCounter.builder("audit.events.dropped", dropped, LongAdder::sum).register(meterRegistry);
+			written = Timer.builder("audit.write").tag("result", "success").register(meterRegistry);
+			failed = Timer.builder("audit.write").tag("result", "failure").register(meterRegistry);
+		}
+		running = true;
+		writer = new Thread(this::run, "audit-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@PreDestroy
+	void shutdown() throws InterruptedException {
+		running = false;
+		LockSupport.unpark(writer);
+		writer.join(shutdownTimeout.toMillis() + flushInterval.toMillis());
+		if (writer.isAlive()) {
+			log.error("Audit writer did not finish within {}; up to {} events are lost", shutdownTimeout,
+					buffer.size() + batchSize);
+		}
+	}
+
+	/** Buffers the event for the writer; never blocks. Dropped and counted if the buffer is full. */
+	public void record(AuditEvent event) {
+		if (!running || !buffer.offer(event)) {
+			dropped.increment();
+			gapAt.compareAndSet(-1, buffer.offered());
+			return;
+		}
+		if (buffer.size() >= batchSize) {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	private void run() {
+		List<AuditEvent> batch = new ArrayList<>(batchSize);
+		while (running) {
+			if (buffer.size() < batchSize) {
+				LockSupport.parkNanos(flushInterval.toNanos());
+			}
+			if (!flush(batch) && running) {
+				LockSupport.parkNanos(flushInterval.toNanos()); // back off before the retry
+			}
+		}
+		long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+		while (!flush(batch)) {
+			if (System.nanoTime() + flushInterval.toNanos() > deadline) {
+				log.error("Audit events lost on shutdown: {} unwritten", batch.size() + buffer.size());
+				return;
+			}
+			LockSupport.parkNanos(flushInterval.toNanos());
+		}
+	}
+
+	/*
+	 * Writes everything buffered so far, batch by batch. On failure the batch
+	 * stays in place for the next call and false is returned, so events are
+	 * written in the order they were recorded. Draining stops at gapAt until
+	 * the drop marker has been added there. gapAt is cleared before the drops
+	 * are counted, so a drop racing with the marker is either counted in it or
+	 * opens the next gap, never lost.
+	 */
+	private boolean flush(List<AuditEvent> batch) {
+		while (true) {
+			long gap = gapAt.get();
+			int room = batchSize - batch.size();
+			if (gap >= 0) {
+				room = (int) Math.min(room, Math.max(0, gap - buffer.drained()));
+			}
+			buffer.drainTo(batch, room);
+			if (gap >= 0 && buffer.drained() >= gap && batch.size() < batchSize) {
+				gapAt.set(-1);
+				long lost = dropped.sum() - droppedWritten;
+				if (lost > 0) {
+					batch.add(AuditEvent.dropped(lost));
+					droppedWritten += lost;
+				}
+				continue;
+			}
+			if (batch.isEmpty()) {
+				return true;
+			}
+			if (!write(batch)) {
+				return false;
+			}
+			batch.clear();
+		}
+	}
+
+	private boolean write(List<AuditEvent> batch) {
+		long start = System.nanoTime();
+		try {
+			repository.insert(batch);
+			if (written != null) {
+				written.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+			return true;
+		} catch (RuntimeException ex) {
+			if (failed != null) {
+				failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+			log.warn("Writing {} audit events failed, retrying in {}: {}", batch.size(), flushInterval,
+					ex.getMessage());
+			return false;
+		}
+	}
+}
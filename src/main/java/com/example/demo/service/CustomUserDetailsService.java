@@ -2,11 +2,21 @@ package com.example.demo.service;
 
 import com.example.demo.entity.Employee;
 import com.example.demo.repository.EmployeeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -15,6 +25,61 @@ public class CustomUserDetailsService implements UserDetailsService {
 	@Autowired
 	private EmployeeRepository employeeRepository;
 
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.security.user-cache.max-size:10000}")
+	private long cacheMaxSize;
+
+	@Value("${app.security.user-cache.ttl:5m}")
+	private Duration cacheTtl;
+
+	/** Cached user plus its id, so writes addressed by id can evict it, and the counter it was read under */
+	private record CachedUser(String empId, UserDetails user, long collectionVersion) {
+	}
+
+	private Cache<String, CachedUser> cache;
+	private final Map<String, String> usernameByEmpId = new ConcurrentHashMap<>();
+	private volatile long evictions; // written under this object's lock
+
+	/*
+	 * UserDetails cache: bounded (app.security.user-cache.max-size) and expired
+	 * after app.security.user-cache.ttl, keyed by username. EmployeeService evicts
+	 * entries on every create, update and delete, so role changes and deletions
+	 * apply on the next login on this node. Other nodes learn about a write
+	 * through the collection_versions counter that EmployeeService bumps after
+	 * each one: every entry remembers the counter value read before its user was
+	 * loaded, and a hit is only served while the counter still has that value.
+	 * That check is a single _id lookup on a one-document collection, cheaper
+	 * than the employee query and role mapping it saves, and any write on any
+	 * node turns the next login for every cached user into a reload. A
+	 * max-size of 0 disables caching. Published as cache
+	 * "security.user-details". Writes addressed by id find the cached username
+	 * through usernameByEmpId, which holds exactly the cached users: entries go
+	 * in with the user and leave with it, including size and TTL evictions (the
+	 * eviction listener runs inside the eviction itself). Loads read Mongo
+	 * without a lock, but storing a loaded user and evicting are serialised on
+	 * this object, and a load only stores its result if no eviction happened
+	 * since it started (evictions counts them). A write that evicts while a
+	 * login is reading the old record therefore makes that login skip the
+	 * cache instead of putting the stale user back for the whole TTL.
+	 */
+	@PostConstruct
+	void init() {
+		if (cacheMaxSize <= 0) {
+			return;
+		}
+		cache = Caffeine.newBuilder().maximumSize(cacheMaxSize).expireAfterWrite(cacheTtl)
+				.<String, CachedUser>evictionListener((username, cached, cause) -> {
+					if (cached != null) {
+						usernameByEmpId.remove(cached.empId(), username);
+					}
+				}).recordStats().build();
+		if (meterRegistry != null) {
+			CaffeineCacheMetrics.monitor(meterRegistry, cache, "security.user-details");
+		}
+	}
+
 	/*
 	 * Purpose: This method retrieves an Employee entity from the database using the
 	 * provided username. It converts the Employee entity into a User object, which
@@ -29,15 +94,78 @@ public class CustomUserDetailsService implements UserDetailsService {
 	 * User object is returned to Spring Security for authentication and
 	 * authorization purposes.Steps: This method is invoked automatically by Spring
 	 * Security during the authentication process when a user attempts to log in.
-	 * This implementation ensures that user credentials and roles are correctly
-	 * loaded and processed for authentication.
+	 * Cache: a cached user is returned as a fresh copy, because Spring Security
+	 * erases the password of the UserDetails it authenticated and that must not
+	 * reach the cached instance.
 	 */
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+		long generation = evictions;
+		long version = 0;
+		if (cache != null) {
+			version = employeeRepository.collectionVersion();
+			CachedUser cached = cache.getIfPresent(username);
+			if (cached != null && cached.collectionVersion() == version) {
+				return User.withUserDetails(cached.user()).build();
+			}
+		}
+
 		Employee employee = employeeRepository.findByUsername(username)
 				.orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-		return new User(employee.getUsername(), employee.getPassword(), employee.getUserRoles().stream()
+		UserDetails user = new User(employee.getUsername(), employee.getPassword(), employee.getUserRoles().stream()
 				.map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())).collect(Collectors.toList()));
+		if (cache != null) {
+			store(generation, username, new CachedUser(employee.getEmpId(), user, version));
+			return User.withUserDetails(user).build();
+		}
+		return user;
+	}
+
+	/* keeps a loaded user unless an eviction happened since the load started */
+	private synchronized void store(long generation, String username, CachedUser cached) {
+		if (generation != evictions) {
+			return;
+		}
+		CachedUser previous = cache.asMap().put(username, cached);
+		if (previous != null && !previous.empId().equals(cached.empId())) {
+			usernameByEmpId.remove(previous.empId(), username);
+		}
+		usernameByEmpId.put(cached.empId(), username);
+	}
+
+	/** Drops the cached user with this username */
+	public synchronized void evict(String username) {
+		if (cache != null && username != null) {
+			evictions++;
+			CachedUser removed = cache.asMap().remove(username);
+			if (removed != null) {
+				usernameByEmpId.remove(removed.empId(), username);
+			}
+		}
+	}
+
+	/** Drops the cached user stored under this id, whatever its username is now */
+	public synchronized void evictEmployee(String empId) {
+		if (cache != null && empId != null) {
+			evictions++;
+			String username = usernameByEmpId.remove(empId);
+			if (username != null) {
+				cache.invalidate(username);
+			}
+		}
+	}
+
+	/** evictEmployee for many ids, one index lookup each */
+	public synchronized void evictEmployees(Collection<String> empIds) {
+		if (cache != null && !empIds.isEmpty()) {
+			evictions++;
+			for (String empId : empIds) {
+				String username = usernameByEmpId.remove(empId);
+				if (username != null) {
+					cache.invalidate(username);
+				}
+			}
+		}
 	}
 }
@@ -0,0 +1,35 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Employee;
+import org.springframework.http.CacheControl;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Strong ETags of the employee reads. A list page is tagged with the
+ * collection version plus a hash of what selects the page (caller, cursor,
+ * limit, fields), so it can be checked before any employee is read; any write
+ * changes the collection version and with it every page's tag. A single
+ * employee is tagged with its version plus a hash of the projected fields
+ * returned, so a projection, or a record deleted and created again under the
+ * same id, never shares a tag with a different body.
+ */
+public final class EmployeeETags {
+
+	/** Clients may keep a copy but must revalidate it; takes the place of Spring Security's no-store */
+	public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+	private EmployeeETags() {
+	}
+
+	public static String page(long collectionVersion, String caller, String cursor, int limit, Set<String> fields) {
+		return "\"c" + collectionVersion + "-" + Integer.toHexString(Objects.hash(caller, cursor, limit, fields))
+				+ "\"";
+	}
+
+	public static String employee(Employee e) {
+		String content = Integer.toHexString(Objects.hash(e.getEmpId(), e.getUsername(), e.getUserRoles()));
+		return "\"" + (e.getVersion() == null ? "" : e.getVersion() + "-") + content + "\"";
+	}
+}
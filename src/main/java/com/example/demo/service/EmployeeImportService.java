@@ -0,0 +1,334 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BulkCreateResult;
+import com.example.demo.dto.ImportEvent;
+import com.example.demo.entity.Employee;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class EmployeeImportService {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${app.employees.bulk.chunk-size:1000}")
+	private int batchSize;
+
+	@Value("${app.employees.import.max-line-length:65536}")
+	private int maxLineLength = 65536;
+
+	@Value("${app.employees.import.workers:4}")
+	private int workers = 4;
+
+	private ExecutorService worker;
+
+	/*
+	 * One pool for the batch inserts of all imports: app.employees.import.workers
+	 * threads and as many queued batches. Each import has at most one batch in
+	 * flight, so a full pool only happens with more concurrent imports than
+	 * that; the extra batch is then inserted on the importing thread (caller
+	 * runs), which slows that upload down instead of queueing without bound.
+	 * Tasks run as the caller, so EmployeeService audits the writes under their
+	 * name.
+	 */
+	@PostConstruct
+	void init() {
+		AtomicInteger seq = new AtomicInteger();
+		worker = new DelegatingSecurityContextExecutorService(new ThreadPoolExecutor(workers, workers, 0L,
+				TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(workers), r -> {
+					Thread t = new Thread(r, "employee-import-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.CallerRunsPolicy()));
+	}
+
+	@PreDestroy
+	void shutdown() {
+		worker.shutdown();
+	}
+
+	/*
+	 * Streaming NDJSON import. The body is read one line (one Employee) at a time
+	 * and collected into batches of app.employees.bulk.chunk-size. Each full batch
+	 * is handed to the shared import pool, which hashes and bulk-inserts it
+	 * (EmployeeService.insertChunk) while this thread parses the next batch. At
+	 * most one batch is in flight and one is being filled, and a line is never
+	 * buffered beyond app.employees.import.max-line-length characters, so memory
+	 * stays at two batches no matter how large the file is. Lines that are too
+	 * long or not valid JSON, and rows that fail validation or the insert, are
+	 * reported as "error" events; a "progress" event follows every batch and a
+	 * "done" event ends the stream. Line numbers are 1-based and blank lines are
+	 * skipped.
+	 */
+	public void importNdjson(InputStream body, OutputStream out) throws IOException {
+		ObjectReader reader = objectMapper.readerFor(Employee.class);
+		ObjectWriter writer = objectMapper.writerFor(ImportEvent.class);
+		Progress progress = new Progress(writer, out);
+
+		Future<List<BulkCreateResult.Row>> inFlight = null;
+		try (Reader utf8 = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+			LineReader in = new LineReader(utf8, maxLineLength);
+			List<Long> inFlightLines = null;
+			List<Employee> batch = new ArrayList<>(batchSize);
+			List<Long> lines = new ArrayList<>(batchSize);
+			long lineNo = 0;
+			String line;
+			while ((line = in.readLine()) != null) {
+				lineNo++;
+				if (in.tooLong) {
+					progress.failed(lineNo, null, tooLong());
+					continue;
+				}
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					batch.add(reader.readValue(line));
+					lines.add(lineNo);
+				} catch (JsonProcessingException ex) {
+					progress.failed(lineNo, null, "invalid JSON: " + ex.getOriginalMessage());
+				}
+				if (batch.size() == batchSize) {
+					progress.completed(await(inFlight), inFlightLines);
+					inFlight = submit(worker, batch);
+					inFlightLines = lines;
+					batch = new ArrayList<>(batchSize);
+					lines = new ArrayList<>(batchSize);
+				}
+			}
+			progress.completed(await(inFlight), inFlightLines);
+			inFlight = null;
+			if (!batch.isEmpty()) {
+				progress.completed(employeeService.insertChunk(batch, 0), lines);
+			}
+			progress.done();
+		} finally {
+			if (inFlight != null) {
+				inFlight.cancel(true);
+			}
+		}
+	}
+
+	private String tooLong() {
+		return "line longer than " + maxLineLength + " characters";
+	}
+
+	/*
+	 * The same import for the reactive profile, from the request body split into
+	 * lines. Batches of app.employees.bulk.chunk-size lines are inserted one at a
+	 * time on boundedElastic (insertChunk blocks on hashing and Mongo) while
+	 * concatMap prefetches the next batch, and backpressure stops reading the
+	 * upload when inserts fall behind, so memory stays bounded the same way. Events
+	 * match the servlet stream, except that a line with invalid JSON is reported
+	 * with its batch rather than as soon as it is read.
+	 */
+	public Flux<ImportEvent> importNdjson(Flux<String> body) {
+		return ReactiveSecurityContextHolder.getContext().defaultIfEmpty(SecurityContextHolder.createEmptyContext())
+				.flatMapMany(caller -> {
+					ObjectReader reader = objectMapper.readerFor(Employee.class);
+					Totals totals = new Totals();
+					return body.index().filter(line -> !line.getT2().isBlank()).buffer(batchSize)
+							.concatMap(batch -> Mono.fromCallable(DelegatingSecurityContextCallable
+									.create(() -> insertLines(reader, batch, totals), caller))
+									.subscribeOn(Schedulers.boundedElastic()).flatMapIterable(events -> events))
+							.concatWith(Mono.fromSupplier(totals::done));
+				});
+	}
+
+	private List<ImportEvent> insertLines(ObjectReader reader, List<Tuple2<Long, String>> batch,
+			Totals totals) {
+		List<ImportEvent> events = new ArrayList<>();
+		List<Employee> employees = new ArrayList<>(batch.size());
+		List<Long> lines = new ArrayList<>(batch.size());
+		for (Tuple2<Long, String> line : batch) {
+			if (line.getT2().length() > maxLineLength) {
+				events.add(totals.failed(line.getT1() + 1, null, tooLong()));
+				continue;
+			}
+			try {
+				employees.add(reader.readValue(line.getT2()));
+				lines.add(line.getT1() + 1);
+			} catch (JsonProcessingException ex) {
+				events.add(totals.failed(line.getT1() + 1, null, "invalid JSON: " + ex.getOriginalMessage()));
+			}
+		}
+		events.addAll(totals.completed(employees.isEmpty() ? List.of() : employeeService.insertChunk(employees, 0),
+				lines));
+		return events;
+	}
+
+	private Future<List<BulkCreateResult.Row>> submit(ExecutorService worker, List<Employee> batch) {
+		return worker.submit(() -> employeeService.insertChunk(batch, 0));
+	}
+
+	/*
+	 * BufferedReader.readLine() with a cap: a line longer than maxLength is
+	 * read through to its newline without being kept, and comes back as "" with
+	 * tooLong set. Lines end at \n; a \r before it is dropped.
+	 */
+	private static final class LineReader {
+		private final Reader in;
+		private final int maxLength;
+		private final char[] buffer = new char[8192];
+		private final StringBuilder line = new StringBuilder();
+		private int pos;
+		private int limit;
+		boolean tooLong;
+
+		LineReader(Reader in, int maxLength) {
+			this.in = in;
+			this.maxLength = maxLength;
+		}
+
+		/** Next line without its terminator, null at the end of the input */
+		String readLine() throws IOException {
+			line.setLength(0);
+			tooLong = false;
+			boolean started = false;
+			while (true) {
+				if (pos == limit) {
+					limit = in.read(buffer);
+					pos = 0;
+					if (limit < 0) {
+						limit = 0;
+						return started ? end() : null;
+					}
+					continue;
+				}
+				started = true;
+				char c = buffer[pos++];
+				if (c == '\n') {
+					return end();
+				}
+				if (tooLong) {
+					continue;
+				}
+				if (line.length() < maxLength) {
+					line.append(c);
+				} else {
+					tooLong = true;
+					line.setLength(0);
+				}
+			}
+		}
+
+		private String end() {
+			int length = line.length();
+			if (length > 0 && line.charAt(length - 1) == '\r') {
+				line.setLength(length - 1);
+			}
+			return line.toString();
+		}
+	}
+
+	private static List<BulkCreateResult.Row> await(Future<List<BulkCreateResult.Row>> future) throws IOException {
+		if (future == null) {
+			return null;
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("import interrupted");
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IOException(ex.getCause());
+		}
+	}
+
+	/** Running totals of an import and the events that report them */
+	private static final class Totals {
+		private long processed;
+		private long created;
+		private long failed;
+
+		ImportEvent failed(long line, String empId, String error) {
+			processed++;
+			failed++;
+			return ImportEvent.error(line, empId, error);
+		}
+
+		/* error events for the failed rows, then a progress event */
+		List<ImportEvent> completed(List<BulkCreateResult.Row> rows, List<Long> lines) {
+			List<ImportEvent> events = new ArrayList<>();
+			for (BulkCreateResult.Row row : rows) {
+				if (BulkCreateResult.CREATED.equals(row.getStatus())) {
+					processed++;
+					created++;
+				} else {
+					events.add(failed(lines.get(row.getIndex()), row.getEmpId(), row.getError()));
+				}
+			}
+			events.add(ImportEvent.progress(processed, created, failed));
+			return events;
+		}
+
+		ImportEvent done() {
+			return ImportEvent.done(processed, created, failed);
+		}
+	}
+
+	/** Writes the events of the running totals to the response */
+	private static final class Progress {
+		private final Totals totals = new Totals();
+		private final ObjectWriter writer;
+		private final OutputStream out;
+
+		Progress(ObjectWriter writer, OutputStream out) {
+			this.writer = writer;
+			this.out = out;
+		}
+
+		void failed(long line, String empId, String error) throws IOException {
+			write(totals.failed(line, empId, error));
+		}
+
+		void completed(List<BulkCreateResult.Row> rows, List<Long> lines) throws IOException {
+			if (rows == null) {
+				return;
+			}
+			for (ImportEvent event : totals.completed(rows, lines)) {
+				write(event);
+			}
+			out.flush();
+		}
+
+		void done() throws IOException {
+			write(totals.done());
+			out.flush();
+		}
+
+		private void write(ImportEvent event) throws IOException {
+			out.write(writer.writeValueAsBytes(event));
+			out.write('\n');
+		}
+	}
+}
@@ -1,15 +1,33 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.BulkCreateResult;
+import com.example.demo.dto.BulkDeleteResult;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeePatch;
+import com.example.demo.entity.AuditEvent;
 import com.example.demo.entity.Employee;
 import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.security.PasswordEncoders;
+import com.example.demo.security.RoleSet;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeService {
@@ -18,68 +36,283 @@ public class EmployeeService {
 	private EmployeeRepository employeeRepository;
 
 	@Autowired
-	private PasswordEncoder passwordEncoder;
+	private PasswordHashingService passwordHashing;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Autowired
+	private AuditLog audit;
+
+	@Value("${app.employees.bulk.chunk-size:1000}")
+	private int bulkChunkSize;
 
 	/**
-	 * ADMIN → all employees USER → only the employee whose username == current
-	 * principal
+	 * ADMIN → one keyset page of all employees USER → only the employee whose
+	 * username == current principal (never has a next page)
 	 */
-	public List<Employee> getAllEmployeesWithAccess() {
-		Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-		boolean isAdmin = auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-
-		if (isAdmin) {
-			return employeeRepository.findAll();
+	public EmployeePage getEmployeesPageWithAccess(String cursor, int limit, Set<String> fields) {
+		if (isCurrentUserAdmin()) {
+			String afterId = cursor == null ? null : EmployeePage.decodeCursor(cursor);
+			List<Employee> items = employeeRepository.findPageAfter(afterId, limit, fields);
+			String next = items.size() < limit ? null
+					: EmployeePage.encodeCursor(items.get(items.size() - 1).getEmpId());
+			return new EmployeePage(items, next);
 		}
 
 		// non‑admin: lookup by username
-		String me = auth.getName();
-		return employeeRepository.findByUsername(me).map(List::of).orElse(List.of());
+		String me = SecurityContextHolder.getContext().getAuthentication().getName();
+		return new EmployeePage(
+				employeeRepository.findProjectedByUsername(me, fields).map(List::of).orElse(List.of()), null);
+	}
+
+	/**
+	 * ETag of the page getEmployeesPageWithAccess would return for these
+	 * arguments, from the collection version alone (see EmployeeETags).
+	 */
+	public String employeesPageETag(String cursor, int limit, Set<String> fields) {
+		String caller = SecurityContextHolder.getContext().getAuthentication().getName();
+		return EmployeeETags.page(employeeRepository.collectionVersion(), caller, cursor, limit, fields);
+	}
+
+	/**
+	 * Same access rules as the paged read, but hands employees to the consumer
+	 * straight from the Mongo cursor so nothing is collected in memory.
+	 */
+	public void forEachEmployeeWithAccess(Set<String> fields, Consumer<Employee> action) {
+		if (isCurrentUserAdmin()) {
+			try (Stream<Employee> all = employeeRepository.streamAll(fields)) {
+				all.forEach(action);
+			}
+			return;
+		}
+		String me = SecurityContextHolder.getContext().getAuthentication().getName();
+		employeeRepository.findProjectedByUsername(me, fields).ifPresent(action);
 	}
 
+	/*
+	 * Every write is audited here with its outcome, as the authenticated caller:
+	 * the request thread's SecurityContext, which the import worker and the
+	 * reactive profile's bridge carry over to the thread doing the write.
+	 */
+	private void audit(String type, String empId, String outcome, String detail) {
+		Authentication caller = SecurityContextHolder.getContext().getAuthentication();
+		audit.record(AuditEvent.employee(type, caller == null ? null : caller.getName(), empId, outcome, detail));
+	}
 
-	public Optional<Employee> getEmployeeById(String id) {
-	    // Get authentication details
-	    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-	    String currentUsername = auth.getName();
+	private static boolean isCurrentUserAdmin() {
+		// claims were verified once by the JWT filter; the interned RoleSet answers directly
+		return RoleSet.isAdmin(SecurityContextHolder.getContext().getAuthentication());
+	}
 
-	    // Find employee by ID
-	    Optional<Employee> optionalEmp = employeeRepository.findById(id);
-	    if (optionalEmp.isEmpty()) {
-	        return Optional.empty();
-	    }
+	/*
+	 * Allow access only if the ID belongs to the logged-in user. The ownership
+	 * check is part of the query, so only the selected fields are fetched and
+	 * someone else's document never leaves Mongo.
+	 */
+	public Optional<Employee> getEmployeeById(String id, Set<String> fields) {
+		String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
+		return employeeRepository.findByIdAndUsername(id, currentUsername, fields);
+	}
 
-	    Employee emp = optionalEmp.get();
+	/*
+	 * Writes evict the UserDetails cache right away (by id and by username), so a
+	 * changed role or a deleted account takes effect on the next login. Every
+	 * write that changed something then increments the collection version, after
+	 * the write, so a list read in between gets the old tag and is fetched again.
+	 */
+	public Employee createEmployee(Employee employee) {
+		employee.setPassword(passwordHashing.encode(employee.getPassword()));
+		Employee saved;
+		try {
+			saved = employeeRepository.save(employee);
+		} catch (RuntimeException ex) {
+			audit(AuditEvent.EMPLOYEE_CREATE, employee.getEmpId(), "failed", ex.getMessage());
+			throw ex;
+		}
+		userDetailsService.evict(saved.getUsername());
+		employeeRepository.incrementCollectionVersion();
+		audit(AuditEvent.EMPLOYEE_CREATE, saved.getEmpId(), "created", null);
+		return saved;
+	}
 
-	    // Allow access only if the ID belongs to the logged-in user
-	    if (emp.getUsername().equals(currentUsername)) {
-	        return Optional.of(emp);
-	    }
+	/*
+	 * PUT/PATCH: one findAndModify that sets only the fields present in the
+	 * patch and increments version, instead of re-reading and replacing the
+	 * document. BCrypt runs only for a new plaintext password; a hash sent back
+	 * unchanged is neither re-hashed nor written, but it must equal the stored
+	 * hash, so a client can never store a hash of its choosing. With
+	 * patch.version the update applies only to that version. When nothing
+	 * matched, one extra read tells the cases apart: empty (no such employee),
+	 * OptimisticLockingFailureException (version changed meanwhile) or
+	 * IllegalArgumentException (not the current hash).
+	 */
+	public Optional<Employee> updateEmployee(String id, EmployeePatch patch) {
+		Map<String, Object> fields = new LinkedHashMap<>();
+		if (patch.getUsername() != null) {
+			fields.put("username", patch.getUsername());
+		}
+		if (patch.getUserRoles() != null) {
+			fields.put("userRoles", patch.getUserRoles());
+		}
+		String currentHash = null;
+		if (PasswordEncoders.isEncoded(patch.getPassword())) {
+			currentHash = patch.getPassword();
+		} else if (patch.getPassword() != null) {
+			fields.put("password", passwordHashing.encode(patch.getPassword()));
+		}
 
-	    return Optional.empty(); // Access denied
+		Optional<Employee> updated = employeeRepository.updateFieldsIf(id, patch.getVersion(), currentHash, fields);
+		if (updated.isEmpty()) {
+			Employee stored = employeeRepository.findById(id).orElse(null);
+			if (stored == null) {
+				audit(AuditEvent.EMPLOYEE_UPDATE, id, "not_found", null);
+				return Optional.empty();
+			}
+			if (patch.getVersion() != null && !patch.getVersion().equals(stored.getVersion())) {
+				audit(AuditEvent.EMPLOYEE_UPDATE, id, "conflict", null);
+				throw new OptimisticLockingFailureException(
+						"Employee " + id + " was modified concurrently, current version is " + stored.getVersion());
+			}
+			audit(AuditEvent.EMPLOYEE_UPDATE, id, "rejected", "not the current hash");
+			throw new IllegalArgumentException("password must be a new plaintext password or the current hash");
+		}
+		userDetailsService.evictEmployee(id);
+		userDetailsService.evict(updated.get().getUsername());
+		employeeRepository.incrementCollectionVersion();
+		audit(AuditEvent.EMPLOYEE_UPDATE, id, "updated", "fields " + fields.keySet());
+		return updated;
 	}
 
+	public enum DeleteOutcome {
+		DELETED, NOT_FOUND, FORBIDDEN
+	}
 
+	/*
+	 * One conditional delete that skips the caller's own record, so the
+	 * self-deletion rule is enforced by Mongo in the same operation instead of a
+	 * read followed by a delete. Only when nothing was deleted does an existence
+	 * check tell NOT_FOUND from FORBIDDEN.
+	 */
+	public DeleteOutcome deleteEmployee(String id, String currentUsername) {
+		DeleteOutcome outcome;
+		if (employeeRepository.deleteUnlessUsername(id, currentUsername)) {
+			userDetailsService.evictEmployee(id);
+			employeeRepository.incrementCollectionVersion();
+			outcome = DeleteOutcome.DELETED;
+		} else {
+			outcome = employeeRepository.existsById(id) ? DeleteOutcome.FORBIDDEN : DeleteOutcome.NOT_FOUND;
+		}
+		audit(AuditEvent.EMPLOYEE_DELETE, id, outcome.name().toLowerCase(Locale.ROOT), null);
+		return outcome;
+	}
 
-	public Employee createEmployee(Employee employee) {
-		employee.setPassword(passwordEncoder.encode(employee.getPassword()));
-		return employeeRepository.save(employee);
+	/*
+	 * Bulk delete under the same rule, for all ids in one conditional delete.
+	 * When fewer documents were deleted than distinct ids were given, one read
+	 * of the ids through the _id index finds the ones still there, which the
+	 * rule kept (FORBIDDEN). Every other id is gone: DELETED if the delete count
+	 * accounts for all of them, NOT_FOUND if nothing was deleted. Mongo does not
+	 * say which ids a delete removed, so when a request mixes deleted and
+	 * never-existing ids, all the gone ones are reported, audited and evicted
+	 * as DELETED rather than risk leaving a real deletion out.
+	 */
+	public BulkDeleteResult deleteEmployees(List<String> ids, String currentUsername) {
+		Set<String> distinct = new HashSet<>(ids);
+		distinct.remove(null);
+		long deletedCount = distinct.isEmpty() ? 0
+				: employeeRepository.deleteAllUnlessUsername(distinct, currentUsername);
+		Set<String> kept = deletedCount == distinct.size() ? Set.of() : employeeRepository.findExistingIds(distinct);
+		Set<String> deleted = new HashSet<>();
+		if (deletedCount > 0) {
+			distinct.stream().filter(id -> !kept.contains(id)).forEach(deleted::add);
+			userDetailsService.evictEmployees(deleted);
+			employeeRepository.incrementCollectionVersion();
+		}
+		List<BulkDeleteResult.Row> rows = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); i++) {
+			String id = ids.get(i);
+			String status = id == null ? BulkDeleteResult.NOT_FOUND : deleted.contains(id) ? BulkDeleteResult.DELETED
+					: kept.contains(id) ? BulkDeleteResult.FORBIDDEN : BulkDeleteResult.NOT_FOUND;
+			rows.add(new BulkDeleteResult.Row(i, id, status));
+			audit(AuditEvent.EMPLOYEE_DELETE, id, status.toLowerCase(Locale.ROOT), null);
+		}
+		return new BulkDeleteResult(rows);
 	}
 
-	public Employee updateEmployee(String id, Employee updatedEmployee) {
-		updatedEmployee.setEmpId(id);
-		updatedEmployee.setPassword(passwordEncoder.encode(updatedEmployee.getPassword()));
-		return employeeRepository.save(updatedEmployee);
+	/*
+	 * Bulk onboarding: rows are processed in chunks of
+	 * app.employees.bulk.chunk-size. Each chunk's passwords are hashed in parallel
+	 * across the hashing pool and the chunk is written with one unordered bulk
+	 * insert, so a duplicate or invalid row fails on its own instead of failing
+	 * the request. The result reports every row by index and empId.
+	 */
+	public BulkCreateResult createEmployees(List<Employee> employees) {
+		List<BulkCreateResult.Row> rows = new ArrayList<>(employees.size());
+		for (int start = 0; start < employees.size(); start += bulkChunkSize) {
+			int end = Math.min(start + bulkChunkSize, employees.size());
+			rows.addAll(insertChunk(employees.subList(start, end), start));
+		}
+		return new BulkCreateResult(rows);
 	}
 
-	public void deleteEmployee(String id) {
-		employeeRepository.deleteById(id);
+	/*
+	 * Validates, hashes and bulk-inserts one chunk. Missing ids are assigned up
+	 * front so rows can be reported by empId without reading anything back.
+	 * firstIndex is the position of the chunk's first row in the whole import.
+	 */
+	List<BulkCreateResult.Row> insertChunk(List<Employee> chunk, int firstIndex) {
+		BulkCreateResult.Row[] rows = new BulkCreateResult.Row[chunk.size()];
+		List<Employee> valid = new ArrayList<>(chunk.size());
+		List<Integer> positions = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			Employee e = chunk.get(i);
+			String error = validate(e);
+			if (error != null) {
+				rows[i] = BulkCreateResult.Row.failed(firstIndex + i, e == null ? null : e.getEmpId(), error);
+				audit(AuditEvent.EMPLOYEE_CREATE, e == null ? null : e.getEmpId(), "failed", error);
+				continue;
+			}
+			if (e.getEmpId() == null || e.getEmpId().isBlank()) {
+				e.setEmpId(new ObjectId().toHexString());
+			}
+			valid.add(e);
+			positions.add(i);
+		}
+
+		List<String> hashes = passwordHashing.encodeAll(valid.stream().map(Employee::getPassword).toList());
+		for (int j = 0; j < valid.size(); j++) {
+			valid.get(j).setPassword(hashes.get(j));
+		}
+
+		Map<Integer, String> failures = employeeRepository.insertUnordered(valid);
+		if (failures.size() < valid.size()) {
+			employeeRepository.incrementCollectionVersion();
+		}
+		for (int j = 0; j < valid.size(); j++) {
+			int i = positions.get(j);
+			String empId = valid.get(j).getEmpId();
+			String error = failures.get(j);
+			if (error == null) {
+				userDetailsService.evict(valid.get(j).getUsername());
+			}
+			rows[i] = error == null ? BulkCreateResult.Row.created(firstIndex + i, empId)
+					: BulkCreateResult.Row.failed(firstIndex + i, empId, error);
+			audit(AuditEvent.EMPLOYEE_CREATE, empId, error == null ? "created" : "failed", error);
+		}
+		return Arrays.asList(rows);
 	}
 
-	public List<Employee> createEmployees(List<Employee> employees) {
-		for (Employee employee : employees) {
-			employee.setPassword(passwordEncoder.encode(employee.getPassword()));
+	private static String validate(Employee e) {
+		if (e == null) {
+			return "empty row";
+		}
+		if (e.getUsername() == null || e.getUsername().isBlank()) {
+			return "username is required";
+		}
+		if (e.getPassword() == null || e.getPassword().isEmpty()) {
+			return "password is required";
 		}
-		return employeeRepository.saveAll(employees);
+		return null;
 	}
 }
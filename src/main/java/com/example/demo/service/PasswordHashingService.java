@@ -0,0 +1,231 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Service
+public class PasswordHashingService {
+
+	/*
+	 * BCrypt is deliberately slow, so it must not run on Tomcat request threads
+	 * where a login burst would starve cheap reads. All password encoding and
+	 * matching is submitted to a dedicated pool with one thread per core
+	 * (app.hashing.threads, 0 = cores) and a bounded queue
+	 * (app.hashing.queue-capacity). Only the hash itself goes there: user lookups
+	 * and token writes stay on the caller's thread, so a slow Mongo cannot hold
+	 * the CPU-sized pool and turn logins away. When the queue is full the
+	 * submission fails fast with HashingCapacityExceededException, which the API
+	 * turns into 503. Bulk imports share the pool but may only hold
+	 * app.hashing.bulk-threads of its threads at once (0 = half the pool, at
+	 * least one), so logins always find a free thread. Metrics:
+	 * password.hashing.queue.depth (gauge),
+	 * password.hashing.wait (time spent queued), password.hashing.duration (time
+	 * spent hashing) and password.hashing.rejected (counter).
+	 */
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired(required = false)
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.hashing.threads:0}")
+	private int threads;
+
+	@Value("${app.hashing.queue-capacity:64}")
+	private int queueCapacity;
+
+	@Value("${app.hashing.bulk-threads:0}")
+	private int bulkThreads;
+
+	private static final long BULK_RETRY_MS = 5;
+
+	private ThreadPoolExecutor executor;
+	private Semaphore bulkPermits;
+	private Timer waitTimer;
+	private Timer runTimer;
+	private Counter rejected;
+
+	@PostConstruct
+	void init() {
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger seq = new AtomicInteger();
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), r -> {
+					Thread t = new Thread(r, "password-hashing-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		bulkPermits = new Semaphore(bulkThreads > 0 ? Math.min(bulkThreads, poolSize) : Math.max(1, poolSize / 2));
+		if (meterRegistry != null) {
+			Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size())
+					.register(meterRegistry);
+			Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+					.register(meterRegistry);
+			waitTimer = Timer.builder("password.hashing.wait").register(meterRegistry);
+			runTimer = Timer.builder("password.hashing.duration").register(meterRegistry);
+			rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	public int getPoolSize() {
+		return executor.getMaximumPoolSize();
+	}
+
+	/**
+	 * Runs the task on the hashing pool. Fails immediately with
+	 * HashingCapacityExceededException when the queue is full.
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> task) {
+		long enqueued = System.nanoTime();
+		CompletableFuture<T> result = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				long started = System.nanoTime();
+				if (waitTimer != null) {
+					waitTimer.record(started - enqueued, TimeUnit.NANOSECONDS);
+				}
+				T value = null;
+				Throwable failure = null;
+				try {
+					value = task.get();
+				} catch (Throwable ex) {
+					failure = ex;
+				}
+				if (runTimer != null) {
+					runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+				}
+				if (failure == null) {
+					result.complete(value);
+				} else {
+					result.completeExceptionally(failure);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			if (rejected != null) {
+				rejected.increment();
+			}
+			throw new HashingCapacityExceededException("Password hashing capacity exceeded, retry shortly");
+		}
+		return result;
+	}
+
+	public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+		return submit(() -> passwordEncoder.encode(rawPassword));
+	}
+
+	public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+		return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+	}
+
+	/** Blocking convenience for callers that need the hash inline */
+	public String encode(CharSequence rawPassword) {
+		return join(encodeAsync(rawPassword));
+	}
+
+	/** Blocking convenience: the check runs on the pool while the caller waits */
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return join(matchesAsync(rawPassword, encodedPassword));
+	}
+
+	/*
+	 * PasswordEncoder for DaoAuthenticationProvider: matches() goes through the
+	 * pool (including the dummy check for unknown usernames), encode and
+	 * upgradeEncoding go straight to the real encoder. The provider's user
+	 * lookup therefore runs on the request thread and only BCrypt takes a pool
+	 * thread.
+	 */
+	public PasswordEncoder pooledMatches() {
+		return new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				return passwordEncoder.encode(rawPassword);
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				return PasswordHashingService.this.matches(rawPassword, encodedPassword);
+			}
+
+			@Override
+			public boolean upgradeEncoding(String encodedPassword) {
+				return passwordEncoder.upgradeEncoding(encodedPassword);
+			}
+		};
+	}
+
+	/*
+	 * Batch hashing for bulk imports: every row is its own pool task, so a pool
+	 * thread is never held for more than one hash and queued logins get the next
+	 * free thread. A row must take a bulk permit before it is submitted and gives
+	 * it back when its hash is done, so all imports together occupy at most
+	 * app.hashing.bulk-threads threads and as many queue slots. When no permit is
+	 * free, or the queue is full of logins, the importer waits: hashes never run
+	 * on the calling thread and bulk work never takes the 503 path. Results are in
+	 * input order.
+	 */
+	public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+		String[] hashes = new String[rawPasswords.size()];
+		List<CompletableFuture<String>> pending = new ArrayList<>(hashes.length);
+		try {
+			for (int i = 0; i < hashes.length; i++) {
+				int row = i;
+				pending.add(submitBulk(() -> hashes[row] = passwordEncoder.encode(rawPasswords.get(row))));
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new HashingCapacityExceededException("Interrupted while waiting for password hashing capacity");
+		}
+		pending.forEach(PasswordHashingService::join);
+		return Arrays.asList(hashes);
+	}
+
+	private <T> CompletableFuture<T> submitBulk(Supplier<T> task) throws InterruptedException {
+		while (true) {
+			bulkPermits.acquire();
+			try {
+				return submit(() -> {
+					try {
+						return task.get();
+					} finally {
+						bulkPermits.release();
+					}
+				});
+			} catch (HashingCapacityExceededException ex) {
+				bulkPermits.release();
+				Thread.sleep(BULK_RETRY_MS);
+			}
+		}
+	}
+
+	static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw ex;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BulkCreateResult;
+import com.example.demo.dto.BulkDeleteResult;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeePatch;
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.ReactiveEmployeeRepository;
+import com.example.demo.security.RoleSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeService {
+
+	/*
+	 * Employee operations for the reactive profile, with EmployeeService's access
+	 * rules. Reads, the bulk of the traffic, go through ReactiveEmployeeRepository
+	 * and never block. Writes keep their single implementation in EmployeeService
+	 * (hashing, version checks, cache eviction) and run on boundedElastic, so
+	 * they only occupy a worker thread while they wait on BCrypt or Mongo.
+	 */
+	@Autowired
+	private ReactiveEmployeeRepository employees;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	/** ADMIN: one keyset page of all employees; USER: only their own record, never a next page */
+	public Mono<EmployeePage> getEmployeesPage(Authentication auth, String cursor, int limit, Set<String> fields) {
+		if (!RoleSet.isAdmin(auth)) {
+			return employees.findProjectedByUsername(auth.getName(), fields).map(List::of)
+					.defaultIfEmpty(List.of()).map(items -> new EmployeePage(items, null));
+		}
+		// defer: a malformed cursor becomes an error signal, not an exception in the caller
+		return Mono.defer(() -> employees
+				.findPageAfter(cursor == null ? null : EmployeePage.decodeCursor(cursor), limit, fields).collectList())
+				.map(items -> new EmployeePage(items, items.size() < limit ? null
+						: EmployeePage.encodeCursor(items.get(items.size() - 1).getEmpId())));
+	}
+
+	/** ETag of that page, from the collection version alone (see EmployeeETags) */
+	public Mono<String> employeesPageETag(Authentication auth, String cursor, int limit, Set<String> fields) {
+		return employees.collectionVersion()
+				.map(version -> EmployeeETags.page(version, auth.getName(), cursor, limit, fields));
+	}
+
+	/** Same access rules, streamed from the cursor with backpressure */
+	public Flux<Employee> streamEmployees(Authentication auth, Set<String> fields) {
+		return RoleSet.isAdmin(auth) ? employees.streamAll(fields)
+				: employees.findProjectedByUsername(auth.getName(), fields).flux();
+	}
+
+	/** The employee with this id, only if it is the caller's own record */
+	public Mono<Employee> getEmployeeById(Authentication auth, String id, Set<String> fields) {
+		return employees.findByIdAndUsername(id, auth.getName(), fields);
+	}
+
+	public Mono<Employee> createEmployee(Employee employee) {
+		return blocking(() -> employeeService.createEmployee(employee));
+	}
+
+	public Mono<BulkCreateResult> createEmployees(List<Employee> list) {
+		return blocking(() -> employeeService.createEmployees(list));
+	}
+
+	public Mono<Optional<Employee>> updateEmployee(String id, EmployeePatch patch) {
+		return blocking(() -> employeeService.updateEmployee(id, patch));
+	}
+
+	public Mono<EmployeeService.DeleteOutcome> deleteEmployee(String id, String currentUsername) {
+		return blocking(() -> employeeService.deleteEmployee(id, currentUsername));
+	}
+
+	public Mono<BulkDeleteResult> deleteEmployees(List<String> ids, String currentUsername) {
+		return blocking(() -> employeeService.deleteEmployees(ids, currentUsername));
+	}
+
+	/* on boundedElastic, as the caller: EmployeeService reads (and audits) the thread-bound SecurityContext */
+	private static <T> Mono<T> blocking(Callable<T> call) {
+		return ReactiveSecurityContextHolder.getContext().defaultIfEmpty(SecurityContextHolder.createEmptyContext())
+				.flatMap(caller -> Mono.fromCallable(DelegatingSecurityContextCallable.create(call, caller))
+						.subscribeOn(Schedulers.boundedElastic()));
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.TokenResponse;
+import com.example.demo.entity.RefreshToken;
+import com.example.demo.exception.InvalidRefreshTokenException;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.security.IssuedToken;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.TokenRevocationList;
+import com.example.demo.security.VerifiedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+@Service
+public class RefreshTokenService {
+
+	private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+
+	@Autowired
+	private RefreshTokenRepository repository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private TokenRevocationList revocations;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	@Value("${app.jwt.refresh-ttl:14d}")
+	private Duration refreshTtl;
+
+	/*
+	 * Login: issues an access token and the first refresh token of a new family.
+	 * Refresh tokens are 256 random bits handed to the client once; only their
+	 * SHA-256 is stored, so a leaked collection cannot be replayed.
+	 */
+	public TokenResponse login(String username, List<String> roles) {
+		return issue(username, roles, randomToken());
+	}
+
+	/*
+	 * Rotation: the presented token is claimed atomically (see
+	 * RefreshTokenRepositoryCustom.claimUnused) and replaced by a new one in the
+	 * same family, so each refresh token works exactly once. Roles are re-read
+	 * through the (cached) CustomUserDetailsService, so role changes and deleted
+	 * users take effect at the next refresh. If the token exists but was already
+	 * used or revoked, it has been replayed: the whole family is revoked,
+	 * including the access tokens issued with it, and the user has to log in
+	 * again.
+	 */
+	public TokenResponse refresh(String rawToken) {
+		if (rawToken == null || rawToken.isBlank()) {
+			throw new InvalidRefreshTokenException("Missing refresh token");
+		}
+		String hash = hash(rawToken);
+		RefreshToken current = repository.claimUnused(hash, new Date()).orElse(null);
+		if (current == null) {
+			repository.findById(hash).filter(t -> t.getUsedAt() != null || t.isRevoked()).ifPresent(reused -> {
+				log.warn("Refresh token reuse for user {} - revoking token family {}", reused.getUsername(),
+						reused.getFamilyId());
+				revokeFamily(reused.getFamilyId());
+			});
+			throw new InvalidRefreshTokenException("Refresh token is invalid, expired or already used");
+		}
+		UserDetails user = userDetailsService.loadUserByUsername(current.getUsername());
+		List<String> roles = user.getAuthorities().stream().map(a -> a.getAuthority().replace("ROLE_", ""))
+				.toList();
+		return issue(user.getUsername(), roles, current.getFamilyId());
+	}
+
+	/*
+	 * Logout: revokes the access token that made the request and, when given, the
+	 * refresh token's whole family. Unknown refresh tokens are ignored.
+	 */
+	public void logout(VerifiedToken accessToken, String rawRefreshToken) {
+		if (accessToken != null) {
+			revocations.revoke(accessToken.getJti(), accessToken.getExpiresAtMs());
+		}
+		if (rawRefreshToken != null && !rawRefreshToken.isBlank()) {
+			repository.findById(hash(rawRefreshToken)).ifPresent(t -> revokeFamily(t.getFamilyId()));
+		}
+	}
+
+	private TokenResponse issue(String username, List<String> roles, String familyId) {
+		IssuedToken access = jwtUtil.issue(username, roles);
+		String refresh = randomToken();
+		repository.save(new RefreshToken(hash(refresh), username, familyId,
+				new Date(System.currentTimeMillis() + refreshTtl.toMillis()), access.jti(),
+				new Date(access.expiresAtMs())));
+		long expiresIn = Math.max(0, (access.expiresAtMs() - System.currentTimeMillis()) / 1000);
+		return new TokenResponse(access.token(), refresh, expiresIn);
+	}
+
+	private void revokeFamily(String familyId) {
+		repository.revokeFamily(familyId);
+		for (RefreshToken t : repository.findByFamilyId(familyId)) {
+			if (t.getAccessExpiresAt() != null) {
+				revocations.revoke(t.getAccessJti(), t.getAccessExpiresAt().getTime());
+			}
+		}
+	}
+
+	private static String randomToken() {
+		byte[] bytes = new byte[32];
+		RANDOM.nextBytes(bytes);
+		return B64.encodeToString(bytes);
+	}
+
+	static String hash(String rawToken) {
+		try {
+			return B64.encodeToString(
+					MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Bounded lock-free ring buffer for many producers and one consumer, after
+ * Dmitry Vyukov's bounded queue. Every slot carries a sequence number: slot i
+ * is free for the producer that claims position p when its sequence is p, and
+ * holds a published element for the consumer when it is p + 1. A producer
+ * claims a position with one CAS on tail, stores the element and publishes it
+ * by setting the sequence; it never blocks and never allocates, and a full
+ * buffer makes offer return false. The consumer frees a slot for the next lap
+ * by setting its sequence to p + capacity. Only one thread may drain.
+ */
+final class RingBuffer<E> {
+
+	private final Object[] elements;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private volatile long head; // written by the consumer only
+
+	/** capacity is rounded up to a power of two */
+	RingBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+		elements = new Object[size];
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+		mask = size - 1;
+	}
+
+	int capacity() {
+		return elements.length;
+	}
+
+	/** Adds the element; false if the buffer is full */
+	boolean offer(E element) {
+		long position = tail.get();
+		while (true) {
+			int slot = (int) position & mask;
+			long available = sequences.get(slot) - position;
+			if (available == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements[slot] = element;
+					sequences.set(slot, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (available < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/** Moves up to max published elements, oldest first, into sink; consumer thread only */
+	@SuppressWarnings("unchecked")
+	int drainTo(List<? super E> sink, int max) {
+		long position = head;
+		int drained = 0;
+		while (drained < max) {
+			int slot = (int) position & mask;
+			if (sequences.get(slot) != position + 1) {
+				break;
+			}
+			sink.add((E) elements[slot]);
+			elements[slot] = null;
+			sequences.set(slot, position + elements.length);
+			position++;
+			drained++;
+		}
+		head = position;
+		return drained;
+	}
+
+	/** Claimed but not yet drained; may include elements still being published */
+	int size() {
+		return (int) Math.max(0, tail.get() - head);
+	}
+
+	/** Positions claimed so far: the position the next offer will take */
+	long offered() {
+		return tail.get();
+	}
+
+	/** Positions drained so far: the position the next drainTo starts at */
+	long drained() {
+		return head;
+	}
+}
@@ -0,0 +1,182 @@
+package com.example.demo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.demo.repository.AuditEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+/* Full application on the in-memory repositories: no MongoDB needed */
+@SpringBootTest(properties = { "app.security.password.bcrypt-strength=4",
+		"app.security.login-rate.username.capacity=0", "app.audit.flush-interval=20ms" })
+@ActiveProfiles("inmemory")
+@AutoConfigureMockMvc
+class InMemoryProfileTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private AuditEventRepository auditEvents;
+
+	private String adminToken() throws Exception {
+		String body = mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"admin\",\"password\":\"admin123\"}")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("token").asText();
+	}
+
+	@Test
+	void adminCanLogInAndListEmployees() throws Exception {
+		String token = adminToken();
+
+		mvc.perform(get("/employees").header("Authorization", "Bearer " + token)).andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].username", hasItem("admin")))
+				.andExpect(jsonPath("$[0].password").doesNotExist());
+	}
+
+	@Test
+	void patchIsConditionalOnTheVersion() throws Exception {
+		String auth = "Bearer " + adminToken();
+		mvc.perform(post("/employees").header("Authorization", auth).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"empId\":\"P1\",\"username\":\"patchme\",\"password\":\"pw\",\"userRoles\":[\"USER\"]}"))
+				.andExpect(status().isCreated());
+
+		mvc.perform(patch("/employees/P1").header("Authorization", auth).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"userRoles\":[\"USER\",\"ADMIN\"],\"version\":0}")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.version").value(1)).andExpect(jsonPath("$.userRoles", hasItem("ADMIN")))
+				.andExpect(jsonPath("$.password").doesNotExist());
+		mvc.perform(patch("/employees/P1").header("Authorization", auth).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"userRoles\":[\"USER\"],\"version\":0}")).andExpect(status().isConflict());
+		mvc.perform(patch("/employees/nope").header("Authorization", auth).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"userRoles\":[\"USER\"]}")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void deletesNeverRemoveTheCallersOwnRecord() throws Exception {
+		String auth = "Bearer " + adminToken();
+		for (String id : List.of("D1", "D2")) {
+			mvc.perform(post("/employees").header("Authorization", auth).contentType(MediaType.APPLICATION_JSON)
+					.content("{\"empId\":\"" + id + "\",\"username\":\"del-" + id + "\",\"password\":\"pw\"}"))
+					.andExpect(status().isCreated());
+		}
+
+		mvc.perform(delete("/employees/EMP001").header("Authorization", auth)).andExpect(status().isForbidden());
+		mvc.perform(delete("/employees/D1").header("Authorization", auth)).andExpect(status().isOk());
+		mvc.perform(delete("/employees/D1").header("Authorization", auth)).andExpect(status().isNotFound());
+		mvc.perform(delete("/employees/bulk").header("Authorization", auth).contentType(MediaType.APPLICATION_JSON)
+				.content("[\"D1\",\"EMP001\"]")).andExpect(status().isMultiStatus())
+				.andExpect(jsonPath("$.rows[*].status", contains("NOT_FOUND", "FORBIDDEN")));
+		// D1 is gone too, and one conditional delete cannot say which of the two it removed
+		mvc.perform(delete("/employees/bulk").header("Authorization", auth).contentType(MediaType.APPLICATION_JSON)
+				.content("[\"D2\",\"EMP001\",\"D1\"]")).andExpect(status().isMultiStatus())
+				.andExpect(jsonPath("$.rows[*].status", contains("DELETED", "FORBIDDEN", "DELETED")));
+	}
+
+	@Test
+	void conditionalGetsAnswer304UntilAWrite() throws Exception {
+		String auth = "Bearer " + adminToken();
+		String list = mvc.perform(get("/employees").header("Authorization", auth)).andExpect(status().isOk())
+				.andExpect(header().string("Cache-Control", "no-cache, private")).andReturn().getResponse()
+				.getHeader("ETag");
+		String own = mvc.perform(get("/employees/EMP001").header("Authorization", auth)).andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+
+		mvc.perform(get("/employees").header("Authorization", auth).header("If-None-Match", list))
+				.andExpect(status().isNotModified()).andExpect(header().string("ETag", list))
+				.andExpect(content().string(""));
+		mvc.perform(get("/employees/EMP001").header("Authorization", auth).header("If-None-Match", own))
+				.andExpect(status().isNotModified());
+		mvc.perform(get("/employees?fields=username").header("Authorization", auth).header("If-None-Match", list))
+				.andExpect(status().isOk());
+
+		mvc.perform(post("/employees").header("Authorization", auth).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"empId\":\"E1\",\"username\":\"etag-user\",\"password\":\"pw\"}"))
+				.andExpect(status().isCreated());
+		mvc.perform(get("/employees").header("Authorization", auth).header("If-None-Match", list))
+				.andExpect(status().isOk()).andExpect(header().string("ETag", not(list)))
+				.andExpect(jsonPath("$[*].username", hasItem("etag-user")));
+		mvc.perform(get("/employees/EMP001").header("Authorization", auth).header("If-None-Match", own))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void loginsAndWritesReachTheAuditLog() throws Exception {
+		String auth = "Bearer " + adminToken();
+		mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"nobody\",\"password\":\"wrong\"}")).andExpect(status().isUnauthorized());
+		mvc.perform(post("/employees/import").header("Authorization", auth).contentType("application/x-ndjson")
+				.content("{\"empId\":\"A1\",\"username\":\"audited\",\"password\":\"pw\"}\n"))
+				.andExpect(status().isOk());
+		mvc.perform(delete("/employees/A1").header("Authorization", auth)).andExpect(status().isOk());
+
+		List<String> expected = List.of("admin login null success", "nobody login null bad_credentials",
+				"admin employee.create A1 created", "admin employee.delete A1 deleted");
+		List<String> events = List.of();
+		for (int waited = 0; waited < 5000; waited += 20) {
+			events = auditEvents.findAll().stream()
+					.map(e -> e.getActor() + " " + e.getType() + " " + e.getTarget() + " " + e.getOutcome()).toList();
+			if (events.containsAll(expected)) {
+				break;
+			}
+			Thread.sleep(20);
+		}
+		assertThat(events, hasItems(expected.toArray(String[]::new)));
+	}
+
+	@Test
+	void introspectionAnswersManyTokensForAnAdminCaller() throws Exception {
+		String token = adminToken();
+		String caller = "Bearer " + adminToken();
+		String body = objectMapper.writeValueAsString(Map.of("tokens", List.of(token, "not-a-jwt")));
+
+		mvc.perform(post("/auth/introspect").header("Authorization", caller).contentType(MediaType.APPLICATION_JSON)
+				.content(body)).andExpect(status().isOk()).andExpect(jsonPath("$.requested").value(2))
+				.andExpect(jsonPath("$.active").value(1)).andExpect(jsonPath("$.results[0].active").value(true))
+				.andExpect(jsonPath("$.results[0].sub").value("admin"))
+				.andExpect(jsonPath("$.results[0].roles", hasItem("ADMIN")))
+				.andExpect(jsonPath("$.results[0].expiresIn", greaterThan(0)))
+				.andExpect(jsonPath("$.results[0].reason").doesNotExist())
+				.andExpect(jsonPath("$.results[1].active").value(false))
+				.andExpect(jsonPath("$.results[1].reason").value("malformed"));
+
+		mvc.perform(post("/auth/logout").header("Authorization", "Bearer " + token)).andExpect(status().isNoContent());
+		mvc.perform(post("/auth/introspect").header("Authorization", caller).contentType(MediaType.APPLICATION_JSON)
+				.content(body)).andExpect(status().isOk()).andExpect(jsonPath("$.results[0].reason").value("revoked"));
+		mvc.perform(post("/auth/introspect").header("Authorization", caller).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"tokens\":[]}")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void introspectionIsRefusedToAnonymousAndNonAdminCallers() throws Exception {
+		String admin = "Bearer " + adminToken();
+		mvc.perform(post("/employees").header("Authorization", admin).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"empId\":\"I1\",\"username\":\"introspect-user\",\"password\":\"pw\","
+						+ "\"userRoles\":[\"USER\"]}")).andExpect(status().isCreated());
+		String user = mvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"introspect-user\",\"password\":\"pw\"}")).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String body = "{\"tokens\":[\"not-a-jwt\"]}";
+
+		mvc.perform(post("/auth/introspect").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isForbidden());
+		mvc.perform(post("/auth/introspect").header("Authorization",
+				"Bearer " + objectMapper.readTree(user).get("token").asText()).contentType(MediaType.APPLICATION_JSON)
+				.content(body)).andExpect(status().isForbidden());
+	}
+}
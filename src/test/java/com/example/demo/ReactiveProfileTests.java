@@ -0,0 +1,145 @@
+package com.example.demo;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+/* The WebFlux mode end to end, on the in-memory repositories: same rules and status codes as the servlet mode */
+@SpringBootTest(properties = { "app.security.password.bcrypt-strength=4", "app.security.login-rate.username.capacity=0",
+		"spring.main.web-application-type=reactive" })
+@ActiveProfiles({ "inmemory", "reactive" })
+@AutoConfigureWebTestClient
+class ReactiveProfileTests {
+
+	@Autowired
+	private WebTestClient web;
+
+	@Autowired
+	private ApplicationContext context;
+
+	private String login(String username, String password) {
+		return (String) web.post().uri("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("username", username, "password", password)).exchange().expectStatus().isOk()
+				.expectBody(Map.class).returnResult().getResponseBody().get("token");
+	}
+
+	@Test
+	void adminCanLogInAndPageThroughEmployees() {
+		assertInstanceOf(ReactiveWebApplicationContext.class, context);
+		String auth = "Bearer " + login("admin", "admin123");
+		web.post().uri("/employees").header(HttpHeaders.AUTHORIZATION, auth).contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"empId\":\"R1\",\"username\":\"reactive-user\",\"password\":\"pw\"}").exchange()
+				.expectStatus().isCreated();
+
+		web.get().uri("/employees?limit=1").header(HttpHeaders.AUTHORIZATION, auth).exchange().expectStatus().isOk()
+				.expectHeader().value(HttpHeaders.LINK, containsString("rel=\"next\"")).expectBody()
+				.jsonPath("$.length()").isEqualTo(1).jsonPath("$[0].password").doesNotExist();
+		web.get().uri("/employees/stream").header(HttpHeaders.AUTHORIZATION, auth).exchange().expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON).expectBody(String.class)
+				.value(containsString("\"username\":\"reactive-user\""));
+	}
+
+	@Test
+	void accessRulesMatchTheServletChain() {
+		web.get().uri("/employees").exchange().expectStatus().isForbidden();
+		web.get().uri("/employees").header(HttpHeaders.AUTHORIZATION, "Bearer not-a-jwt").exchange().expectStatus()
+				.isForbidden();
+		web.post().uri("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("username", "admin", "password", "wrong")).exchange().expectStatus()
+				.isUnauthorized();
+		web.post().uri("/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("username", "nobody", "password", "wrong")).exchange().expectStatus()
+				.isUnauthorized();
+
+		String admin = "Bearer " + login("admin", "admin123");
+		web.post().uri("/employees").header(HttpHeaders.AUTHORIZATION, admin)
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"empId\":\"R2\",\"username\":\"plain-user\",\"password\":\"pw\",\"userRoles\":[\"USER\"]}")
+				.exchange().expectStatus().isCreated();
+		String user = "Bearer " + login("plain-user", "pw");
+
+		web.get().uri("/employees").header(HttpHeaders.AUTHORIZATION, user).exchange().expectStatus().isOk()
+				.expectBody().jsonPath("$[*].username").value(contains("plain-user"));
+		web.get().uri("/employees/EMP001").header(HttpHeaders.AUTHORIZATION, user).exchange().expectStatus()
+				.isForbidden();
+		web.delete().uri("/employees/R2").header(HttpHeaders.AUTHORIZATION, user).exchange().expectStatus()
+				.isForbidden();
+		web.delete().uri("/employees/EMP001").header(HttpHeaders.AUTHORIZATION, admin).exchange().expectStatus()
+				.isForbidden();
+		web.delete().uri("/employees/R2").header(HttpHeaders.AUTHORIZATION, admin).exchange().expectStatus().isOk();
+	}
+
+	@Test
+	void patchAndImportBehaveAsInServletMode() {
+		String auth = "Bearer " + login("admin", "admin123");
+
+		web.post().uri("/employees/import").header(HttpHeaders.AUTHORIZATION, auth)
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.bodyValue("{\"empId\":\"I1\",\"username\":\"imported\",\"password\":\"pw\"}\n\nnot json\n"
+						+ "{\"username\":\"imported\",\"password\":\"pw\"}\n")
+				.exchange().expectStatus().isOk().expectBody(String.class)
+				.value(allOf(containsString("\"line\":3"), containsString("\"line\":4"),
+						containsString("{\"type\":\"done\",\"processed\":3,\"created\":1,\"failed\":2}")));
+
+		web.patch().uri("/employees/I1").header(HttpHeaders.AUTHORIZATION, auth)
+				.contentType(MediaType.APPLICATION_JSON).bodyValue("{\"userRoles\":[\"USER\"],\"version\":0}")
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$.version").isEqualTo(1);
+		web.patch().uri("/employees/I1").header(HttpHeaders.AUTHORIZATION, auth)
+				.contentType(MediaType.APPLICATION_JSON).bodyValue("{\"userRoles\":[\"USER\"],\"version\":0}")
+				.exchange().expectStatus().isEqualTo(409);
+		web.patch().uri("/employees/nope").header(HttpHeaders.AUTHORIZATION, auth)
+				.contentType(MediaType.APPLICATION_JSON).bodyValue("{\"userRoles\":[\"USER\"]}").exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void conditionalGetsAnswer304UntilAWrite() {
+		String auth = "Bearer " + login("admin", "admin123");
+		String list = web.get().uri("/employees").header(HttpHeaders.AUTHORIZATION, auth).exchange().expectStatus()
+				.isOk().expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "no-cache, private")
+				.returnResult(String.class).getResponseHeaders().getETag();
+
+		web.get().uri("/employees").header(HttpHeaders.AUTHORIZATION, auth).header(HttpHeaders.IF_NONE_MATCH, list)
+				.exchange().expectStatus().isNotModified().expectHeader().valueEquals(HttpHeaders.ETAG, list)
+				.expectBody().isEmpty();
+		String own = web.get().uri("/employees/EMP001").header(HttpHeaders.AUTHORIZATION, auth).exchange()
+				.expectStatus().isOk().returnResult(String.class).getResponseHeaders().getETag();
+		web.get().uri("/employees/EMP001").header(HttpHeaders.AUTHORIZATION, auth)
+				.header(HttpHeaders.IF_NONE_MATCH, own).exchange().expectStatus().isNotModified();
+
+		web.post().uri("/employees").header(HttpHeaders.AUTHORIZATION, auth).contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"empId\":\"E1\",\"username\":\"etag-user\",\"password\":\"pw\"}").exchange()
+				.expectStatus().isCreated();
+		web.get().uri("/employees").header(HttpHeaders.AUTHORIZATION, auth).header(HttpHeaders.IF_NONE_MATCH, list)
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$[*].username").value(hasItem("etag-user"));
+	}
+
+	@Test
+	void introspectionAnswersManyTokensForAnAdminCaller() {
+		String token = login("admin", "admin123");
+		String caller = "Bearer " + login("admin", "admin123");
+
+		web.post().uri("/auth/introspect").header(HttpHeaders.AUTHORIZATION, caller)
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(Map.of("tokens", List.of(token, "not-a-jwt")))
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$.active").isEqualTo(1)
+				.jsonPath("$.results[0].sub").isEqualTo("admin").jsonPath("$.results[1].reason").isEqualTo("malformed");
+		web.post().uri("/auth/introspect").header(HttpHeaders.AUTHORIZATION, caller)
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(Map.of("tokens", List.of())).exchange()
+				.expectStatus().isBadRequest();
+		web.post().uri("/auth/introspect").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("tokens", List.of(token))).exchange().expectStatus().isForbidden();
+	}
+}
@@ -0,0 +1,151 @@
+package com.example.demo.repository.inmemory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.EmployeeProjection;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class InMemoryEmployeeRepositoryTest {
+
+	private final InMemoryEmployeeRepository repository = new InMemoryEmployeeRepository();
+
+	private static Employee employee(String id, String username, String... roles) {
+		return new Employee(id, username, "hash-" + username, List.of(roles));
+	}
+
+	/* replaces a stored employee, carrying the version it has now */
+	private Employee replace(Employee e) {
+		e.setVersion(repository.findById(e.getEmpId()).orElseThrow().getVersion());
+		return repository.save(e);
+	}
+
+	@Test
+	void usernameIsUniqueAndFollowsRenames() {
+		repository.save(employee("E1", "alice", "USER"));
+
+		assertThrows(DuplicateKeyException.class, () -> repository.save(employee("E2", "alice", "USER")));
+		replace(employee("E1", "alicia", "USER"));
+
+		assertTrue(repository.findByUsername("alice").isEmpty());
+		assertEquals("E1", repository.findByUsername("alicia").orElseThrow().getEmpId());
+		repository.save(employee("E2", "alice", "USER"));
+		assertEquals("E2", repository.findByUsername("alice").orElseThrow().getEmpId());
+	}
+
+	@Test
+	void roleIndexTracksUpdatesAndDeletes() {
+		repository.save(employee("E1", "alice", "ADMIN", "USER"));
+		repository.save(employee("E2", "bob", "USER"));
+
+		assertEquals(2, repository.findByUserRoles("USER").size());
+		replace(employee("E1", "alice", "ADMIN"));
+		repository.deleteById("E2");
+
+		assertTrue(repository.findByUserRoles("USER").isEmpty());
+		assertEquals("alice", repository.findByUserRoles("ADMIN").get(0).getUsername());
+	}
+
+	@Test
+	void pagesFollowMongoIdOrderAndProjectFields() {
+		String oid = new ObjectId().toHexString();
+		repository.save(employee(oid, "carol", "USER"));
+		repository.save(employee("EMP002", "bob", "USER"));
+		repository.save(employee("EMP001", "alice", "USER"));
+
+		List<Employee> first = repository.findPageAfter(null, 2, Set.of("empId", "username"));
+		List<Employee> rest = repository.findPageAfter("EMP002", 2, EmployeeProjection.READABLE);
+
+		assertEquals(List.of("EMP001", "EMP002"), first.stream().map(Employee::getEmpId).toList());
+		assertNull(first.get(0).getUserRoles());
+		assertNull(first.get(0).getPassword());
+		assertEquals(List.of(oid), rest.stream().map(Employee::getEmpId).toList());
+		assertNull(rest.get(0).getPassword());
+	}
+
+	@Test
+	void readsAreCopies() {
+		repository.save(employee("E1", "alice", "USER"));
+
+		repository.findByUsername("alice").orElseThrow().setPassword("changed");
+
+		assertEquals("hash-alice", repository.findById("E1").orElseThrow().getPassword());
+	}
+
+	@Test
+	void insertUnorderedReportsDuplicatesPerRow() {
+		repository.save(employee("E1", "alice", "USER"));
+
+		Map<Integer, String> failures = repository.insertUnordered(
+				List.of(employee("E2", "bob", "USER"), employee("E1", "other", "USER"), employee("E3", "alice")));
+
+		assertEquals(Set.of(1, 2), failures.keySet());
+		assertEquals(2, repository.count());
+	}
+
+	@Test
+	void passwordUpdateIsConditionalOnTheOldHash() {
+		repository.save(employee("E1", "alice", "USER"));
+
+		assertFalse(repository.updatePasswordIfUnchanged("alice", "stale", "new"));
+		assertTrue(repository.updatePasswordIfUnchanged("alice", "hash-alice", "new"));
+		assertEquals("new", repository.findByUsername("alice").orElseThrow().getPassword());
+	}
+
+	@Test
+	void versionIsCheckedAndBumpedByEveryWrite() {
+		Employee alice = repository.save(employee("E1", "alice", "USER"));
+		assertEquals(0L, alice.getVersion());
+
+		Employee stale = repository.findById("E1").orElseThrow();
+		repository.save(repository.findById("E1").orElseThrow());
+		assertThrows(OptimisticLockingFailureException.class, () -> repository.save(stale));
+
+		assertTrue(repository.updateFieldsIf("E1", 0L, null, Map.of("userRoles", List.of("ADMIN"))).isEmpty());
+		Employee patched = repository.updateFieldsIf("E1", 1L, "hash-alice", Map.of("userRoles", List.of("ADMIN")))
+				.orElseThrow();
+		assertEquals(2L, patched.getVersion());
+		assertNull(patched.getPassword());
+		assertEquals(List.of("ADMIN"), repository.findByUserRoles("ADMIN").get(0).getUserRoles());
+	}
+
+	@Test
+	void conditionalDeletesSkipTheExcludedUsername() {
+		repository.save(employee("E1", "admin", "ADMIN"));
+		repository.save(employee("E2", "bob", "USER"));
+		repository.save(employee("E3", "carol", "USER"));
+
+		assertFalse(repository.deleteUnlessUsername("E1", "admin"));
+		assertTrue(repository.deleteUnlessUsername("E2", "admin"));
+		assertEquals(1, repository.deleteAllUnlessUsername(List.of("E1", "E3", "E9"), "admin"));
+		assertEquals(Set.of("E1"), repository.findExistingIds(List.of("E1", "E3", "E9")));
+		assertEquals(List.of("E1"), repository.findAll().stream().map(Employee::getEmpId).toList());
+	}
+
+	@Test
+	void sortsByPropertiesAndPagesTheSortedOrder() {
+		String oid = new ObjectId().toHexString();
+		repository.save(employee(oid, "bob", "USER"));
+		repository.save(employee("EMP2", "Carol", "USER"));
+		repository.save(employee("EMP1", "alice", "USER"));
+
+		assertEquals(List.of("Carol", "bob", "alice"), repository.findAll(Sort.by(Sort.Order.desc("username")
+				.ignoreCase())).stream().map(Employee::getUsername).toList());
+		assertEquals(List.of(oid, "EMP2", "EMP1"), repository.findAll(Sort.by("empId").descending()).stream()
+				.map(Employee::getEmpId).toList());
+		Page<Employee> page = repository.findAll(PageRequest.of(1, 2, Sort.by("username")));
+		assertEquals(List.of("bob"), page.getContent().stream().map(Employee::getUsername).toList());
+		assertEquals(3, page.getTotalElements());
+		assertThrows(UnsupportedOperationException.class, () -> repository.findAll(Sort.by("userRoles")));
+	}
+}
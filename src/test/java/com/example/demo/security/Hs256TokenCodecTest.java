@@ -0,0 +1,170 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Differential tests: a JwtUtil running the fast codec must accept and reject
+ * exactly the same tokens as one running plain jjwt, with the same claims on
+ * success and the same exception type on failure.
+ */
+class Hs256TokenCodecTest {
+
+	private static final String JTI = "Xq3v-9Tj_0aQbW1cLm2nPw";
+	private static final List<String> SUBJECTS = List.of("alice", "quo\"te", "back\\slash", "tab\tnew\nline",
+			"unicodé ☃ 😀", "\u0001ctl/slash", "", " ");
+
+	private final SecretKey key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+	private final RoleRegistry registry = new RoleRegistry(List.of("ADMIN", "USER"));
+	private final SigningKeyRing ring = new SigningKeyRing(null,
+			List.of(new SigningKeyRing.Entry("k1", SignatureAlgorithm.HS256, key, key)));
+	private final Hs256TokenCodec codec = new Hs256TokenCodec("k1", key, registry);
+	private final JwtUtil reference = util("jjwt");
+	private final JwtUtil fast = util("fast");
+
+	private JwtUtil util(String codecName) {
+		JwtUtil util = new JwtUtil();
+		ReflectionTestUtils.setField(util, "keyRing", ring);
+		ReflectionTestUtils.setField(util, "roleRegistry", registry);
+		ReflectionTestUtils.setField(util, "codec", codecName);
+		util.init();
+		return util;
+	}
+
+	private static String outcome(JwtUtil util, String token) {
+		try {
+			VerifiedToken t = util.verify(token);
+			return "OK " + t.getJti() + " " + t.getSubject() + " " + t.getRoles() + " " + t.getIssuedAtMs() + " "
+					+ t.getExpiresAtMs();
+		} catch (RuntimeException ex) {
+			return "ERR " + ex.getClass().getName();
+		}
+	}
+
+	private void assertSameOutcome(String token) {
+		assertEquals(outcome(reference, token), outcome(fast, token), () -> "token: " + token);
+	}
+
+	private static JwtBuilder jjwt() {
+		return Jwts.builder().setHeaderParam("kid", "k1");
+	}
+
+	private static long nowSec() {
+		return System.currentTimeMillis() / 1000;
+	}
+
+	@Test
+	void encoderProducesByteIdenticalTokensToJjwt() {
+		long iat = nowSec();
+		long exp = iat + 3600;
+		for (String sub : SUBJECTS) {
+			String jjwtStandard = jjwt().setId(JTI).setSubject(sub).claim("roles", List.of("ADMIN", "USER"))
+					.setIssuedAt(new Date(iat * 1000)).setExpiration(new Date(exp * 1000)).signWith(key).compact();
+			String jjwtCompact = jjwt().setSubject(sub).claim("r", 3).setExpiration(new Date(exp * 1000)).signWith(key)
+					.compact();
+
+			assertEquals(jjwtStandard, codec.encode(JTI, sub, List.of("ADMIN", "USER"), -1, iat, exp));
+			assertEquals(jjwtCompact, codec.encode(null, sub, List.of("ADMIN", "USER"), 3, -1, exp));
+		}
+	}
+
+	@Test
+	void validTokensTakeTheFastPathWithIdenticalClaims() {
+		long exp = nowSec() + 3600;
+		for (String sub : SUBJECTS) {
+			String standard = codec.encode(JTI, sub, List.of("USER"), -1, nowSec(), exp);
+			String compact = codec.encode(JTI, sub, List.of("ADMIN"), 1, -1, exp);
+
+			assertNotNull(codec.tryDecode(standard, System.currentTimeMillis()));
+			assertNotNull(codec.tryDecode(compact, System.currentTimeMillis()));
+			assertTrue(outcome(fast, standard).startsWith("OK"));
+			assertSameOutcome(standard);
+			assertSameOutcome(compact);
+		}
+	}
+
+	@Test
+	void expiredTamperedForeignAndMalformedTokensAreRejectedTheSameWay() {
+		List<String> tokens = new ArrayList<>();
+		tokens.add(codec.encode(JTI, "alice", List.of("USER"), -1, nowSec() - 7200, nowSec() - 3600));
+		tokens.add(new Hs256TokenCodec("k1", Keys.secretKeyFor(SignatureAlgorithm.HS256), registry).encode(JTI, "alice",
+				List.of("ADMIN"), -1, nowSec(), nowSec() + 3600));
+		tokens.add(jjwt().setSubject("alice").claim("roles", List.of("ADMIN")).compact()); // alg none
+		tokens.add(Jwts.builder().setSubject("alice").signWith(key).compact()); // no kid
+		tokens.add(new Hs256TokenCodec("k2", key, registry).encode(JTI, "alice", List.of("USER"), -1, nowSec(),
+				nowSec() + 3600)); // unknown kid
+		tokens.add(codec.encode(JTI, "alice", List.of(), 1 << 7, -1, nowSec() + 3600)); // unregistered role bit
+		tokens.addAll(List.of("", " ", "abc", "a.b", "a.b.c", "a.b.c.d", "..", "eyJhbGciOiJIUzI1NiJ9..",
+				"eyJhbGciOiJIUzI1NiJ9.e30."));
+		String valid = codec.encode(JTI, "alice", List.of("USER"), -1, nowSec(), nowSec() + 3600);
+		tokens.add(valid + ".");
+		tokens.add(valid.replace('.', ','));
+
+		for (String token : tokens) {
+			assertTrue(outcome(reference, token).startsWith("ERR"), token);
+			assertSameOutcome(token);
+		}
+	}
+
+	@Test
+	void tokensOutsideTheFixedShapeFallBackToJjwt() {
+		Date exp = new Date(System.currentTimeMillis() + 3_600_000);
+		List<String> tokens = List.of(
+				jjwt().setSubject("alice").claim("roles", List.of("USER")).claim("dept", "ops").setExpiration(exp)
+						.signWith(key).compact(),
+				Jwts.builder().setHeaderParam("typ", "JWT").setHeaderParam("kid", "k1").setSubject("alice")
+						.setExpiration(exp).signWith(key).compact(),
+				jjwt().setSubject("alice").claim("roles", List.of(1, true)).setExpiration(exp).signWith(key).compact(),
+				jjwt().setSubject("alice").signWith(key).compact(),
+				codec.encode(JTI, "alice", List.of("USER"), -1, nowSec(), nowSec() + 3600) + "=", // jjwt accepts padding
+				" " + codec.encode(JTI, "alice", List.of("USER"), -1, nowSec(), nowSec() + 3600)); // and trims
+
+		for (String token : tokens) {
+			assertSameOutcome(token);
+		}
+	}
+
+	@Test
+	void everySingleCharacterMutationIsJudgedTheSame() {
+		String token = codec.encode(JTI, "alice", List.of("ADMIN", "USER"), -1, nowSec(), nowSec() + 3600);
+		char[] replacements = { 'A', 'B', 'Q', 'g', 'w', '0', '-', '_', '.', '=', '+' };
+		for (int i = 0; i < token.length(); i++) {
+			for (char c : replacements) {
+				if (token.charAt(i) != c) {
+					assertSameOutcome(token.substring(0, i) + c + token.substring(i + 1));
+				}
+			}
+		}
+	}
+
+	@Test
+	void randomMutationsAreJudgedTheSame() {
+		Random random = new Random(42);
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_.=";
+		String token = codec.encode(JTI, "bob", List.of("USER"), 2, -1, nowSec() + 3600);
+		for (int n = 0; n < 2000; n++) {
+			StringBuilder mutated = new StringBuilder(token);
+			for (int k = 0, edits = 1 + random.nextInt(3); k < edits; k++) {
+				int pos = random.nextInt(mutated.length());
+				switch (random.nextInt(3)) {
+				case 0 -> mutated.setCharAt(pos, alphabet.charAt(random.nextInt(alphabet.length())));
+				case 1 -> mutated.deleteCharAt(pos);
+				default -> mutated.insert(pos, alphabet.charAt(random.nextInt(alphabet.length())));
+				}
+			}
+			assertSameOutcome(mutated.toString());
+		}
+	}
+}
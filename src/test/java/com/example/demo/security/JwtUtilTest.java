@@ -0,0 +1,121 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+class JwtUtilTest {
+
+	private final JwtUtil jwtUtil = new JwtUtil();
+
+	@Test
+	void verifyReturnsAllClaimsFromOneParse() {
+		String token = jwtUtil.generateToken("alice", List.of("ADMIN", "USER"));
+
+		VerifiedToken verified = jwtUtil.verify(token);
+
+		assertEquals("alice", verified.getSubject());
+		assertEquals(List.of("ADMIN", "USER"), verified.getRoles());
+		assertTrue(verified.hasRole("ADMIN"));
+		assertTrue(verified.getExpiresAtMs() > verified.getIssuedAtMs());
+	}
+
+	@Test
+	void legacyAccessorsAgreeWithVerify() {
+		String token = jwtUtil.generateToken("bob", List.of("USER"));
+
+		assertTrue(jwtUtil.validateToken(token));
+		assertEquals("bob", jwtUtil.getUsername(token));
+		assertEquals(List.of("USER"), jwtUtil.getRoles(token));
+	}
+
+	@Test
+	void tamperedOrForeignTokensAreRejected() {
+		String token = jwtUtil.generateToken("bob", List.of("USER"));
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+		assertThrows(JwtException.class, () -> jwtUtil.verify(new JwtUtil().generateToken("bob", List.of("USER"))));
+		assertFalse(jwtUtil.validateToken(""));
+		assertFalse(jwtUtil.validateToken("not-a-jwt"));
+	}
+
+	@Test
+	void revokedTokensAreRejectedEvenFromTheCache() {
+		JwtUtil util = new JwtUtil();
+		TokenRevocationList revocations = new TokenRevocationList(null, 1000);
+		ReflectionTestUtils.setField(util, "tokenCache", new VerifiedTokenCache(100, null));
+		ReflectionTestUtils.setField(util, "revocations", revocations);
+		IssuedToken issued = util.issue("alice", List.of("USER"));
+		assertEquals(issued.jti(), util.verify(issued.token()).getJti());
+
+		revocations.revoke(issued.jti(), issued.expiresAtMs());
+
+		assertThrows(RevokedTokenException.class, () -> util.verify(issued.token()));
+		assertFalse(util.validateToken(issued.token()));
+		assertNotEquals(issued.jti(), util.issue("alice", List.of("USER")).jti());
+	}
+
+	@Test
+	void compactTokensAreShorterAndBothFormatsVerify() {
+		JwtUtil compact = new JwtUtil();
+		ReflectionTestUtils.setField(compact, "roleRegistry", new RoleRegistry(List.of("ADMIN", "USER")));
+		ReflectionTestUtils.setField(compact, "format", "compact");
+		ReflectionTestUtils.setField(compact, "keyRing", ReflectionTestUtils.getField(jwtUtil, "keyRing"));
+
+		String small = compact.generateToken("alice", List.of("ADMIN", "USER"));
+		String standard = jwtUtil.generateToken("alice", List.of("ADMIN", "USER"));
+
+		assertTrue(small.length() < standard.length());
+		assertEquals(List.of("ADMIN", "USER"), compact.verify(small).getRoles());
+		assertTrue(compact.verify(small).getRoleSet().isAdmin());
+		assertEquals(List.of("ADMIN", "USER"), compact.verify(standard).getRoles());
+	}
+
+	@Test
+	void unregisteredRoleFallsBackToStandardClaim() {
+		JwtUtil compact = new JwtUtil();
+		ReflectionTestUtils.setField(compact, "roleRegistry", new RoleRegistry(List.of("ADMIN", "USER")));
+		ReflectionTestUtils.setField(compact, "format", "compact");
+
+		String token = compact.generateToken("carol", List.of("AUDITOR"));
+
+		assertEquals(List.of("AUDITOR"), compact.verify(token).getRoles());
+	}
+
+	@Test
+	void verifyTimersAreTaggedWithTheOutcome() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		JwtUtil util = new JwtUtil();
+		TokenRevocationList revocations = new TokenRevocationList(null, 1000);
+		ReflectionTestUtils.setField(util, "meterRegistry", registry);
+		ReflectionTestUtils.setField(util, "revocations", revocations);
+		util.init();
+		JwtUtil expiredIssuer = new JwtUtil();
+		ReflectionTestUtils.setField(expiredIssuer, "keyRing", ReflectionTestUtils.getField(util, "keyRing"));
+		ReflectionTestUtils.setField(expiredIssuer, "accessTtl", Duration.ofMinutes(-1));
+		IssuedToken issued = util.issue("alice", List.of("USER"));
+		String token = issued.token();
+
+		util.verify(token);
+		util.verify(token);
+		assertFalse(util.validateToken(expiredIssuer.generateToken("alice", List.of("USER"))));
+		assertFalse(util.validateToken(token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA")));
+		assertFalse(util.validateToken("not-a-jwt"));
+		revocations.revoke(issued.jti(), issued.expiresAtMs());
+		assertFalse(util.validateToken(token));
+
+		assertEquals(1, registry.get("jwt.sign").timer().count());
+		assertEquals(2, registry.get("jwt.verify").tag("outcome", "valid").timer().count());
+		for (String outcome : List.of("expired", "tampered", "malformed", "revoked")) {
+			assertEquals(1, registry.get("jwt.verify").tag("outcome", outcome).timer().count(), outcome);
+		}
+		assertNull(registry.find("jwt.verify").tag("outcome", "none").timer());
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demo.exception.LoginRateLimitedException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LoginRateLimiterTest {
+
+	private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+	@Test
+	void usernameBucketEmptiesAndRefills() {
+		LoginRateLimiter limiter = new LoginRateLimiter(0, Duration.ofSeconds(1), 3, Duration.ofSeconds(10),
+				clock::get);
+		for (int i = 0; i < 3; i++) {
+			limiter.check("alice", "10.0.0.1");
+		}
+
+		LoginRateLimitedException ex = assertThrows(LoginRateLimitedException.class,
+				() -> limiter.check("ALICE", "10.0.0.2"));
+		assertEquals(10, ex.getRetryAfterSeconds());
+		limiter.check("bob", "10.0.0.1");
+
+		clock.addAndGet(Duration.ofSeconds(10).toNanos());
+		limiter.check("alice", "10.0.0.1");
+		assertThrows(LoginRateLimitedException.class, () -> limiter.check("alice", "10.0.0.1"));
+	}
+
+	@Test
+	void ipBucketLimitsAcrossUsernames() {
+		LoginRateLimiter limiter = new LoginRateLimiter(2, Duration.ofSeconds(5), 0, Duration.ofSeconds(1),
+				clock::get);
+		limiter.check("a", "10.0.0.1");
+		limiter.check("b", "10.0.0.1");
+
+		assertThrows(LoginRateLimitedException.class, () -> limiter.check("c", "10.0.0.1"));
+		limiter.check("c", "10.0.0.2");
+	}
+
+	@Test
+	void anAttemptRefusedByOneLimitIsNotChargedToTheOther() {
+		LoginRateLimiter limiter = new LoginRateLimiter(3, Duration.ofHours(1), 1, Duration.ofHours(1), clock::get);
+		limiter.check("victim", "10.0.0.1");
+		for (int i = 0; i < 5; i++) {
+			assertThrows(LoginRateLimitedException.class, () -> limiter.check("victim", "10.0.0.1"));
+		}
+
+		// the shared IP still has the two attempts the locked-out username did not use
+		limiter.check("alice", "10.0.0.1");
+		limiter.check("bob", "10.0.0.1");
+		assertThrows(LoginRateLimitedException.class, () -> limiter.check("carol", "10.0.0.1"));
+		// and an IP refusal leaves carol's own bucket untouched
+		limiter.check("carol", "10.0.0.2");
+	}
+
+	@Test
+	void concurrentAttemptsNeverExceedCapacity() throws Exception {
+		LoginRateLimiter limiter = new LoginRateLimiter(0, Duration.ofSeconds(1), 100, Duration.ofHours(1),
+				clock::get);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		AtomicInteger allowed = new AtomicInteger();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				futures.add(pool.submit(() -> {
+					for (int i = 0; i < 1000; i++) {
+						try {
+							limiter.check("victim", "10.0.0.1");
+							allowed.incrementAndGet();
+						} catch (LoginRateLimitedException expected) {
+							// over the limit
+						}
+					}
+				}));
+			}
+			for (Future<?> f : futures) {
+				f.get(10, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(100, allowed.get());
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+class PasswordEncodersTest {
+
+	@Test
+	void legacyUnprefixedBcryptHashesStillMatchAndAreUpgraded() {
+		PasswordEncoder encoder = PasswordEncoders.delegating("bcrypt", 4, 2);
+		String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+		assertTrue(encoder.matches("secret", legacy));
+		assertFalse(encoder.matches("wrong", legacy));
+		assertTrue(encoder.upgradeEncoding(legacy));
+	}
+
+	@Test
+	void newHashesCarryTheAlgorithmIdAndNeedNoUpgrade() {
+		PasswordEncoder bcrypt = PasswordEncoders.delegating("bcrypt", 4, 2);
+		PasswordEncoder argon2 = PasswordEncoders.delegating("argon2", 4, 2);
+
+		String b = bcrypt.encode("secret");
+		String a = argon2.encode("secret");
+
+		assertTrue(b.startsWith("{bcrypt}"));
+		assertTrue(a.startsWith("{argon2}"));
+		assertFalse(bcrypt.upgradeEncoding(b));
+		assertFalse(argon2.upgradeEncoding(a));
+		// either algorithm verifies the other's hashes, so switching does not lock anyone out
+		assertTrue(bcrypt.matches("secret", a));
+		assertTrue(argon2.matches("secret", b));
+	}
+
+	@Test
+	void raisedCostMarksOlderHashesForUpgrade() {
+		String cheap = PasswordEncoders.delegating("bcrypt", 4, 2).encode("secret");
+		PasswordEncoder current = PasswordEncoders.delegating("bcrypt", 5, 2);
+
+		assertTrue(current.matches("secret", cheap));
+		assertTrue(current.upgradeEncoding(cheap));
+	}
+
+	@Test
+	void calibrationNeverGoesBelowTheFloor() {
+		assertEquals(PasswordEncoders.MIN_BCRYPT_STRENGTH, PasswordEncoders.calibrateBcryptStrength(Duration.ZERO));
+		assertEquals(PasswordEncoders.MIN_ARGON2_ITERATIONS, PasswordEncoders.calibrateArgon2Iterations(Duration.ZERO));
+		int strength = PasswordEncoders.calibrateBcryptStrength(Duration.ofMillis(250));
+		assertTrue(strength >= PasswordEncoders.MIN_BCRYPT_STRENGTH && strength <= PasswordEncoders.MAX_BCRYPT_STRENGTH);
+	}
+
+	@Test
+	void unknownAlgorithmIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> PasswordEncoders.delegating("md5", 10, 2));
+	}
+
+	@Test
+	void timedEncoderTagsAlgorithmAndResult() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		PasswordEncoder encoder = new TimedPasswordEncoder(PasswordEncoders.delegating("bcrypt", 4, 2),
+				registry);
+		String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+		String hash = encoder.encode("secret");
+		assertTrue(encoder.matches("secret", hash));
+		assertFalse(encoder.matches("wrong", legacy));
+		assertTrue(encoder.upgradeEncoding(legacy));
+
+		assertEquals(1, registry.get("password.encode").tag("algorithm", "bcrypt").timer().count());
+		assertEquals(1,
+				registry.get("password.matches").tags("algorithm", "bcrypt", "result", "match").timer().count());
+		assertEquals(1,
+				registry.get("password.matches").tags("algorithm", "legacy", "result", "mismatch").timer().count());
+	}
+}
@@ -0,0 +1,76 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.example.demo.exception.HashingCapacityExceededException;
+import com.example.demo.repository.EmployeeRepository;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.PasswordHashingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+class RehashingAuthenticationProviderTest {
+
+	private final PasswordEncoder encoder = PasswordEncoders.delegating("bcrypt", 4, 2);
+	private final PasswordHashingService hashing = mock(PasswordHashingService.class);
+	private final EmployeeRepository repo = mock(EmployeeRepository.class);
+	private final CustomUserDetailsService uds = mock(CustomUserDetailsService.class);
+
+	private RehashingAuthenticationProvider provider(boolean enabled, String storedHash) {
+		when(uds.loadUserByUsername("alice"))
+				.thenReturn(User.withUsername("alice").password(storedHash).roles("USER").build());
+		RehashingAuthenticationProvider p = new RehashingAuthenticationProvider(hashing, repo, uds, enabled);
+		p.setPasswordEncoder(encoder);
+		return p;
+	}
+
+	private static UsernamePasswordAuthenticationToken login(String password) {
+		return UsernamePasswordAuthenticationToken.unauthenticated("alice", password);
+	}
+
+	@Test
+	void outdatedHashIsReplacedAfterSuccessfulLogin() {
+		String legacy = new BCryptPasswordEncoder(4).encode("secret");
+		when(hashing.encodeAsync("secret")).thenReturn(CompletableFuture.completedFuture("{bcrypt}new"));
+		when(repo.updatePasswordIfUnchanged("alice", legacy, "{bcrypt}new")).thenReturn(true);
+
+		assertTrue(provider(true, legacy).authenticate(login("secret")).isAuthenticated());
+
+		verify(repo).updatePasswordIfUnchanged("alice", legacy, "{bcrypt}new");
+		verify(uds).evict("alice");
+	}
+
+	@Test
+	void currentHashesFailedLoginsAndDisabledRehashWriteNothing() {
+		String current = encoder.encode("secret");
+		String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+		provider(true, current).authenticate(login("secret"));
+		assertThrows(Exception.class, () -> provider(true, legacy).authenticate(login("wrong")));
+		provider(false, legacy).authenticate(login("secret"));
+
+		verifyNoInteractions(hashing);
+		verify(repo, never()).updatePasswordIfUnchanged(any(), any(), any());
+	}
+
+	@Test
+	void concurrentChangeOrSaturatedPoolLeavesLoginUnaffected() {
+		String legacy = new BCryptPasswordEncoder(4).encode("secret");
+		when(hashing.encodeAsync("secret")).thenReturn(CompletableFuture.completedFuture("{bcrypt}new"))
+				.thenThrow(new HashingCapacityExceededException("full"));
+		when(repo.updatePasswordIfUnchanged(any(), any(), any())).thenReturn(false);
+		RehashingAuthenticationProvider p = provider(true, legacy);
+
+		assertTrue(p.authenticate(login("secret")).isAuthenticated());
+		assertTrue(p.authenticate(login("secret")).isAuthenticated());
+
+		verify(uds, never()).evict(any());
+	}
+}
@@ -0,0 +1,126 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.*;
+
+class SigningKeyRingTest {
+
+	@TempDir
+	Path dir;
+
+	private final KeyPair ecPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+	private String hs;
+	private String es;
+	private String esPublic;
+
+	@BeforeEach
+	void writeKeyFiles() throws IOException {
+		Path secret = Files.writeString(dir.resolve("hs.key"),
+				Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded()));
+		Path pair = Files.writeString(dir.resolve("es.pem"),
+				pem("PRIVATE KEY", ecPair.getPrivate().getEncoded()) + pem("PUBLIC KEY", ecPair.getPublic().getEncoded()));
+		Path pub = Files.writeString(dir.resolve("es.pub.pem"), pem("PUBLIC KEY", ecPair.getPublic().getEncoded()));
+		hs = "h1:HS256:" + secret;
+		es = "e1:ES256:" + pair;
+		esPublic = "e1:ES256:" + pub;
+	}
+
+	private static String pem(String type, byte[] der) {
+		return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END " + type
+				+ "-----\n";
+	}
+
+	private static JwtUtil node(List<String> keys, String activeKid, String codec) {
+		JwtUtil util = new JwtUtil();
+		ReflectionTestUtils.setField(util, "keyRing", new SigningKeyRing(keys, activeKid));
+		ReflectionTestUtils.setField(util, "codec", codec);
+		util.init();
+		return util;
+	}
+
+	@Test
+	void nodesLoadingTheSameKeysAcceptEachOthersTokens() {
+		for (String active : List.of("h1", "e1")) {
+			for (String codec : List.of("jjwt", "fast")) {
+				JwtUtil a = node(List.of(hs, es), active, codec);
+				JwtUtil b = node(List.of(hs, es), active, codec);
+
+				VerifiedToken verified = b.verify(a.generateToken("alice", List.of("ADMIN")));
+
+				assertEquals("alice", verified.getSubject());
+				assertEquals(List.of("ADMIN"), verified.getRoles());
+			}
+		}
+	}
+
+	@Test
+	void rotationKeepsOlderKidsVerifiable() {
+		JwtUtil before = node(List.of(hs, es), "h1", "jjwt");
+		JwtUtil after = node(List.of(hs, es), "e1", "jjwt");
+		JwtUtil retired = node(List.of(es), null, "jjwt");
+
+		String oldToken = before.generateToken("bob", List.of("USER"));
+		String newToken = after.generateToken("bob", List.of("USER"));
+
+		assertEquals("bob", after.verify(oldToken).getSubject());
+		assertEquals("bob", before.verify(newToken).getSubject());
+		assertEquals("bob", retired.verify(newToken).getSubject());
+		assertThrows(UnsupportedJwtException.class, () -> retired.verify(oldToken));
+	}
+
+	@Test
+	void publicOnlyKeysVerifyButCannotSign() {
+		String token = node(List.of(es), null, "jjwt").generateToken("carol", List.of("USER"));
+
+		assertEquals("carol", node(List.of(hs, esPublic), "h1", "jjwt").verify(token).getSubject());
+		assertThrows(IllegalStateException.class, () -> new SigningKeyRing(List.of(esPublic), "e1"));
+	}
+
+	@Test
+	void algorithmMustMatchTheKeyNamedByKid() {
+		JwtUtil node = node(List.of(hs, es), "e1", "fast");
+		// classic confusion attack: HMAC over the token with the EC public key as secret
+		String forged = Jwts.builder().setHeaderParam("kid", "e1").setSubject("mallory")
+				.claim("roles", List.of("ADMIN")).signWith(Keys.hmacShaKeyFor(ecPair.getPublic().getEncoded()))
+				.compact();
+
+		assertThrows(UnsupportedJwtException.class, () -> node.verify(forged));
+	}
+
+	@Test
+	void jwksPublishesOnlyEcPublicKeys() {
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> keys = (List<Map<String, Object>>) new SigningKeyRing(List.of(hs, es), null).jwks()
+				.get("keys");
+
+		assertEquals(1, keys.size());
+		Map<String, Object> jwk = keys.get(0);
+		assertEquals("e1", jwk.get("kid"));
+		assertEquals("ES256", jwk.get("alg"));
+		assertEquals(Set.of("kty", "crv", "kid", "use", "alg", "x", "y"), jwk.keySet());
+		assertEquals(32, Base64.getUrlDecoder().decode((String) jwk.get("x")).length);
+		assertEquals(32, Base64.getUrlDecoder().decode((String) jwk.get("y")).length);
+	}
+
+	@Test
+	void misconfiguredKeysFailAtStartup() {
+		assertThrows(IllegalStateException.class, () -> new SigningKeyRing(List.of("h1:EdDSA:" + dir), null));
+		assertThrows(IllegalStateException.class, () -> new SigningKeyRing(List.of("h1:HS256:/missing"), null));
+		assertThrows(IllegalStateException.class, () -> new SigningKeyRing(List.of(hs, hs), null));
+		assertThrows(IllegalStateException.class, () -> new SigningKeyRing(List.of(hs), "nope"));
+	}
+}
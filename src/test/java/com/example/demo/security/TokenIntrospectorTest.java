@@ -0,0 +1,125 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demo.dto.IntrospectResponse;
+import com.example.demo.exception.IntrospectionCapacityExceededException;
+import com.example.demo.exception.RateLimitedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class TokenIntrospectorTest {
+
+	private final JwtUtil jwtUtil = new JwtUtil();
+	private final TokenRevocationList revocations = new TokenRevocationList(null, 1000);
+
+	TokenIntrospectorTest() {
+		ReflectionTestUtils.setField(jwtUtil, "revocations", revocations);
+	}
+
+	@Test
+	void eachTokenIsAnsweredInRequestOrder() {
+		JwtUtil expiredIssuer = new JwtUtil();
+		ReflectionTestUtils.setField(expiredIssuer, "keyRing", ReflectionTestUtils.getField(jwtUtil, "keyRing"));
+		ReflectionTestUtils.setField(expiredIssuer, "accessTtl", Duration.ofMinutes(-1));
+		String valid = jwtUtil.generateToken("alice", List.of("ADMIN", "USER"));
+		String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("AA") ? "BB" : "AA");
+		IssuedToken revoked = jwtUtil.issue("bob", List.of("USER"));
+		revocations.revoke(revoked.jti(), revoked.expiresAtMs());
+
+		TokenIntrospector introspector = new TokenIntrospector(jwtUtil, 10, 64, 2, 64, 0);
+		IntrospectResponse response = introspector.introspect("gateway", Arrays.asList(valid,
+				expiredIssuer.generateToken("alice", List.of("USER")), tampered, revoked.token(), "not-a-jwt", null));
+
+		assertEquals(6, response.getRequested());
+		assertEquals(1, response.getActive());
+		IntrospectResponse.Result first = response.getResults().get(0);
+		assertTrue(first.isActive());
+		assertEquals("alice", first.getSub());
+		assertEquals(List.of("ADMIN", "USER"), first.getRoles());
+		assertEquals(jwtUtil.verify(valid).getExpiresAtMs() / 1000, first.getExp());
+		assertTrue(first.getExpiresIn() > 14 * 60 && first.getExpiresIn() <= 15 * 60);
+		assertNull(first.getReason());
+		assertEquals(Arrays.asList(null, "expired", "tampered", "revoked", "malformed", "malformed"),
+				response.getResults().stream().map(IntrospectResponse.Result::getReason).toList());
+	}
+
+	@Test
+	void largeBatchesAreCheckedInParallelWithoutReordering() {
+		List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			tokens.add(i % 7 == 0 ? "garbage" + i : jwtUtil.generateToken("user" + i, List.of("USER")));
+		}
+
+		IntrospectResponse response = new TokenIntrospector(jwtUtil, 1000, 1, 2, 1000, 0).introspect("gateway", tokens);
+
+		for (int i = 0; i < 500; i++) {
+			IntrospectResponse.Result result = response.getResults().get(i);
+			assertEquals(i % 7 != 0, result.isActive());
+			assertEquals(i % 7 == 0 ? null : "user" + i, result.getSub());
+		}
+	}
+
+	@Test
+	void emptyOrOversizedBatchesAreRefused() {
+		TokenIntrospector introspector = new TokenIntrospector(jwtUtil, 2, 64, 2, 64, 0);
+		String token = jwtUtil.generateToken("alice", List.of("USER"));
+
+		assertThrows(IllegalArgumentException.class, () -> introspector.introspect("gateway", List.of()));
+		assertThrows(IllegalArgumentException.class, () -> introspector.introspect("gateway", null));
+		assertThrows(IllegalArgumentException.class,
+				() -> introspector.introspect("gateway", List.of(token, token, token)));
+		assertEquals(2, introspector.introspect("gateway", List.of(token, token)).getActive());
+	}
+
+	@Test
+	void eachCallerIsChargedPerToken() {
+		TokenIntrospector introspector = new TokenIntrospector(jwtUtil, 10, 64, 2, 64, 1);
+		List<String> batch = Collections.nCopies(10, "tampered");
+
+		introspector.introspect("gateway", batch);
+		RateLimitedException ex = assertThrows(RateLimitedException.class,
+				() -> introspector.introspect("gateway", List.of("tampered")));
+
+		assertEquals(1, ex.getRetryAfterSeconds());
+		assertEquals(10, introspector.introspect("other-gateway", batch).getRequested());
+	}
+
+	@Test
+	void aFullPoolRefusesTheBatchInsteadOfQueueingPartOfIt() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		JwtUtil blocking = new JwtUtil() {
+			@Override
+			public VerifiedToken verify(String token) {
+				running.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.verify(token);
+			}
+		};
+		TokenIntrospector introspector = new TokenIntrospector(blocking, 10, 1, 1, 1, 0);
+
+		CompletableFuture<IntrospectResponse> first = introspector.introspectAsync("gateway", List.of("a"));
+		running.await();
+		CompletableFuture<IntrospectResponse> queued = introspector.introspectAsync("gateway", List.of("b"));
+
+		assertThrows(IntrospectionCapacityExceededException.class,
+				() -> introspector.introspectAsync("gateway", List.of("c")));
+		release.countDown();
+		assertEquals("malformed", first.get(5, TimeUnit.SECONDS).getResults().get(0).getReason());
+		assertEquals(1, queued.get(5, TimeUnit.SECONDS).getRequested());
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.example.demo.entity.RevokedToken;
+import com.example.demo.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+class TokenRevocationListTest {
+
+	private static final long HOUR = 3_600_000;
+
+	@Test
+	void revokedJtisAreRejectedAndPersisted() {
+		RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+		TokenRevocationList list = new TokenRevocationList(repository, 1000);
+
+		list.revoke("a", System.currentTimeMillis() + HOUR);
+		list.revoke("expired", System.currentTimeMillis() - 1);
+		list.revoke(null, System.currentTimeMillis() + HOUR);
+
+		assertTrue(list.isRevoked("a"));
+		assertFalse(list.isRevoked("b"));
+		assertFalse(list.isRevoked("expired"));
+		assertFalse(list.isRevoked(null));
+		verify(repository, times(1)).save(any(RevokedToken.class));
+	}
+
+	@Test
+	void startupLoadsAndSyncPicksUpOtherNodesRevocations() {
+		RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+		Date exp = new Date(System.currentTimeMillis() + HOUR);
+		when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(new RevokedToken("old", exp, new Date())));
+		TokenRevocationList list = new TokenRevocationList(repository, 1000);
+		assertTrue(list.isRevoked("old"));
+		assertFalse(list.isRevoked("remote"));
+
+		when(repository.findByRevokedAtGreaterThanEqual(any()))
+				.thenReturn(List.of(new RevokedToken("remote", exp, new Date())));
+		list.sync();
+
+		assertTrue(list.isRevoked("remote"));
+	}
+
+	@Test
+	void pruningDropsExpiredEntriesAndKeepsTheRest() {
+		TokenRevocationList list = new TokenRevocationList(null, 1000);
+		long now = System.currentTimeMillis();
+		list.revoke("short", now + 1000);
+		list.revoke("long", now + HOUR);
+
+		list.prune(now + 2000);
+
+		assertEquals(1, list.size());
+		assertFalse(list.isRevoked("short"));
+		assertTrue(list.isRevoked("long"));
+	}
+
+	@Test
+	void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+		TokenRevocationList.BloomFilter bloom = new TokenRevocationList.BloomFilter(10_000);
+		for (int i = 0; i < 10_000; i++) {
+			bloom.put("revoked-" + i);
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			assertTrue(bloom.mightContain("revoked-" + (i % 10_000)));
+			if (bloom.mightContain("live-" + i)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+	}
+}
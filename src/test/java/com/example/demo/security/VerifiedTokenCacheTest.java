@@ -0,0 +1,83 @@
+package com.example.demo.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+class VerifiedTokenCacheTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicInteger verifications = new AtomicInteger();
+
+	private Function<String, VerifiedToken> verifierExpiringIn(long ms) {
+		return token -> {
+			verifications.incrementAndGet();
+			long now = System.currentTimeMillis();
+			return new VerifiedToken(token, List.of("USER"), now, now + ms);
+		};
+	}
+
+	@Test
+	void repeatedTokenIsVerifiedOnce() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100, registry);
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals("t1", cache.get("t1", verifierExpiringIn(60_000)).getSubject());
+		}
+
+		assertEquals(1, verifications.get());
+		assertEquals(4, registry.get("cache.gets").tag("cache", "jwt.verified").tag("result", "hit")
+				.functionCounter().count());
+	}
+
+	@Test
+	void expiredEntryIsNeverServed() throws InterruptedException {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100, registry);
+		cache.get("t1", verifierExpiringIn(20));
+
+		Thread.sleep(40);
+
+		assertThrows(IllegalStateException.class, () -> cache.get("t1", token -> {
+			throw new IllegalStateException("expired");
+		}));
+	}
+
+	@Test
+	void failedVerificationIsNotCached() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100, registry);
+
+		assertThrows(IllegalStateException.class, () -> cache.get("bad", token -> {
+			throw new IllegalStateException("tampered");
+		}));
+		cache.get("bad", verifierExpiringIn(60_000));
+
+		assertEquals(1, verifications.get());
+	}
+
+	@Test
+	void tokensDifferingOnlyInNonAsciiCharactersDoNotShareAnEntry() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(100, registry);
+
+		cache.get("t\u00e9", verifierExpiringIn(60_000));
+
+		assertThrows(IllegalStateException.class, () -> cache.get("t\u00e8", token -> {
+			throw new IllegalStateException("tampered");
+		}));
+	}
+
+	@Test
+	void zeroSizeDisablesCaching() {
+		VerifiedTokenCache cache = new VerifiedTokenCache(0, registry);
+
+		cache.get("t1", verifierExpiringIn(60_000));
+		cache.get("t1", verifierExpiringIn(60_000));
+
+		assertFalse(cache.isEnabled());
+		assertEquals(2, verifications.get());
+	}
+}
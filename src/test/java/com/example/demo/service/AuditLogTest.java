@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.example.demo.entity.AuditEvent;
+import com.example.demo.repository.AuditEventRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AuditLogTest {
+
+	private final AuditEventRepository repository = mock(AuditEventRepository.class);
+	private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+	private final List<AuditEvent> captured = new CopyOnWriteArrayList<>();
+
+	AuditLogTest() {
+		// the batch list is reused by the writer, so keep a copy of what each insert saw
+		when(repository.insert(anyList())).thenAnswer(inv -> {
+			List<AuditEvent> batch = inv.getArgument(0);
+			batches.add(batch.stream().map(e -> e.getType() + ":" + e.getTarget()).toList());
+			captured.addAll(batch);
+			return batch;
+		});
+	}
+
+	private static AuditEvent event(int i) {
+		return AuditEvent.employee(AuditEvent.EMPLOYEE_CREATE, "admin", "E" + i, "created", null);
+	}
+
+	private List<String> written() {
+		return batches.stream().flatMap(List::stream).toList();
+	}
+
+	@Test
+	void aFullBatchIsWrittenAtOnceAndTheRestOnShutdown() throws Exception {
+		AuditLog audit = new AuditLog(repository, 16, 3, Duration.ofHours(1));
+		audit.record(event(0));
+		audit.record(event(1));
+		Thread.sleep(100);
+		assertEquals(List.of(), batches);
+
+		audit.record(event(2));
+		for (int waited = 0; batches.isEmpty() && waited < 5000; waited += 10) {
+			Thread.sleep(10);
+		}
+		assertEquals(List.of(List.of("employee.create:E0", "employee.create:E1", "employee.create:E2")), batches);
+
+		audit.record(event(3));
+		audit.shutdown();
+
+		assertEquals(List.of(List.of("employee.create:E0", "employee.create:E1", "employee.create:E2"),
+				List.of("employee.create:E3")), batches);
+		audit.record(event(4));
+		assertEquals(1, audit.getDropped());
+	}
+
+	@Test
+	void aFullBufferDropsNewEventsAndRecordsHowMany() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch writing = new CountDownLatch(1);
+		when(repository.insert(anyList())).thenAnswer(inv -> {
+			writing.countDown();
+			release.await();
+			List<AuditEvent> batch = inv.getArgument(0);
+			batches.add(batch.stream().map(e -> e.getType() + ":" + e.getTarget()).toList());
+			return batch;
+		});
+		AuditLog audit = new AuditLog(repository, 4, 2, Duration.ofHours(1));
+		audit.record(event(0));
+		audit.record(event(1));
+		assertTrue(writing.await(5, TimeUnit.SECONDS));
+		for (int i = 2; i < 10; i++) {
+			audit.record(event(i));
+		}
+		assertEquals(4, audit.getDropped());
+
+		release.countDown();
+		for (int waited = 0; written().size() < 7 && waited < 5000; waited += 10) {
+			Thread.sleep(10);
+		}
+		audit.record(event(10));
+		audit.shutdown();
+
+		assertEquals(List.of("employee.create:E0", "employee.create:E1", "employee.create:E2", "employee.create:E3",
+				"employee.create:E4", "employee.create:E5", "audit.dropped:null", "employee.create:E10"), written());
+	}
+
+	@Test
+	void theDropMarkerFollowsTheEventsBufferedBeforeTheDrop() throws Exception {
+		AuditLog audit = new AuditLog(repository, 4, 100, Duration.ofHours(1));
+		for (int i = 0; i < 6; i++) {
+			audit.record(event(i));
+		}
+
+		audit.shutdown();
+
+		assertEquals(List.of("employee.create:E0", "employee.create:E1", "employee.create:E2", "employee.create:E3",
+				"audit.dropped:null"), written());
+		assertEquals("2 events dropped", captured.get(4).getDetail());
+	}
+
+	@Test
+	void aFailedBatchIsRetriedBeforeAnythingNewer() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		List<String> stored = new ArrayList<>();
+		when(repository.insert(anyList())).thenAnswer(inv -> {
+			if (calls.incrementAndGet() == 1) {
+				throw new IllegalStateException("mongo down");
+			}
+			List<AuditEvent> batch = inv.getArgument(0);
+			synchronized (stored) {
+				batch.forEach(e -> stored.add(e.getTarget()));
+			}
+			return batch;
+		});
+		AuditLog audit = new AuditLog(repository, 16, 2, Duration.ofMillis(10));
+		audit.record(event(0));
+		audit.record(event(1));
+		audit.record(event(2));
+
+		audit.shutdown();
+
+		assertTrue(calls.get() >= 2);
+		assertEquals(List.of("E0", "E1", "E2"), stored);
+	}
+}
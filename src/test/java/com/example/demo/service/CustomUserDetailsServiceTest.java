@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class CustomUserDetailsServiceTest {
+
+	private final EmployeeRepository repository = mock(EmployeeRepository.class);
+	private final CustomUserDetailsService uds = new CustomUserDetailsService();
+
+	CustomUserDetailsServiceTest() {
+		ReflectionTestUtils.setField(uds, "employeeRepository", repository);
+		ReflectionTestUtils.setField(uds, "cacheMaxSize", 100L);
+		ReflectionTestUtils.setField(uds, "cacheTtl", Duration.ofMinutes(5));
+		uds.init();
+		when(repository.findByUsername("alice"))
+				.thenReturn(Optional.of(new Employee("E1", "alice", "hash", List.of("user"))));
+	}
+
+	@Test
+	void secondLoadIsServedFromCacheAsAFreshCopy() {
+		UserDetails first = uds.loadUserByUsername("alice");
+		((User) first).eraseCredentials(); // what ProviderManager does after login
+
+		UserDetails second = uds.loadUserByUsername("alice");
+
+		assertEquals("hash", second.getPassword());
+		assertEquals("ROLE_USER", second.getAuthorities().iterator().next().getAuthority());
+		verify(repository, times(1)).findByUsername("alice");
+	}
+
+	@Test
+	void evictionByUsernameOrIdForcesReload() {
+		uds.loadUserByUsername("alice");
+		uds.evict("alice");
+		uds.loadUserByUsername("alice");
+		uds.evictEmployee("E1");
+		uds.loadUserByUsername("alice");
+
+		verify(repository, times(3)).findByUsername("alice");
+	}
+
+	@Test
+	void aWriteOnAnotherNodeForcesReload() {
+		when(repository.collectionVersion()).thenReturn(7L);
+		uds.loadUserByUsername("alice");
+		uds.loadUserByUsername("alice");
+		when(repository.findByUsername("alice"))
+				.thenReturn(Optional.of(new Employee("E1", "alice", "hash", List.of("admin"))));
+		when(repository.collectionVersion()).thenReturn(8L); // counter bumped by another node's write
+
+		UserDetails reloaded = uds.loadUserByUsername("alice");
+		uds.loadUserByUsername("alice");
+
+		assertEquals("ROLE_ADMIN", reloaded.getAuthorities().iterator().next().getAuthority());
+		verify(repository, times(2)).findByUsername("alice");
+	}
+
+	@Test
+	void anEvictionDuringALoadKeepsTheLoadedUserOutOfTheCache() throws Exception {
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch evicted = new CountDownLatch(1);
+		when(repository.findByUsername("bob")).thenAnswer(inv -> {
+			reading.countDown();
+			assertTrue(evicted.await(5, TimeUnit.SECONDS));
+			return Optional.of(new Employee("E2", "bob", "old-hash", List.of("admin")));
+		}).thenReturn(Optional.of(new Employee("E2", "bob", "new-hash", List.of("user"))));
+		CompletableFuture<UserDetails> login = CompletableFuture.supplyAsync(() -> uds.loadUserByUsername("bob"));
+
+		assertTrue(reading.await(5, TimeUnit.SECONDS));
+		uds.evictEmployee("E2"); // role change written while the login was reading the old record
+		evicted.countDown();
+
+		assertEquals("old-hash", login.get(5, TimeUnit.SECONDS).getPassword());
+		assertEquals("new-hash", uds.loadUserByUsername("bob").getPassword());
+		assertEquals("new-hash", uds.loadUserByUsername("bob").getPassword());
+		verify(repository, times(2)).findByUsername("bob");
+	}
+
+	@Test
+	void evictionByIdFindsTheUserUnderItsCachedName() {
+		when(repository.findByUsername("carol"))
+				.thenReturn(Optional.of(new Employee("E3", "carol", "hash", List.of("user"))));
+		uds.loadUserByUsername("alice");
+		uds.loadUserByUsername("carol");
+
+		uds.evictEmployees(List.of("E3", "E9"));
+		uds.loadUserByUsername("alice");
+		uds.loadUserByUsername("carol");
+
+		verify(repository, times(1)).findByUsername("alice");
+		verify(repository, times(2)).findByUsername("carol");
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.example.demo.dto.BulkCreateResult;
+import com.example.demo.entity.Employee;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+class EmployeeImportServiceTest {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final EmployeeService employeeService = mock(EmployeeService.class);
+	private final EmployeeImportService importService = new EmployeeImportService();
+
+	EmployeeImportServiceTest() {
+		ReflectionTestUtils.setField(importService, "employeeService", employeeService);
+		ReflectionTestUtils.setField(importService, "objectMapper", mapper);
+		ReflectionTestUtils.setField(importService, "batchSize", 2);
+		ReflectionTestUtils.setField(importService, "maxLineLength", 60);
+		importService.init();
+		// every row named "dup" is rejected by the insert
+		when(employeeService.insertChunk(anyList(), anyInt())).thenAnswer(inv -> {
+			List<Employee> chunk = inv.getArgument(0);
+			List<BulkCreateResult.Row> rows = new ArrayList<>();
+			for (int i = 0; i < chunk.size(); i++) {
+				Employee e = chunk.get(i);
+				rows.add("dup".equals(e.getUsername()) ? BulkCreateResult.Row.failed(i, e.getEmpId(), "duplicate")
+						: BulkCreateResult.Row.created(i, e.getEmpId()));
+			}
+			return rows;
+		});
+	}
+
+	@Test
+	void streamsBatchesAndReportsErrorsByLine() throws Exception {
+		String body = """
+				{"empId":"E1","username":"a","password":"p"}
+				{not json
+				{"empId":"E2","username":"dup","password":"p"}
+
+				{"empId":"E3","username":"c","password":"p"}
+				{"empId":"E4","username":"d","password":"p"}
+				{"empId":"E5","username":"e","password":"p"}
+				""";
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		importService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+
+		List<JsonNode> events = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			events.add(mapper.readTree(line));
+		}
+		List<JsonNode> errors = events.stream().filter(e -> e.get("type").asText().equals("error")).toList();
+		assertEquals(2, errors.size());
+		assertEquals(2, errors.get(0).get("line").asLong());
+		assertEquals(3, errors.get(1).get("line").asLong());
+		assertEquals("E2", errors.get(1).get("empId").asText());
+
+		JsonNode done = events.get(events.size() - 1);
+		assertEquals("done", done.get("type").asText());
+		assertEquals(6, done.get("processed").asLong());
+		assertEquals(4, done.get("created").asLong());
+		assertEquals(2, done.get("failed").asLong());
+		verify(employeeService, times(3)).insertChunk(anyList(), anyInt());
+	}
+
+	@Test
+	void overlongLinesAreReportedWithoutBeingBuffered() throws Exception {
+		String body = "{\"empId\":\"E1\",\"username\":\"a\",\"password\":\"p\"}\r\n"
+				+ "{\"empId\":\"E2\",\"username\":\"" + "x".repeat(100_000) + "\"}\r\n"
+				+ "{\"empId\":\"E3\",\"username\":\"c\",\"password\":\"p\"}";
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		importService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+
+		List<JsonNode> events = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			events.add(mapper.readTree(line));
+		}
+		assertEquals("error", events.get(0).get("type").asText());
+		assertEquals(2, events.get(0).get("line").asLong());
+		assertEquals("line longer than 60 characters", events.get(0).get("error").asText());
+		JsonNode done = events.get(events.size() - 1);
+		assertEquals(3, done.get("processed").asLong());
+		assertEquals(2, done.get("created").asLong());
+		verify(employeeService).insertChunk(argThat(chunk -> chunk.size() == 2), anyInt());
+	}
+}
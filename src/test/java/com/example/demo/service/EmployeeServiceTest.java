@@ -0,0 +1,211 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.example.demo.dto.BulkCreateResult;
+import com.example.demo.dto.BulkDeleteResult;
+import com.example.demo.dto.EmployeePage;
+import com.example.demo.dto.EmployeePatch;
+import com.example.demo.entity.AuditEvent;
+import com.example.demo.entity.Employee;
+import com.example.demo.repository.EmployeeProjection;
+import com.example.demo.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+class EmployeeServiceTest {
+
+	private final EmployeeRepository repository = mock(EmployeeRepository.class);
+	private final PasswordHashingService hashing = mock(PasswordHashingService.class);
+	private final AuditLog audit = mock(AuditLog.class);
+	private final EmployeeService service = new EmployeeService();
+
+	EmployeeServiceTest() {
+		ReflectionTestUtils.setField(service, "employeeRepository", repository);
+		ReflectionTestUtils.setField(service, "passwordHashing", hashing);
+		ReflectionTestUtils.setField(service, "userDetailsService", mock(CustomUserDetailsService.class));
+		ReflectionTestUtils.setField(service, "audit", audit);
+		ReflectionTestUtils.setField(service, "bulkChunkSize", 2);
+		when(hashing.encodeAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).stream()
+				.map(p -> "hash:" + p).toList());
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private static void authenticate(String username, String role) {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null,
+				List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+	}
+
+	@Test
+	void adminPagesFollowTheCursor() {
+		authenticate("admin", "ADMIN");
+		List<Employee> firstPage = List.of(new Employee("E1", "a", null, List.of()), new Employee("E2", "b", null, List.of()));
+		when(repository.findPageAfter(null, 2, EmployeeProjection.READABLE)).thenReturn(firstPage);
+		when(repository.findPageAfter("E2", 2, EmployeeProjection.READABLE)).thenReturn(List.of(new Employee("E3", "c", null, List.of())));
+
+		EmployeePage page = service.getEmployeesPageWithAccess(null, 2, EmployeeProjection.READABLE);
+		EmployeePage last = service.getEmployeesPageWithAccess(page.getNextCursor(), 2, EmployeeProjection.READABLE);
+
+		assertEquals(firstPage, page.getItems());
+		assertEquals("E3", last.getItems().get(0).getEmpId());
+		assertNull(last.getNextCursor());
+	}
+
+	@Test
+	void usersOnlySeeThemselves() {
+		authenticate("bob", "USER");
+		Employee bob = new Employee("E9", "bob", null, List.of("USER"));
+		when(repository.findProjectedByUsername("bob", EmployeeProjection.READABLE)).thenReturn(Optional.of(bob));
+
+		EmployeePage page = service.getEmployeesPageWithAccess(null, 100, EmployeeProjection.READABLE);
+
+		assertEquals(List.of(bob), page.getItems());
+		assertNull(page.getNextCursor());
+		verify(repository, never()).findPageAfter(any(), anyInt(), any());
+	}
+
+	@Test
+	void bulkCreateReportsEveryRowAndNeverEchoesHashes() {
+		List<Employee> rows = new ArrayList<>();
+		rows.add(new Employee("E1", "alice", "pw1", List.of("USER")));
+		rows.add(new Employee("E2", null, "pw2", List.of("USER")));
+		rows.add(new Employee("E3", "carol", "pw3", List.of("USER")));
+		rows.add(new Employee(null, "dave", "pw4", List.of("USER")));
+		// second chunk: carol is rejected by Mongo, dave goes in
+		when(repository.insertUnordered(anyList())).thenReturn(Map.of()).thenReturn(Map.of(0, "E11000 duplicate key"));
+
+		BulkCreateResult result = service.createEmployees(rows);
+
+		assertEquals(4, result.getRequested());
+		assertEquals(2, result.getCreated());
+		assertEquals(List.of("CREATED", "FAILED", "FAILED", "CREATED"),
+				result.getRows().stream().map(BulkCreateResult.Row::getStatus).toList());
+		assertEquals("username is required", result.getRows().get(1).getError());
+		assertNotNull(result.getRows().get(3).getEmpId());
+		assertEquals("hash:pw1", rows.get(0).getPassword());
+		verify(repository, times(2)).insertUnordered(anyList());
+	}
+
+	@Test
+	void patchWritesOnlyChangedFieldsAndHashesOnlyPlaintext() {
+		Employee updated = new Employee("E1", "alice", null, List.of("ADMIN"));
+		when(repository.updateFieldsIf(eq("E1"), any(), any(), anyMap())).thenReturn(Optional.of(updated));
+		when(hashing.encode(any())).thenAnswer(inv -> "hash:" + inv.getArgument(0));
+		String storedHash = "$2a$10$" + "a".repeat(53);
+
+		service.updateEmployee("E1", new EmployeePatch(null, null, List.of("ADMIN"), 3L));
+		service.updateEmployee("E1", new EmployeePatch(null, storedHash, List.of("ADMIN"), null));
+		service.updateEmployee("E1", new EmployeePatch(null, "new-secret", null, null));
+
+		verify(repository).updateFieldsIf("E1", 3L, null, Map.of("userRoles", List.of("ADMIN")));
+		verify(repository).updateFieldsIf("E1", null, storedHash, Map.of("userRoles", List.of("ADMIN")));
+		verify(repository).updateFieldsIf("E1", null, null, Map.of("password", "hash:new-secret"));
+		verify(hashing).encode("new-secret");
+		verify(hashing, times(1)).encode(any());
+	}
+
+	@Test
+	void failedPatchIsExplainedByOneRead() {
+		when(repository.updateFieldsIf(any(), any(), any(), anyMap())).thenReturn(Optional.empty());
+		Employee stored = new Employee("E1", "alice", "{bcrypt}current", List.of("USER"));
+		stored.setVersion(5L);
+		when(repository.findById("E1")).thenReturn(Optional.of(stored));
+
+		assertTrue(service.updateEmployee("E2", new EmployeePatch("x", null, null, null)).isEmpty());
+		assertThrows(OptimisticLockingFailureException.class,
+				() -> service.updateEmployee("E1", new EmployeePatch("x", null, null, 4L)));
+		assertThrows(IllegalArgumentException.class,
+				() -> service.updateEmployee("E1", new EmployeePatch(null, "{bcrypt}other", null, 5L)));
+	}
+
+	@Test
+	void deleteIsOneConditionalWriteAndExplainsFailures() {
+		authenticate("admin", "ADMIN");
+		when(repository.deleteUnlessUsername("E1", "admin")).thenReturn(true);
+		when(repository.existsById("E0")).thenReturn(true);
+
+		assertEquals(EmployeeService.DeleteOutcome.DELETED, service.deleteEmployee("E1", "admin"));
+		assertEquals(EmployeeService.DeleteOutcome.FORBIDDEN, service.deleteEmployee("E0", "admin"));
+		assertEquals(EmployeeService.DeleteOutcome.NOT_FOUND, service.deleteEmployee("E9", "admin"));
+		verify(repository, never()).existsById("E1");
+		verify(repository, never()).deleteById(any());
+		verify(repository, times(1)).incrementCollectionVersion();
+		ArgumentCaptor<AuditEvent> events = ArgumentCaptor.forClass(AuditEvent.class);
+		verify(audit, times(3)).record(events.capture());
+		assertEquals(List.of("admin employee.delete E1 deleted", "admin employee.delete E0 forbidden",
+				"admin employee.delete E9 not_found"), events.getAllValues().stream()
+						.map(e -> e.getActor() + " " + e.getType() + " " + e.getTarget() + " " + e.getOutcome())
+						.toList());
+	}
+
+	@Test
+	void pageETagChangesWithTheCollectionVersionOnly() {
+		authenticate("admin", "ADMIN");
+		when(repository.collectionVersion()).thenReturn(7L, 7L, 8L);
+
+		String etag = service.employeesPageETag(null, 100, EmployeeProjection.READABLE);
+
+		assertEquals(etag, service.employeesPageETag(null, 100, EmployeeProjection.READABLE));
+		assertNotEquals(etag, service.employeesPageETag(null, 100, EmployeeProjection.READABLE));
+		assertTrue(etag.startsWith("\"c7-") && etag.endsWith("\""));
+		verify(repository, never()).findPageAfter(any(), anyInt(), any());
+	}
+
+	@Test
+	void bulkDeleteReportsEveryId() {
+		when(repository.deleteAllUnlessUsername(Set.of("E1", "E0", "E2"), "admin")).thenReturn(2L);
+		when(repository.findExistingIds(Set.of("E1", "E0", "E2"))).thenReturn(Set.of("E0"));
+
+		BulkDeleteResult result = service.deleteEmployees(List.of("E1", "E0", "E2", "E1"), "admin");
+
+		assertEquals(3, result.getDeleted());
+		assertEquals(List.of("DELETED", "FORBIDDEN", "DELETED", "DELETED"),
+				result.getRows().stream().map(BulkDeleteResult.Row::getStatus).toList());
+		verify(repository).incrementCollectionVersion();
+	}
+
+	@Test
+	void bulkDeleteOfEveryIdIsOneWrite() {
+		when(repository.deleteAllUnlessUsername(Set.of("E1", "E2"), "admin")).thenReturn(2L);
+
+		BulkDeleteResult result = service.deleteEmployees(List.of("E1", "E2"), "admin");
+
+		assertEquals(2, result.getDeleted());
+		verify(repository, never()).findExistingIds(any());
+	}
+
+	@Test
+	void bulkDeleteThatDeletesNothingReportsMissingAndForbiddenIds() {
+		when(repository.deleteAllUnlessUsername(Set.of("E0", "E9"), "admin")).thenReturn(0L);
+		when(repository.findExistingIds(Set.of("E0", "E9"))).thenReturn(Set.of("E0"));
+
+		BulkDeleteResult result = service.deleteEmployees(Arrays.asList("E0", "E9", null), "admin");
+
+		assertEquals(List.of("FORBIDDEN", "NOT_FOUND", "NOT_FOUND"),
+				result.getRows().stream().map(BulkDeleteResult.Row::getStatus).toList());
+		verify(repository, never()).incrementCollectionVersion();
+	}
+}
@@ -0,0 +1,174 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.demo.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class PasswordHashingServiceTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private PasswordHashingService service;
+
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger maxRunning = new AtomicInteger();
+	private final AtomicInteger encoded = new AtomicInteger();
+	private final Set<String> hashingThreads = ConcurrentHashMap.newKeySet();
+
+	// BCrypt that records how many hashes run at once and on which threads
+	private final PasswordEncoder tracking = new BCryptPasswordEncoder(4) {
+		@Override
+		public String encode(CharSequence rawPassword) {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			hashingThreads.add(Thread.currentThread().getName());
+			try {
+				return super.encode(rawPassword);
+			} finally {
+				running.decrementAndGet();
+				encoded.incrementAndGet();
+			}
+		}
+	};
+
+	private PasswordHashingService newService(int threads, int queueCapacity) {
+		service = new PasswordHashingService();
+		ReflectionTestUtils.setField(service, "passwordEncoder", tracking);
+		ReflectionTestUtils.setField(service, "meterRegistry", registry);
+		ReflectionTestUtils.setField(service, "threads", threads);
+		ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+		service.init();
+		return service;
+	}
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void encodesAndMatchesOnThePool() {
+		newService(2, 4);
+
+		String hash = service.encode("secret");
+
+		assertTrue(service.matchesAsync("secret", hash).join());
+		assertFalse(service.matchesAsync("wrong", hash).join());
+		assertEquals(3, registry.get("password.hashing.duration").timer().count());
+	}
+
+	@Test
+	void pooledMatchesChecksOnThePoolAndWaits() {
+		newService(2, 4);
+		String hash = service.encode("secret");
+		PasswordEncoder pooled = service.pooledMatches();
+
+		assertTrue(pooled.matches("secret", hash));
+		assertFalse(pooled.matches("wrong", hash));
+		assertEquals(3, registry.get("password.hashing.duration").timer().count());
+		assertFalse(pooled.upgradeEncoding(hash));
+	}
+
+	@Test
+	void encodeAllKeepsInputOrder() {
+		newService(3, 4);
+		List<String> raw = List.of("a", "b", "c", "d", "e", "f", "g");
+
+		List<String> hashes = service.encodeAll(raw);
+
+		assertEquals(raw.size(), hashes.size());
+		for (int i = 0; i < raw.size(); i++) {
+			assertTrue(new BCryptPasswordEncoder().matches(raw.get(i), hashes.get(i)));
+		}
+	}
+
+	@Test
+	void encodeAllHoldsAtMostTheBulkShareOfThePool() {
+		newService(4, 64);
+
+		service.encodeAll(Collections.nCopies(40, "secret"));
+
+		assertEquals(2, maxRunning.get());
+	}
+
+	@Test
+	void loginIsServedWhileAnImportIsRunning() throws Exception {
+		newService(2, 64);
+		String hash = service.encode("secret");
+		int before = encoded.get();
+		CompletableFuture<?> importing = CompletableFuture.runAsync(
+				() -> service.encodeAll(Collections.nCopies(200, "secret")));
+		while (running.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		assertTrue(service.matches("secret", hash));
+		int importedBeforeLogin = encoded.get() - before;
+		importing.join();
+
+		assertTrue(importedBeforeLogin < 200, "login waited for the whole import");
+	}
+
+	@Test
+	void fullQueueMakesTheImportWaitInsteadOfHashingOnTheCaller() throws InterruptedException {
+		newService(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch busy = new CountDownLatch(1);
+		service.submit(() -> {
+			busy.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		});
+		busy.await();
+		service.submit(() -> null); // fills the single queue slot
+		CompletableFuture<List<String>> importing = CompletableFuture.supplyAsync(
+				() -> service.encodeAll(List.of("a", "b", "c")));
+
+		Thread.sleep(50);
+		assertFalse(importing.isDone());
+		release.countDown();
+
+		assertEquals(3, importing.join().size());
+		assertTrue(hashingThreads.stream().allMatch(name -> name.startsWith("password-hashing-")),
+				hashingThreads.toString());
+	}
+
+	@Test
+	void fullQueueFailsFast() throws InterruptedException {
+		newService(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch running = new CountDownLatch(1);
+		service.submit(() -> {
+			running.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		});
+		running.await();
+		service.submit(() -> null); // fills the single queue slot
+
+		assertThrows(HashingCapacityExceededException.class, () -> service.encodeAsync("x"));
+		assertEquals(1.0, registry.get("password.hashing.rejected").counter().count());
+		assertEquals(1.0, registry.get("password.hashing.queue.depth").gauge().value());
+		release.countDown();
+	}
+}
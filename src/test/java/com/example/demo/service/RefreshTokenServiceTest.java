@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.example.demo.dto.TokenResponse;
+import com.example.demo.entity.RefreshToken;
+import com.example.demo.exception.InvalidRefreshTokenException;
+import com.example.demo.repository.RefreshTokenRepository;
+import com.example.demo.security.JwtUtil;
+import com.example.demo.security.RevokedTokenException;
+import com.example.demo.security.TokenRevocationList;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+class RefreshTokenServiceTest {
+
+	private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+	private final CustomUserDetailsService users = mock(CustomUserDetailsService.class);
+	private final TokenRevocationList revocations = new TokenRevocationList(null, 1000);
+	private final JwtUtil jwtUtil = new JwtUtil();
+	private final RefreshTokenService service = new RefreshTokenService();
+
+	RefreshTokenServiceTest() {
+		ReflectionTestUtils.setField(jwtUtil, "revocations", revocations);
+		ReflectionTestUtils.setField(service, "repository", repository);
+		ReflectionTestUtils.setField(service, "jwtUtil", jwtUtil);
+		ReflectionTestUtils.setField(service, "revocations", revocations);
+		ReflectionTestUtils.setField(service, "userDetailsService", users);
+		ReflectionTestUtils.setField(service, "refreshTtl", Duration.ofDays(14));
+		when(users.loadUserByUsername("alice")).thenReturn(
+				new User("alice", "hash", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+	}
+
+	private RefreshToken saved() {
+		ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+		verify(repository, atLeastOnce()).save(captor.capture());
+		return captor.getValue();
+	}
+
+	@Test
+	void loginStoresOnlyTheHashOfTheRefreshToken() {
+		TokenResponse response = service.login("alice", List.of("USER"));
+
+		RefreshToken stored = saved();
+		assertNotEquals(response.getRefreshToken(), stored.getTokenHash());
+		assertEquals(RefreshTokenService.hash(response.getRefreshToken()), stored.getTokenHash());
+		assertEquals(jwtUtil.verify(response.getToken()).getJti(), stored.getAccessJti());
+		assertTrue(response.getExpiresIn() > 0 && response.getExpiresIn() <= 900);
+	}
+
+	@Test
+	void refreshRotatesWithinTheFamilyAndRereadsRoles() {
+		TokenResponse first = service.login("alice", List.of("USER"));
+		RefreshToken stored = saved();
+		when(repository.claimUnused(eq(stored.getTokenHash()), any())).thenReturn(Optional.of(stored));
+
+		TokenResponse second = service.refresh(first.getRefreshToken());
+
+		RefreshToken next = saved();
+		assertNotEquals(first.getRefreshToken(), second.getRefreshToken());
+		assertEquals(stored.getFamilyId(), next.getFamilyId());
+		assertEquals(List.of("ADMIN"), jwtUtil.verify(second.getToken()).getRoles());
+	}
+
+	@Test
+	void reusingARotatedTokenRevokesTheWholeFamily() {
+		TokenResponse first = service.login("alice", List.of("USER"));
+		RefreshToken used = saved();
+		used.setUsedAt(new Date());
+		when(repository.claimUnused(anyString(), any())).thenReturn(Optional.empty());
+		when(repository.findById(used.getTokenHash())).thenReturn(Optional.of(used));
+		when(repository.findByFamilyId(used.getFamilyId())).thenReturn(List.of(used));
+
+		assertThrows(InvalidRefreshTokenException.class, () -> service.refresh(first.getRefreshToken()));
+
+		verify(repository).revokeFamily(used.getFamilyId());
+		assertThrows(RevokedTokenException.class, () -> jwtUtil.verify(first.getToken()));
+	}
+
+	@Test
+	void unknownRefreshTokensAreRejectedWithoutSideEffects() {
+		when(repository.claimUnused(anyString(), any())).thenReturn(Optional.empty());
+
+		assertThrows(InvalidRefreshTokenException.class, () -> service.refresh("nope"));
+		assertThrows(InvalidRefreshTokenException.class, () -> service.refresh(null));
+		verify(repository, never()).revokeFamily(anyString());
+	}
+
+	@Test
+	void logoutRevokesTheCurrentAccessToken() {
+		TokenResponse response = service.login("alice", List.of("USER"));
+
+		service.logout(jwtUtil.verify(response.getToken()), null);
+
+		assertThrows(RevokedTokenException.class, () -> jwtUtil.verify(response.getToken()));
+	}
+}
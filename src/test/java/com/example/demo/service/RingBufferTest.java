@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+class RingBufferTest {
+
+	@Test
+	void refusesWhenFullAndWrapsAround() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(3);
+		assertEquals(4, buffer.capacity());
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+
+		List<Integer> out = new ArrayList<>();
+		assertEquals(2, buffer.drainTo(out, 2));
+		assertTrue(buffer.offer(4));
+		assertTrue(buffer.offer(5));
+		assertEquals(4, buffer.drainTo(out, 10));
+		assertEquals(List.of(0, 1, 2, 3, 4, 5), out);
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws Exception {
+		int producers = 4;
+		int perProducer = 2_000;
+		RingBuffer<long[]> buffer = new RingBuffer<>(64);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			long producer = p;
+			Thread t = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException ex) {
+					return;
+				}
+				for (long i = 0; i < perProducer; i++) {
+					long[] element = { producer, i };
+					while (!buffer.offer(element)) {
+						Thread.yield(); // give the consumer the core on a small runner
+					}
+				}
+			});
+			t.start();
+			threads.add(t);
+		}
+
+		start.countDown();
+		long[] next = new long[producers];
+		List<long[]> out = new ArrayList<>();
+		int received = 0;
+		while (received < producers * perProducer) {
+			out.clear();
+			int drained = buffer.drainTo(out, 32);
+			if (drained == 0) {
+				Thread.yield();
+			}
+			received += drained;
+			for (long[] element : out) {
+				assertEquals(next[(int) element[0]]++, element[1]);
+			}
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertEquals(0, buffer.size());
+	}
+}